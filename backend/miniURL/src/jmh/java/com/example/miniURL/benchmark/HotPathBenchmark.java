@@ -0,0 +1,178 @@
+package com.example.miniURL.benchmark;
+
+import com.example.miniURL.config.InMemoryRateLimitStore;
+import com.example.miniURL.config.RateLimitConfig;
+import com.example.miniURL.config.RateLimitProperties;
+import com.example.miniURL.config.TieredUrlCache;
+import com.example.miniURL.dto.ShortenUrlResponseDto;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.generator.ShortCodeCodec;
+import com.example.miniURL.interceptor.RateLimitInterceptor;
+import com.example.miniURL.util.LogSampler;
+import com.example.miniURL.util.OffHeapUrlStore;
+import com.example.miniURL.util.UrlUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The building blocks of /shorten and /{code}, each on its own, without Spring or HTTP
+ *
+ * - generateCode: id -> scrambled code value -> 8-char string (id allocation itself is a
+ *   counter, or a DB round trip per block, and left out)
+ * - validateUrl: UrlUtils.isValid on a valid and an invalid URL
+ * - cacheHitL1 / cacheHitL2 / cacheMiss: urlCache lookups as configured by CacheConfig
+ * - rateLimit: RateLimitInterceptor.preHandle on a redirect, always allowed (token-bucket or
+ *   sliding-window policy), including a new MockHttpServletResponse per call
+ * - serializeResponse: ShortenUrlResponseDto to JSON bytes
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="HotPathBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:MaxDirectMemorySize=256m")
+public class HotPathBenchmark {
+
+    private static final int KEYS = 1024;
+
+    @State(Scope.Thread)
+    public static class Codes {
+        final ShortCodeCodec codec = new ShortCodeCodec("benchmark");
+        long nextId = 1_000_000;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Urls {
+        final UrlUtils urlUtils = new UrlUtils();
+
+        @Param({"https://example.com/some/long/path?utm_source=newsletter&id=42", "not a url"})
+        public String url;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Caches {
+        final ShortCode[] codes = new ShortCode[KEYS];
+        final ShortCode[] missing = new ShortCode[KEYS];
+        TieredUrlCache tiered;
+        TieredUrlCache offHeapOnly;
+        int next;
+
+        @Setup(Level.Trial)
+        public void fill() {
+            tiered = cache(64L << 20);
+            // L1 too small to hold anything: every hit is served (and promoted) from L2
+            offHeapOnly = cache(0);
+            for (int i = 0; i < KEYS; i++) {
+                codes[i] = new ShortCode(1_000_000L + i);
+                missing[i] = new ShortCode(2_000_000L + i);
+                URI target = URI.create("https://example.com/benchmark/" + i);
+                tiered.put(codes[i], target);
+                offHeapOnly.put(codes[i], target);
+            }
+        }
+
+        private static TieredUrlCache cache(long l1Bytes) {
+            return new TieredUrlCache("urlCache", Caffeine.newBuilder()
+                    .maximumWeight(l1Bytes)
+                    .weigher(TieredUrlCache::weigh)
+                    .expireAfter(Expiry.writing((key, value) -> Duration.ofHours(1)))
+                    .recordStats()
+                    .build(), new OffHeapUrlStore(64L << 20, 64));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RateLimit {
+        @Param({"token-bucket", "sliding-window"})
+        public String algorithm;
+
+        RateLimitInterceptor interceptor;
+        final MockHttpServletRequest[] requests = new MockHttpServletRequest[KEYS];
+        int next;
+
+        @Setup(Level.Trial)
+        public void start() {
+            RateLimitProperties.Algorithm mode = algorithm.equals("sliding-window")
+                    ? RateLimitProperties.Algorithm.SLIDING_WINDOW
+                    : RateLimitProperties.Algorithm.TOKEN_BUCKET;
+            RateLimitProperties properties = new RateLimitProperties(1_000_000, Map.of("redirect",
+                    new RateLimitProperties.Policy(1_000_000_000L, 0, Duration.ofDays(1),
+                            List.of("/**"), mode, 65536)));
+            interceptor = new RateLimitInterceptor(new RateLimitConfig(properties, new InMemoryRateLimitStore(properties)),
+                    new LogSampler(100));
+            for (int i = 0; i < KEYS; i++) {
+                requests[i] = new MockHttpServletRequest("GET", "/abc12345");
+                requests[i].setRemoteAddr("10.0." + (i >> 8) + "." + (i & 0xFF));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Json {
+        final ObjectMapper objectMapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    public String generateCode(Codes codes) {
+        long value = codes.codec.encodeValue(codes.nextId++);
+        return new ShortCode(value).toString();
+    }
+
+    @Benchmark
+    public boolean validateUrl(Urls urls) {
+        return urls.urlUtils.isValid(urls.url);
+    }
+
+    @Benchmark
+    public URI cacheHitL1(Caches caches) {
+        return caches.tiered.get(caches.codes[caches.next++ & (KEYS - 1)], URI.class);
+    }
+
+    @Benchmark
+    public URI cacheHitL2(Caches caches) {
+        return caches.offHeapOnly.get(caches.codes[caches.next++ & (KEYS - 1)], URI.class);
+    }
+
+    @Benchmark
+    public URI cacheMiss(Caches caches) {
+        return caches.tiered.get(caches.missing[caches.next++ & (KEYS - 1)], URI.class);
+    }
+
+    @Benchmark
+    public boolean rateLimit(RateLimit rateLimit) throws Exception {
+        MockHttpServletRequest request = rateLimit.requests[rateLimit.next++ & (KEYS - 1)];
+        return rateLimit.interceptor.preHandle(request, new MockHttpServletResponse(), this);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse(Json json, Codes codes) throws JsonProcessingException {
+        String shortCode = new ShortCode(codes.codec.encodeValue(codes.nextId++)).toString();
+        return json.objectMapper.writeValueAsBytes(ShortenUrlResponseDto.builder()
+                .shortCode(shortCode)
+                .shortUrl("http://localhost:8080/" + shortCode)
+                .build());
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.miniURL.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.example.miniURL.service.AccessLog;
+import com.example.miniURL.util.LogSampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost to a request thread of logging one line per request, written to a file
+ *
+ * - sync: Logback FileAppender, formatted and written on the calling thread
+ * - async: the same appender behind an AsyncAppender configured as in logback-spring.xml
+ *   (queue 8192, neverBlock); when the writer falls behind, lines are dropped, not waited for
+ * - sampled: async, with only 1 in 100 lines logged (LogSampler)
+ * - access-log: AccessLog.record, the NDJSON access log (batched writes on its own thread)
+ *
+ * Four threads, so the appenders' locks and queues are contended as under load.
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="LoggingBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    @FunctionalInterface
+    private interface RequestLogger {
+        void log(String code, String clientIp);
+    }
+
+    @Param({"sync", "async", "sampled", "access-log"})
+    public String mode;
+
+    private Path directory;
+    private LoggerContext context;
+    private AccessLog accessLog;
+    private RequestLogger requestLogger;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("logging-benchmark");
+        if ("access-log".equals(mode)) {
+            accessLog = new AccessLog(directory.resolve("access.ndjson"), 100_000, 1000, false);
+            accessLog.start();
+            requestLogger = (code, clientIp) -> accessLog.record(System.currentTimeMillis(), "GET", code, 301, 42, clientIp);
+            return;
+        }
+
+        context = new LoggerContext();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%t] %-40.40logger{39} : %m%n");
+        encoder.start();
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(directory.resolve("app.log").toString());
+        file.setEncoder(encoder);
+        file.start();
+
+        Appender<ILoggingEvent> appender = file;
+        if (!"sync".equals(mode)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(file);
+            async.start();
+            appender = async;
+        }
+        Logger logger = context.getLogger("com.example.miniURL.service.UrlService");
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+
+        LogSampler sampler = new LogSampler("sampled".equals(mode) ? 100 : 1);
+        requestLogger = (code, clientIp) -> {
+            if (sampler.sample()) {
+                logger.info("Cache miss for short code: {} from {}", code, clientIp);
+            }
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (context != null) {
+            context.stop();
+        }
+        if (accessLog != null) {
+            accessLog.shutdown();
+        }
+        try (var files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void logRequest() {
+        requestLogger.log("/abc12345", "10.0.0.1");
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.miniURL.benchmark;
+
+import com.example.miniURL.MiniUrlApplication;
+import jakarta.servlet.Servlet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletConfig;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 404s for codes that do not exist, as scanners send them, through DispatcherServlet
+ *
+ * - unknown: 8 base62 chars the Bloom filter has never seen (no database query)
+ * - malformed: anything else, rejected before any lookup
+ *
+ * Each request uses a different code, so nothing is cached. Rate limiting is switched off
+ * (see RedirectBenchmark.UnlimitedRateLimit), so every request gets its 404 rather than a 429.
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="NotFoundBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-XX:MaxDirectMemorySize=512m")
+public class NotFoundBenchmark {
+
+    private static final int CODES = 1024;
+
+    @Param({"unknown", "malformed"})
+    public String code;
+
+    private ConfigurableApplicationContext context;
+    private Servlet dispatcher;
+    private final String[] requestUris = new String[CODES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = new SpringApplicationBuilder(MiniUrlApplication.class, RedirectBenchmark.UnlimitedRateLimit.class)
+                .run("--server.port=0",
+                        "--miniurl.cache.warmup.enabled=false",
+                        "--miniurl.bloom.enabled=true",
+                        "--logging.level.com.example.miniURL=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+
+        DispatcherServlet servlet = new DispatcherServlet((WebApplicationContext) context);
+        servlet.init(new MockServletConfig(((WebApplicationContext) context).getServletContext(), "benchmark"));
+        dispatcher = servlet;
+
+        for (int i = 0; i < CODES; i++) {
+            requestUris[i] = "unknown".equals(code)
+                    ? String.format("/zz%06d", i)
+                    : "/wp-login-" + i + ".php";
+        }
+        if (notFound().getStatus() != 404) {
+            throw new IllegalStateException("Benchmark setup is broken: unknown code did not return 404");
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse notFound() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", requestUris[next++ & (CODES - 1)]);
+        request.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        dispatcher.service(request, response);
+        return response;
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.miniURL.benchmark;
+
+import com.example.miniURL.config.InMemoryRateLimitStore;
+import com.example.miniURL.config.RateLimitConfig;
+import com.example.miniURL.config.RateLimitProperties;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redirect rate limiting under a flood of distinct client IPs
+ *
+ * Every call resolves the bucket of the next IP out of `ips` distinct addresses and consumes
+ * a token, so the store keeps growing until every IP has a bucket. "bounded" is RateLimitConfig
+ * (capped at max-buckets, packed IP keys); "unbounded" is the original ConcurrentHashMap of
+ * String keys. After each
+ * iteration the live bucket count and the heap left after a full GC are printed.
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="RateLimitBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RateLimitBenchmark {
+
+    @Param({"bounded", "unbounded"})
+    public String store;
+
+    @Param({"10000000"})
+    public int ips;
+
+    @Param({"1000000"})
+    public long maxBuckets;
+
+    private RateLimitConfig bounded;
+    private Map<String, Bucket> unbounded;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void start() {
+        RateLimitProperties properties = new RateLimitProperties(maxBuckets, null);
+        bounded = new RateLimitConfig(properties, new InMemoryRateLimitStore(properties));
+        unbounded = new ConcurrentHashMap<>();
+    }
+
+    @Benchmark
+    public boolean redirect() {
+        String ip = ipAddress(next++ % ips);
+        Bucket bucket = store.equals("bounded")
+                ? bounded.resolveBucket("/abc12345", ip)
+                : unbounded.computeIfAbsent(ip, k -> unboundedBucket());
+        return bucket.tryConsume(1);
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        long buckets = store.equals("bounded") ? bounded.bucketCount() : unbounded.size();
+        System.gc();
+        long heapMb = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() >> 20;
+        System.out.printf("%n  %s: %,d distinct IPs seen, %,d live buckets, %,d MB heap after GC%n",
+                store, Math.min(next, ips), buckets, heapMb);
+    }
+
+    private static String ipAddress(int i) {
+        return (10 + (i >>> 24)) + "." + ((i >>> 16) & 0xFF) + "." + ((i >>> 8) & 0xFF) + "." + (i & 0xFF);
+    }
+
+    // What RateLimitConfig created per IP before the store was bounded
+    private static Bucket unboundedBucket() {
+        return Bucket.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(100)
+                        .refillIntervally(100, Duration.ofMinutes(1))
+                        .build())
+                .build();
+    }
+}
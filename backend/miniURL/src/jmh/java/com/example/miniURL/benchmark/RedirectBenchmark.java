@@ -0,0 +1,154 @@
+package com.example.miniURL.benchmark;
+
+import com.example.miniURL.MiniUrlApplication;
+import com.example.miniURL.config.InMemoryRateLimitStore;
+import com.example.miniURL.config.RateLimitConfig;
+import com.example.miniURL.config.RateLimitProperties;
+import com.example.miniURL.dto.ShortenUrlRequestDto;
+import com.example.miniURL.filter.RedirectFastPathFilter;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.service.UrlService;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import jakarta.servlet.Filter;
+import jakarta.servlet.Servlet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletConfig;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cached redirect: UrlController through DispatcherServlet vs RedirectFastPathFilter
+ *
+ * Runs in-process against mock servlet requests, so the numbers isolate the server-side
+ * cost. "harness" only builds the mock request/response: subtract its gc.alloc.rate.norm
+ * from the other two to get the allocation per redirect. Other servlet filters are left
+ * out; they run the same way for both paths.
+ *
+ * analytics=true adds click recording (ClickAnalytics) to both paths; hotCodes=false turns off
+ * HotCodeTracker, which is on by default and counts every redirect on both paths.
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="RedirectBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-XX:MaxDirectMemorySize=512m")
+public class RedirectBenchmark {
+
+    private static final int CODES = 1024;
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
+            + "(KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+
+    @Param({"mvc", "fast-path", "harness"})
+    public String path;
+
+    @Param({"false", "true"})
+    public boolean analytics;
+
+    @Param({"true", "false"})
+    public boolean hotCodes;
+
+    private ConfigurableApplicationContext context;
+    private Servlet dispatcher;
+    private Filter fastPathFilter;
+    private final String[] requestUris = new String[CODES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = new SpringApplicationBuilder(MiniUrlApplication.class, UnlimitedRateLimit.class)
+                .run("--server.port=0",
+                        "--miniurl.redirect.fast-path.enabled=true",
+                        "--miniurl.cache.warmup.enabled=false",
+                        "--miniurl.analytics.enabled=" + analytics,
+                        "--miniurl.hot-codes.enabled=" + hotCodes,
+                        "--logging.level.com.example.miniURL=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+
+        DispatcherServlet servlet = new DispatcherServlet((WebApplicationContext) context);
+        servlet.init(new MockServletConfig(((WebApplicationContext) context).getServletContext(), "benchmark"));
+        dispatcher = servlet;
+        fastPathFilter = context.getBean(RedirectFastPathFilter.class);
+
+        // Shorten and cache a working set, so every measured redirect is a cache hit
+        UrlService urlService = context.getBean(UrlService.class);
+        for (int i = 0; i < CODES; i++) {
+            ShortenUrlRequestDto request = new ShortenUrlRequestDto();
+            request.setUrl("https://example.com/benchmark/" + i);
+            String shortCode = urlService.shortenUrl(request).getShortCode();
+            urlService.getRedirectionUri(ShortCode.of(shortCode));
+            requestUris[i] = "/" + shortCode;
+        }
+        if (redirect().getStatus() != 301) {
+            throw new IllegalStateException("Benchmark setup is broken: redirect did not return 301");
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse redirect() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", requestUris[next++ & (CODES - 1)]);
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("User-Agent", USER_AGENT);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        switch (path) {
+            case "mvc" -> new MockFilterChain(dispatcher).doFilter(request, response);
+            case "fast-path" -> new MockFilterChain(dispatcher, fastPathFilter).doFilter(request, response);
+            default -> response.setStatus(301);
+        }
+        return response;
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    /**
+     * One shared, effectively unlimited bucket: the benchmark measures dispatch, not 429s.
+     * Deliberately not a @Configuration, so component scanning never picks it up.
+     */
+    static class UnlimitedRateLimit {
+        @Bean
+        @Primary
+        RateLimitConfig unlimitedRateLimitConfig() {
+            Bucket unlimited = Bucket.builder()
+                    .addLimit(Bandwidth.builder()
+                            .capacity(1_000_000_000_000L)
+                            .refillGreedy(1_000_000_000L, Duration.ofSeconds(1))
+                            .build())
+                    .build();
+            RateLimitProperties none = new RateLimitProperties(0, null);
+            return new RateLimitConfig(none, new InMemoryRateLimitStore(none)) {
+                @Override
+                public long tryConsume(String path, String clientIp) {
+                    return unlimited.tryConsumeAndReturnRemaining(1).getRemainingTokens();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.example.miniURL.loadtest;
+
+import com.example.miniURL.MiniUrlApplication;
+import com.example.miniURL.entity.UrlEntity;
+import com.example.miniURL.service.UrlService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reproducible end-to-end run: seeded database, Zipfian redirects mixed with shortens, JSON report
+ *
+ * Boots the application on an in-memory H2 database (or --database), inserts rows short URLs
+ * through the application's own id allocation, then drives it over HTTP from virtual-thread
+ * clients: redirects pick a seeded code with Zipfian popularity (--zipf), shorten-ratio of the
+ * requests shorten a new URL. The caches start cold, so warm-up is part of the run.
+ *
+ * - Closed loop by default: each client sends its next request when the last one is answered
+ * - --rate=N sends N requests/s in total on a fixed schedule, and latency is measured from when
+ *   a request was due, so a stall shows up in every request it delayed (no coordinated omission)
+ *
+ * The report (printed, and written to --output) holds HdrHistogram percentiles per operation,
+ * throughput, errors, urlCache hit rates, GC collections and allocation during the measured
+ * part, the peak Hikari usage, and the options and commit it ran with, so runs on different
+ * commits can be diffed. Driver and server share one JVM: GC and allocation cover both.
+ *
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.example.miniURL.loadtest.MixedWorkloadLoadTest \
+ *     -Dloadtest.args="--rows=1000000 --clients=64"
+ *
+ * Options (defaults): --rows=1000000 --clients=64 --duration=30s --warmup=10s --shorten-ratio=0.05
+ *                     --zipf=0.99 --rate=0 (closed loop) --db-latency=0ms --threads=platform
+ *                     --database=jdbc:h2:mem:loadtest --label= --output=target/loadtest/mixed-workload-{time}.json
+ * Any --miniurl.*, --spring.* or --server.* option is passed to the application, e.g.
+ * --miniurl.cache.l1.max-size=16MB
+ */
+public class MixedWorkloadLoadTest {
+
+    private static final int SEED_BATCH = 10_000;
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("rows", "1000000");
+        options.put("clients", "64");
+        options.put("duration", "30s");
+        options.put("warmup", "10s");
+        options.put("shorten-ratio", "0.05");
+        options.put("zipf", "0.99");
+        options.put("rate", "0");
+        options.put("db-latency", "0ms");
+        options.put("threads", "platform");
+        options.put("database", "jdbc:h2:mem:loadtest");
+        options.put("label", "");
+        options.put("output", "");
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("--miniurl.") || arg.startsWith("--spring.") || arg.startsWith("--server.")) {
+                appArgs.add(arg);
+            } else if (arg.startsWith("--") && eq > 0 && options.containsKey(arg.substring(2, eq))) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else {
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected one of " + options.keySet()
+                        + " or an application property");
+            }
+        }
+
+        Map<String, Object> report = run(options, appArgs);
+
+        ObjectMapper json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Path output = Path.of(options.get("output").isBlank()
+                ? "target/loadtest/mixed-workload-" + System.currentTimeMillis() + ".json"
+                : options.get("output"));
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        json.writeValue(output.toFile(), report);
+        System.out.println(json.writeValueAsString(report));
+        System.out.println("Report written to " + output.toAbsolutePath());
+        System.exit(0);
+    }
+
+    private static Map<String, Object> run(Map<String, String> options, List<String> appArgs) throws Exception {
+        int rows = Integer.parseInt(options.get("rows"));
+        String database = options.get("database");
+        boolean virtual = switch (options.get("threads")) {
+            case "platform" -> false;
+            case "virtual" -> true;
+            default -> throw new IllegalArgumentException("Unknown threads " + options.get("threads"));
+        };
+
+        List<String> properties = new ArrayList<>(List.of("--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--spring.datasource.url=" + database + (database.startsWith("jdbc:h2:mem:") ? ";DB_CLOSE_DELAY=-1" : ""),
+                "--miniurl.cache.warmup.enabled=false",
+                "--logging.level.com.example.miniURL=WARN",
+                "--logging.level.org.hibernate.SQL=WARN"));
+        if (database.startsWith("jdbc:h2:")) {
+            properties.add("--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+        }
+        properties.addAll(appArgs);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MiniUrlApplication.class,
+                VirtualThreadLoadTest.LoadTestSetup.class)
+                .run(properties.toArray(String[]::new));
+        try {
+            String[] paths = seed(context, rows);
+            context.getBean(VirtualThreadLoadTest.SlowDatabase.class).latencyNanos =
+                    VirtualThreadLoadTest.parseDuration(options.get("db-latency")).toNanos();
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("label", options.get("label"));
+            report.put("commit", gitCommit());
+            report.put("startedAt", Instant.now().toString());
+            report.put("jvm", Runtime.version().toString());
+            report.put("cpus", Runtime.getRuntime().availableProcessors());
+            report.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+            report.put("options", options);
+            report.put("applicationProperties", appArgs);
+            report.putAll(drive(context, paths, options));
+            return report;
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * Inserts rows URLs with ids and codes from the application (so its own inserts never collide
+     * with them) in JDBC batches, bypassing JPA
+     *
+     * @return the redirect path of every row, in insertion order
+     */
+    private static String[] seed(ConfigurableApplicationContext context, int rows) {
+        UrlService urlService = context.getBean(UrlService.class);
+        JdbcTemplate jdbc = new JdbcTemplate(context.getBean(DataSource.class));
+        String[] paths = new String[rows];
+        long start = System.nanoTime();
+        List<UrlEntity> batch = new ArrayList<>(SEED_BATCH);
+        long nextReport = rows / 10;
+        for (int i = 0; i < rows; i++) {
+            UrlEntity entity = urlService.newUrlEntity("https://example.com/seeded/" + i + "?utm_source=loadtest");
+            paths[i] = "/" + entity.getShortCode();
+            batch.add(entity);
+            if (batch.size() == SEED_BATCH || i == rows - 1) {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                jdbc.batchUpdate("INSERT INTO url_entity (id, main_url, short_code, code_value, url_hash, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)", batch, batch.size(), (statement, url) -> {
+                    statement.setLong(1, url.getId());
+                    statement.setString(2, url.getMainUrl());
+                    statement.setString(3, url.getShortCode());
+                    statement.setLong(4, url.getCodeValue());
+                    statement.setLong(5, url.getUrlHash());
+                    statement.setTimestamp(6, now);
+                });
+                batch.clear();
+                if (i + 1 >= nextReport) {
+                    System.out.printf("Seeded %,d of %,d rows%n", i + 1, rows);
+                    nextReport += rows / 10;
+                }
+            }
+        }
+        System.out.printf("Seeded %,d rows in %.1fs%n", rows, (System.nanoTime() - start) / 1e9);
+        return paths;
+    }
+
+    private static Map<String, Object> drive(ConfigurableApplicationContext context, String[] paths,
+                                             Map<String, String> options) throws Exception {
+        int clients = Integer.parseInt(options.get("clients"));
+        Duration duration = VirtualThreadLoadTest.parseDuration(options.get("duration"));
+        Duration warmup = VirtualThreadLoadTest.parseDuration(options.get("warmup"));
+        double shortenRatio = Double.parseDouble(options.get("shorten-ratio"));
+        double rate = Double.parseDouble(options.get("rate"));
+        ZipfianGenerator popularity = new ZipfianGenerator(paths.length, Double.parseDouble(options.get("zipf")));
+        System.out.printf("%d clients for %s (+%s warm-up), %s; top 1%% of codes get %.0f%% of redirects%n",
+                clients, options.get("duration"), options.get("warmup"), rate > 0 ? rate + " req/s" : "closed loop",
+                100 * popularity.share(paths.length / 100));
+
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        MeterRegistry meters = context.getBean(MeterRegistry.class);
+        HikariPoolMXBean pool = context.getBean(DataSource.class).unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(clientThreads)
+                .build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long interval = rate > 0 ? (long) (clients * 1e9 / rate) : 0;
+
+        Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        List<Future<Histogram[]>> running = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            long firstDue = start + (interval == 0 ? 0 : ThreadLocalRandom.current().nextLong(interval));
+            running.add(clientThreads.submit(() -> {
+                // [0] redirects, [1] shortens, in microseconds
+                Histogram[] latencies = {newHistogram(), newHistogram()};
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long due = firstDue;
+                while (due < end && System.nanoTime() < end) {
+                    long now = System.nanoTime();
+                    if (interval > 0 && now < due) {
+                        LockSupport.parkNanos(due - now);
+                    }
+                    long sentAt = interval > 0 ? due : System.nanoTime();
+                    boolean shorten = random.nextDouble() < shortenRatio;
+                    HttpRequest request = shorten
+                            ? HttpRequest.newBuilder(URI.create(baseUrl + "/shorten"))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(
+                                        "{\"url\":\"https://example.com/new/" + random.nextLong() + "\"}"))
+                                .build()
+                            : HttpRequest.newBuilder(URI.create(baseUrl + paths[(int) popularity.next()]))
+                                .GET()
+                                .build();
+                    int status;
+                    try {
+                        status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    long done = System.nanoTime();
+                    due = interval > 0 ? due + interval : done;
+                    if (sentAt < measureFrom) {
+                        continue;
+                    }
+                    latencies[shorten ? 1 : 0].recordValue(Math.min(MAX_LATENCY_MICROS, (done - sentAt) / 1000));
+                    if (status != (shorten ? 200 : 301)) {
+                        statuses.computeIfAbsent((shorten ? "shorten " : "redirect ") + status, k -> new LongAdder())
+                                .increment();
+                    }
+                }
+                return latencies;
+            }));
+        }
+
+        // Server-side counters over the measured part only
+        long sleep = measureFrom - System.nanoTime();
+        if (sleep > 0) {
+            TimeUnit.NANOSECONDS.sleep(sleep);
+        }
+        Map<String, Double> cacheBefore = cacheCounters(meters);
+        Map<String, long[]> gcBefore = gcCounters();
+        long allocatedBefore = allocatedBytes();
+        AtomicLong maxActive = new AtomicLong();
+        AtomicLong maxAwaiting = new AtomicLong();
+        while (System.nanoTime() < end) {
+            maxActive.accumulateAndGet(pool.getActiveConnections(), Math::max);
+            maxAwaiting.accumulateAndGet(pool.getThreadsAwaitingConnection(), Math::max);
+            Thread.sleep(5);
+        }
+        Map<String, Double> cacheAfter = cacheCounters(meters);
+        Map<String, long[]> gcAfter = gcCounters();
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        Histogram redirects = newHistogram();
+        Histogram shortens = newHistogram();
+        for (Future<Histogram[]> client : running) {
+            Histogram[] latencies = client.get();
+            redirects.add(latencies[0]);
+            shortens.add(latencies[1]);
+        }
+        clientThreads.shutdown();
+        Histogram all = redirects.copy();
+        all.add(shortens);
+
+        double seconds = duration.toNanos() / 1e9;
+        Map<String, Object> throughput = new LinkedHashMap<>();
+        throughput.put("total", round(all.getTotalCount() / seconds));
+        throughput.put("redirect", round(redirects.getTotalCount() / seconds));
+        throughput.put("shorten", round(shortens.getTotalCount() / seconds));
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("all", percentiles(all));
+        latency.put("redirect", percentiles(redirects));
+        latency.put("shorten", percentiles(shortens));
+
+        Map<String, Long> errors = new LinkedHashMap<>();
+        statuses.forEach((status, count) -> errors.put(status, count.sum()));
+
+        Map<String, Object> gc = new LinkedHashMap<>();
+        gcAfter.forEach((collector, after) -> {
+            long[] before = gcBefore.getOrDefault(collector, new long[2]);
+            gc.put(collector, Map.of("collections", after[0] - before[0], "timeMs", after[1] - before[1]));
+        });
+        gc.put("allocatedBytesPerRequest", all.getTotalCount() == 0 ? 0 : allocated / all.getTotalCount());
+        gc.put("heapUsedBytes", ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+
+        Map<String, Object> database = new LinkedHashMap<>();
+        database.put("rows", paths.length);
+        database.put("maxConnectionsInUse", maxActive.get());
+        database.put("maxThreadsAwaitingConnection", maxAwaiting.get());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("measuredSeconds", seconds);
+        result.put("throughput", throughput);
+        result.put("latencyMicros", latency);
+        result.put("errors", errors);
+        result.put("cache", cacheHitRates(cacheBefore, cacheAfter));
+        result.put("gc", gc);
+        result.put("database", database);
+        return result;
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(MAX_LATENCY_MICROS, 3);
+    }
+
+    private static Map<String, Object> percentiles(Histogram histogram) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", histogram.getTotalCount());
+        values.put("mean", round(histogram.getMean()));
+        for (double percentile : PERCENTILES) {
+            String name = percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile);
+            values.put("p" + name, histogram.getValueAtPercentile(percentile));
+        }
+        values.put("max", histogram.getMaxValue());
+        return values;
+    }
+
+    /**
+     * urlCache lookups by tier (l1, l2) and result (hit, miss), as counted by TieredUrlCache
+     */
+    private static Map<String, Double> cacheCounters(MeterRegistry meters) {
+        Map<String, Double> counters = new LinkedHashMap<>();
+        for (String tier : List.of("l1", "l2")) {
+            for (String result : List.of("hit", "miss")) {
+                double count = meters.find("cache.gets").tags("cache", "urlCache", "tier", tier, "result", result)
+                        .functionCounters().stream().mapToDouble(FunctionCounter::count).sum();
+                counters.put(tier + "." + result, count);
+            }
+        }
+        return counters;
+    }
+
+    private static Map<String, Object> cacheHitRates(Map<String, Double> before, Map<String, Double> after) {
+        Map<String, Double> delta = new LinkedHashMap<>();
+        after.forEach((name, count) -> delta.put(name, count - before.get(name)));
+        double l1Hits = delta.get("l1.hit");
+        double l1Lookups = l1Hits + delta.get("l1.miss");
+        double l2Hits = delta.get("l2.hit");
+        double l2Lookups = l2Hits + delta.get("l2.miss");
+        Map<String, Object> cache = new LinkedHashMap<>();
+        cache.put("lookups", (long) l1Lookups);
+        cache.put("l1HitRate", l1Lookups == 0 ? 0 : round(l1Hits / l1Lookups));
+        cache.put("l2HitRate", l2Lookups == 0 ? 0 : round(l2Hits / l2Lookups));
+        // An L1 miss always goes on to L2 (if there is one), so every lookup is counted once in L1
+        cache.put("hitRate", l1Lookups == 0 ? 0 : round((l1Hits + l2Hits) / l1Lookups));
+        return cache;
+    }
+
+    private static Map<String, long[]> gcCounters() {
+        Map<String, long[]> counters = new LinkedHashMap<>();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            counters.put(collector.getName(), new long[]{collector.getCollectionCount(), collector.getCollectionTime()});
+        }
+        return counters;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getTotalThreadAllocatedBytes();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static String gitCommit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String commit = new String(git.getInputStream().readAllBytes()).trim();
+            return git.waitFor() == 0 ? commit : "unknown";
+        } catch (IOException | InterruptedException e) {
+            return "unknown";
+        }
+    }
+}
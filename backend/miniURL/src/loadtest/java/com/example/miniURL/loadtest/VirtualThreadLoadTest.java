@@ -0,0 +1,347 @@
+package com.example.miniURL.loadtest;
+
+import com.example.miniURL.MiniUrlApplication;
+import com.example.miniURL.config.InMemoryRateLimitStore;
+import com.example.miniURL.config.RateLimitConfig;
+import com.example.miniURL.config.RateLimitProperties;
+import com.example.miniURL.dto.ShortenUrlRequestDto;
+import com.example.miniURL.service.UrlService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Platform vs virtual-thread mode under JDBC-bound load
+ *
+ * Boots the application once per mode and runs a closed loop of concurrent HTTP clients
+ * against it: redirects that miss the cache (urlCache is sized to 0, so every redirect is a
+ * code_value query) mixed with POST /shorten inserts. Every JDBC statement and commit is
+ * delayed by db-latency to stand in for the network round trip to a real database.
+ *
+ * Reports p50/p99/max latency and throughput, plus what the server did meanwhile, sampled
+ * every few milliseconds: most Hikari connections in use, most threads waiting for one,
+ * and the peak number of platform threads.
+ *
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--clients=1000 --duration=30s"
+ *
+ * Options (defaults): --modes=platform,virtual --clients=1000 --duration=20s --warmup=5s
+ *                     --db-latency=2ms --shorten-ratio=0.1 --codes=2000
+ */
+public class VirtualThreadLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("modes", "platform,virtual");
+        options.put("clients", "1000");
+        options.put("duration", "20s");
+        options.put("warmup", "5s");
+        options.put("db-latency", "2ms");
+        options.put("shorten-ratio", "0.1");
+        options.put("codes", "2000");
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0 || !options.containsKey(arg.substring(2, eq))) {
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected one of " + options.keySet());
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (String mode : options.get("modes").split(",")) {
+            results.add(run(mode.trim(),
+                    Integer.parseInt(options.get("clients")),
+                    parseDuration(options.get("duration")),
+                    parseDuration(options.get("warmup")),
+                    parseDuration(options.get("db-latency")),
+                    Double.parseDouble(options.get("shorten-ratio")),
+                    Integer.parseInt(options.get("codes"))));
+        }
+
+        System.out.printf("%n%d clients, db latency %s, %s shortens%n", Integer.parseInt(options.get("clients")),
+                options.get("db-latency"), options.get("shorten-ratio"));
+        System.out.printf("%-9s %10s %9s %9s %9s %9s %8s %12s %12s %12s%n", "mode", "req/s", "p50 ms",
+                "p99 ms", "p99.9 ms", "max ms", "errors", "max db conn", "max db wait", "max threads");
+        for (Result r : results) {
+            System.out.printf("%-9s %10.0f %9.2f %9.2f %9.2f %9.2f %8d %12d %12d %12d%n", r.mode, r.throughput,
+                    r.p50Ms, r.p99Ms, r.p999Ms, r.maxMs, r.errors, r.maxActiveConnections, r.maxAwaitingConnection,
+                    r.peakThreads);
+            if (!r.statuses.isEmpty()) {
+                System.out.printf("          unexpected statuses: %s%n", r.statuses);
+            }
+        }
+        System.exit(0);
+    }
+
+    private record Result(String mode, double throughput, double p50Ms, double p99Ms, double p999Ms, double maxMs,
+                          long errors, Map<String, Long> statuses, int maxActiveConnections,
+                          int maxAwaitingConnection, int peakThreads) {
+    }
+
+    private static Result run(String mode, int clients, Duration duration, Duration warmup, Duration dbLatency,
+                              double shortenRatio, int codes) throws Exception {
+        boolean virtual = switch (mode) {
+            case "platform" -> false;
+            case "virtual" -> true;
+            default -> throw new IllegalArgumentException("Unknown mode " + mode);
+        };
+        System.out.printf("== %s threads: %d clients for %s (+%s warm-up)%n", mode, clients, duration, warmup);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MiniUrlApplication.class, LoadTestSetup.class)
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--miniurl.cache.l1.max-size=0",
+                        "--miniurl.cache.l2.max-size=0",
+                        "--miniurl.cache.warmup.enabled=false",
+                        "--logging.level.com.example.miniURL=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+        try {
+            // Seed codes to redirect to before the database gets slow
+            UrlService urlService = context.getBean(UrlService.class);
+            String[] paths = new String[codes];
+            for (int i = 0; i < codes; i++) {
+                ShortenUrlRequestDto request = new ShortenUrlRequestDto();
+                request.setUrl("https://example.com/loadtest/" + mode + "/" + i);
+                paths[i] = "/" + urlService.shortenUrl(request).getShortCode();
+            }
+            context.getBean(SlowDatabase.class).latencyNanos = dbLatency.toNanos();
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HikariPoolMXBean pool = context.getBean(DataSource.class).unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            return drive(mode, baseUrl, paths, pool, clients, duration, warmup, shortenRatio);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Result drive(String mode, String baseUrl, String[] paths, HikariPoolMXBean pool, int clients,
+                                Duration duration, Duration warmup, double shortenRatio) throws Exception {
+        ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(clientThreads)
+                .build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        // Server-side sampler
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        AtomicLong maxActive = new AtomicLong();
+        AtomicLong maxAwaiting = new AtomicLong();
+        Thread sampler = Thread.ofPlatform().daemon().name("loadtest-sampler").start(() -> {
+            boolean reset = false;
+            while (System.nanoTime() < end) {
+                if (!reset && System.nanoTime() >= measureFrom) {
+                    threads.resetPeakThreadCount();
+                    reset = true;
+                }
+                maxActive.accumulateAndGet(pool.getActiveConnections(), Math::max);
+                maxAwaiting.accumulateAndGet(pool.getThreadsAwaitingConnection(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        LongAdder errors = new LongAdder();
+        Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        List<Future<long[]>> running = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            running.add(clientThreads.submit(() -> {
+                long[] latencies = new long[1 << 12];
+                int n = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    boolean shorten = random.nextDouble() < shortenRatio;
+                    HttpRequest request = shorten
+                            ? HttpRequest.newBuilder(URI.create(baseUrl + "/shorten"))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(
+                                        "{\"url\":\"https://example.com/" + mode + "/" + random.nextLong() + "\"}"))
+                                .build()
+                            : HttpRequest.newBuilder(URI.create(baseUrl + paths[random.nextInt(paths.length)]))
+                                .GET()
+                                .build();
+                    int status;
+                    try {
+                        status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    long latency = System.nanoTime() - now;
+                    if (now < measureFrom) {
+                        continue;
+                    }
+                    if (status != (shorten ? 200 : 301)) {
+                        errors.increment();
+                        statuses.computeIfAbsent(String.valueOf(status), k -> new LongAdder()).increment();
+                    }
+                    if (n == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, n * 2);
+                    }
+                    latencies[n++] = latency;
+                }
+                return Arrays.copyOf(latencies, n);
+            }));
+        }
+        List<long[]> perClient = new ArrayList<>(clients);
+        for (Future<long[]> client : running) {
+            perClient.add(client.get());
+        }
+        sampler.join();
+        int peakThreads = threads.getPeakThreadCount();
+        clientThreads.shutdown();
+
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).toArray();
+        int total = all.length;
+        Arrays.sort(all);
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+
+        return new Result(mode, total / (duration.toNanos() / 1e9), millis(all, 0.50), millis(all, 0.99),
+                millis(all, 0.999), total == 0 ? 0 : all[total - 1] / 1e6, errors.sum(), statusCounts,
+                (int) maxActive.get(), (int) maxAwaiting.get(), peakThreads);
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+
+    static Duration parseDuration(String text) {
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        if (text.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(text.substring(0, text.length() - 1)));
+        }
+        throw new IllegalArgumentException("Expected a duration like 500ms or 20s: " + text);
+    }
+
+    /**
+     * Unlimited rate limits and a database that answers every statement and commit after latencyNanos.
+     * Deliberately not a @Configuration, so component scanning never picks it up.
+     */
+    static class LoadTestSetup {
+        @Bean
+        @Primary
+        RateLimitConfig unlimitedRateLimitConfig() {
+            Bucket unlimited = Bucket.builder()
+                    .addLimit(Bandwidth.builder()
+                            .capacity(1_000_000_000_000L)
+                            .refillGreedy(1_000_000_000L, Duration.ofSeconds(1))
+                            .build())
+                    .build();
+            RateLimitProperties none = new RateLimitProperties(0, null);
+            return new RateLimitConfig(none, new InMemoryRateLimitStore(none)) {
+                @Override
+                public long tryConsume(String path, String clientIp) {
+                    return unlimited.tryConsumeAndReturnRemaining(1).getRemainingTokens();
+                }
+            };
+        }
+
+        @Bean
+        static SlowDatabase slowDatabase() {
+            return new SlowDatabase();
+        }
+    }
+
+    static class SlowDatabase implements BeanPostProcessor {
+
+        volatile long latencyNanos;
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || bean instanceof SlowDataSource) {
+                return bean;
+            }
+            return new SlowDataSource(dataSource);
+        }
+
+        private void roundTrip() {
+            long latency = latencyNanos;
+            if (latency > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(latency);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private <T> T delaying(Class<T> type, T target, String... delayed) {
+            List<String> names = List.of(delayed);
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (names.contains(method.getName())) {
+                    roundTrip();
+                }
+                try {
+                    Object result = method.invoke(target, args);
+                    if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                        return delaying(PreparedStatement.class, statement,
+                                "execute", "executeQuery", "executeUpdate", "executeBatch", "executeLargeUpdate");
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }));
+        }
+
+        private class SlowDataSource extends DelegatingDataSource {
+
+            SlowDataSource(DataSource target) {
+                super(target);
+            }
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                return delaying(Connection.class, super.getConnection(), "commit", "rollback");
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.miniURL.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ranks 0..n-1 drawn with Zipfian popularity: rank r comes up proportionally to 1 / (r + 1)^theta
+ *
+ * Gray et al., "Quickly Generating Billion-Record Synthetic Databases" (the YCSB generator):
+ * zeta(n) is summed once up front, after which every draw is O(1). theta=0.99 gives the usual
+ * web skew, where the top 1% of 1M codes get about two thirds of the redirects.
+ */
+final class ZipfianGenerator {
+
+    private final long items;
+    private final double theta;
+    private final double zetaN;
+    private final double alpha;
+    private final double eta;
+
+    ZipfianGenerator(long items, double theta) {
+        if (items < 2 || theta <= 0 || theta >= 1) {
+            throw new IllegalArgumentException("Need at least 2 items and 0 < theta < 1");
+        }
+        this.items = items;
+        this.theta = theta;
+        this.zetaN = zeta(items, theta);
+        this.alpha = 1 / (1 - theta);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+    }
+
+    long next() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1) {
+            return 0;
+        }
+        if (uz < 1 + Math.pow(0.5, theta)) {
+            return 1;
+        }
+        return Math.min(items - 1, (long) (items * Math.pow(eta * u - eta + 1, alpha)));
+    }
+
+    /**
+     * @return the share of all draws that land on the top count ranks
+     */
+    double share(long count) {
+        return zeta(Math.min(count, items), theta) / zetaN;
+    }
+
+    private static double zeta(long n, double theta) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
@@ -1,42 +1,62 @@
 package com.example.miniURL.config;
 
+import com.example.miniURL.util.OffHeapUrlStore;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
     /**
-     * Configures Caffeine cache for URL redirections
-     * 
-     * Performance Impact:
-     * - Cache Hit: ~0.1ms (in-memory lookup)
-     * - Cache Miss: ~50-100ms (database query)
-     * - Expected hit rate: 80-90% for popular URLs
-     * 
-     * Configuration:
-     * - Maximum 10,000 entries (uses ~10MB RAM)
-     * - 1 hour expiration (balances freshness vs performance)
-     * - LRU eviction (Least Recently Used)
+     * Configures the two-tier cache for URL redirections
+     *
+     * Performance Impact (HotPathBenchmark, lookup only):
+     * - L1 Hit: ~0.1µs, no allocation (on-heap URI object)
+     * - L2 Hit: ~1µs, ~700 bytes (off-heap bytes decoded into a URI, then promoted to L1)
+     * - Cache Miss: a database query, milliseconds once the database is remote
+     *
+     * Configuration (sizes in bytes, not entries):
+     * - L1: miniurl.cache.l1.max-size (estimated heap bytes), expires after miniurl.cache.l1.expire-after-write
+     *   (L2 entries expire after the same time, checked on read)
+     * - L2: miniurl.cache.l2.max-size off-heap (0 disables it); roughly 100 bytes per typical URL,
+     *   so 1GB holds ~10M codes. Needs -XX:MaxDirectMemorySize to be at least that large.
+     * - miniurl.cache.l1.async=true builds L1 as an AsyncCache, so reactive lookups coalesce misses
+     * - L1 expiry is set per entry (same TTL for all), so HotCodeTracker can pin the hottest codes
      */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager("urlCache");
-        cacheManager.setCaffeine(caffeineCacheBuilder());
+    public CacheManager cacheManager(TieredUrlCache urlCache) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(urlCache));
         return cacheManager;
     }
 
-    private Caffeine<Object, Object> caffeineCacheBuilder() {
-        return Caffeine.newBuilder()
-                .maximumSize(10_000)  // Store up to 10,000 most popular URLs
-                .expireAfterWrite(1, TimeUnit.HOURS)  // Expire after 1 hour
+    @Bean
+    public TieredUrlCache urlCache(@Value("${miniurl.cache.l1.max-size:64MB}") DataSize l1MaxSize,
+                                   @Value("${miniurl.cache.l1.expire-after-write:1h}") Duration l1ExpireAfterWrite,
+                                   @Value("${miniurl.cache.l2.max-size:256MB}") DataSize l2MaxSize,
+                                   @Value("${miniurl.cache.l2.segments:64}") int l2Segments,
+                                   @Value("${miniurl.cache.l1.async:false}") boolean l1Async) {
+        Caffeine<Object, Object> l1 = Caffeine.newBuilder()
+                .maximumWeight(l1MaxSize.toBytes())  // Evicts least valuable entries (W-TinyLFU) beyond this many bytes
+                .weigher(TieredUrlCache::weigh)
+                .expireAfter(Expiry.writing((key, value) -> l1ExpireAfterWrite))  // per entry, so hot codes can be pinned
                 .recordStats();  // Enable metrics for monitoring
+        OffHeapUrlStore l2 = l2MaxSize.toBytes() > 0
+                ? new OffHeapUrlStore(l2MaxSize.toBytes(), l2Segments, l1ExpireAfterWrite, System::nanoTime)
+                : null;
+        return l1Async
+                ? new TieredUrlCache("urlCache", l1.buildAsync(), l2)
+                : new TieredUrlCache("urlCache", l1.build(), l2);
     }
 }
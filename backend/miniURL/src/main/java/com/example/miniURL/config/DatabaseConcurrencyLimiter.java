@@ -0,0 +1,202 @@
+package com.example.miniURL.config;
+
+import com.example.miniURL.exception.ServiceBusyException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps how many threads can hold or wait for a JDBC connection at once
+ *
+ * With virtual threads Tomcat no longer limits concurrency (no 200-thread pool), so a burst
+ * of thousands of requests would all queue inside Hikari for up to connection-timeout (20s).
+ * This wraps the DataSource in a fair semaphore sized to the pool:
+ * - at most permits connections are checked out; everyone else waits in FIFO order
+ * - a waiter gives up after acquire-timeout, and once max-waiting threads are queued new
+ *   callers are turned away at once - both answer 503 + Retry-After (ServiceBusyException)
+ * - the permit is returned when the connection is closed (handed back to the pool)
+ *
+ * Sizing: permits = spring.datasource.hikari.maximum-pool-size, and the pool itself stays
+ * small (connections ~ 2 x database cores); more threads do not make the database faster.
+ * Enabled by default together with spring.threads.virtual.enabled.
+ */
+@Component
+@ConditionalOnProperty(name = "miniurl.db.concurrency-limit.enabled", havingValue = "true")
+@Slf4j
+public class DatabaseConcurrencyLimiter implements BeanPostProcessor, MeterBinder {
+
+    private final int permits;
+    private final long acquireTimeoutNanos;
+    private final int maxWaiting;
+    private final Semaphore semaphore;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    public DatabaseConcurrencyLimiter(@Value("${miniurl.db.concurrency-limit.permits:20}") int permits,
+                                      @Value("${miniurl.db.concurrency-limit.acquire-timeout:2s}") Duration acquireTimeout,
+                                      @Value("${miniurl.db.concurrency-limit.max-waiting:1000}") int maxWaiting) {
+        this.permits = permits;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.maxWaiting = maxWaiting;
+        this.semaphore = new Semaphore(permits, true);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof LimitedDataSource)) {
+            log.info("Limiting DataSource '{}' to {} concurrent connections (acquire timeout {} ms, max waiting {})",
+                    beanName, permits, TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos), maxWaiting);
+            return wrap(dataSource);
+        }
+        return bean;
+    }
+
+    DataSource wrap(DataSource dataSource) {
+        return new LimitedDataSource(dataSource);
+    }
+
+    private void acquire() {
+        if (semaphore.getQueueLength() >= maxWaiting) {
+            rejected.increment();
+            throw new ServiceBusyException("Too many requests waiting for a database connection");
+        }
+        long start = System.nanoTime();
+        boolean granted;
+        try {
+            granted = semaphore.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while waiting for a database connection");
+        }
+        waitNanos.add(System.nanoTime() - start);
+        if (!granted) {
+            rejected.increment();
+            throw new ServiceBusyException("Timed out waiting for a database connection");
+        }
+        acquired.increment();
+    }
+
+    private Connection limited(Connection target) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new PermitReleasingHandler(target));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("miniurl.db.limiter.in-use", semaphore, s -> permits - s.availablePermits())
+                .description("Connections currently checked out through the limiter")
+                .register(registry);
+        Gauge.builder("miniurl.db.limiter.waiting", semaphore, Semaphore::getQueueLength)
+                .description("Threads waiting for a connection permit")
+                .register(registry);
+        FunctionCounter.builder("miniurl.db.limiter.acquired", acquired, LongAdder::sum)
+                .description("Connection permits granted")
+                .register(registry);
+        FunctionCounter.builder("miniurl.db.limiter.rejected", rejected, LongAdder::sum)
+                .description("Requests turned away (503) because no connection permit was free in time")
+                .register(registry);
+        FunctionCounter.builder("miniurl.db.limiter.wait", waitNanos, n -> n.sum() / 1e9)
+                .baseUnit("seconds")
+                .description("Total time spent waiting for connection permits")
+                .register(registry);
+    }
+
+    /**
+     * DelegatingDataSource keeps unwrap() working, so Hikari metrics and health still find the pool
+     */
+    private class LimitedDataSource extends DelegatingDataSource {
+
+        LimitedDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            try {
+                return limited(super.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                semaphore.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            try {
+                return limited(super.getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                semaphore.release();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Returns the permit on the first close(); everything else goes straight to the pooled connection
+     */
+    private class PermitReleasingHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PermitReleasingHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    try {
+                        target.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            semaphore.release();
+                        }
+                    }
+                    return null;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Limited[" + target + "]";
+                }
+                default -> {
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                }
+            }
+        }
+    }
+}
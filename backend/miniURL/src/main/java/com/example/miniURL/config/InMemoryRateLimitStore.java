@@ -0,0 +1,40 @@
+package com.example.miniURL.config;
+
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default rate-limit store: Bucket4j buckets in this node's heap
+ *
+ * Lock-free and allocation-light (no I/O at all), but each replica counts on its own.
+ */
+@Component
+@ConditionalOnProperty(name = "miniurl.rate-limit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitStore implements RateLimitStore, MeterBinder {
+
+    private final LocalBucketCache buckets;
+
+    public InMemoryRateLimitStore(RateLimitProperties properties) {
+        this.buckets = new LocalBucketCache(properties.maxBuckets());
+    }
+
+    @Override
+    public Bucket resolve(RateLimitKey key, RateLimitPolicy policy) {
+        return buckets.get(key, policy, k -> Bucket.builder()
+                .addLimit(policy.bandwidth())
+                .build());
+    }
+
+    @Override
+    public long bucketCount() {
+        return buckets.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        buckets.bindTo(registry);
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.miniURL.config;
+
+import com.example.miniURL.repository.RateLimitBucketRepository;
+import com.example.miniURL.util.Threads;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.RemoteBucketBuilder;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Rate-limit store shared by all replicas through the application database
+ *
+ * How it works:
+ * - One rate_limit_bucket row per (policy, client) holds the serialized Bucket4j state
+ * - Every consume reads the row and writes it back with compare-and-swap on its version;
+ *   Bucket4j retries on a conflict. No row locks, no transactions spanning the round-trips
+ * - Plain JPA queries, so it runs on PostgreSQL and on H2 alike
+ * - A row's expires_at is when its bucket would be full again (Bucket4j's full refill time
+ *   from the last consume, up to refill-period x ceil(capacity / refill-tokens)); a background
+ *   task deletes expired rows
+ *
+ * Costs two statements per rate-limited request - see HybridRateLimitStore to batch them.
+ *
+ * Bucket4j's async API (proxyManager().asAsync()) runs the same statements on a small bounded
+ * pool; a full pool fails the future with RejectedExecutionException rather than queueing
+ * without limit. Request threads use the synchronous buckets from resolve().
+ */
+@Component
+@ConditionalOnProperty(name = "miniurl.rate-limit.store", havingValue = "jdbc")
+@Slf4j
+public class JdbcRateLimitStore implements RateLimitStore, MeterBinder {
+
+    private static final int ASYNC_THREADS = 4;
+    private static final int ASYNC_QUEUE_CAPACITY = 1000;
+
+    private final RateLimitBucketRepository repository;
+    private final LocalBucketCache buckets;
+    private final Duration cleanupInterval;
+    private final JdbcProxyManager proxyManager = new JdbcProxyManager();
+
+    private final ExecutorService async = new ThreadPoolExecutor(ASYNC_THREADS, ASYNC_THREADS,
+            0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(ASYNC_QUEUE_CAPACITY),
+            Threads.factory("rate-limit-async-", false));
+
+    private final ScheduledExecutorService cleanup = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "rate-limit-cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    public JdbcRateLimitStore(RateLimitBucketRepository repository,
+                              RateLimitProperties properties,
+                              @Value("${miniurl.rate-limit.jdbc.cleanup-interval:1m}") Duration cleanupInterval) {
+        this.repository = repository;
+        this.buckets = new LocalBucketCache(properties.maxBuckets(), this::evicted);
+        this.cleanupInterval = cleanupInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startCleanup() {
+        if (!cleanupInterval.isZero()) {
+            cleanup.scheduleWithFixedDelay(this::deleteExpired,
+                    cleanupInterval.toMillis(), cleanupInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * The proxy is cached locally: it holds no state of its own here, but HybridRateLimitStore's do
+     */
+    @Override
+    public Bucket resolve(RateLimitKey key, RateLimitPolicy policy) {
+        return buckets.get(key, policy, k -> remoteBucket(proxyManager.builder(), k.storageId(policy.name()), policy));
+    }
+
+    protected Bucket remoteBucket(RemoteBucketBuilder<String> builder, String id, RateLimitPolicy policy) {
+        return builder.build(id, () -> BucketConfiguration.builder()
+                .addLimit(policy.bandwidth())
+                .build());
+    }
+
+    /**
+     * Called when the local cache drops a bucket to make room; its state is already in the database
+     */
+    protected void evicted(Bucket bucket) {
+    }
+
+    /**
+     * Bucket4j's view of the table, for callers that build their own (e.g. async) buckets
+     */
+    ProxyManager<String> proxyManager() {
+        return proxyManager;
+    }
+
+    @Override
+    public long bucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Every consume is a database round-trip; HybridRateLimitStore still syncs on the request thread
+     */
+    @Override
+    public boolean blocking() {
+        return true;
+    }
+
+    void deleteExpired() {
+        try {
+            int deleted = repository.deleteExpired(System.currentTimeMillis());
+            if (deleted > 0) {
+                log.debug("Deleted {} expired rate-limit buckets", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete expired rate-limit buckets: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        buckets.bindTo(registry);
+        FunctionCounter.builder("miniurl.ratelimit.store.writes", writes, LongAdder::sum)
+                .description("Bucket states written to the shared rate-limit table")
+                .register(registry);
+        FunctionCounter.builder("miniurl.ratelimit.store.conflicts", conflicts, LongAdder::sum)
+                .description("Bucket writes retried because another node updated the bucket first")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        cleanup.shutdownNow();
+        async.shutdown();
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> statement) {
+        try {
+            return CompletableFuture.supplyAsync(statement, async);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private final class JdbcProxyManager extends AbstractCompareAndSwapBasedProxyManager<String> {
+
+        JdbcProxyManager() {
+            super(ClientSideConfig.getDefault());
+        }
+
+        @Override
+        protected CompareAndSwapOperation beginCompareAndSwapOperation(String id) {
+            return new Operation(id);
+        }
+
+        @Override
+        protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(String id) {
+            Operation operation = new Operation(id);
+            return new AsyncCompareAndSwapOperation() {
+                @Override
+                public CompletableFuture<Optional<byte[]>> getStateData() {
+                    return supplyAsync(operation::getStateData);
+                }
+
+                @Override
+                public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData,
+                                                                 RemoteBucketState newState) {
+                    return supplyAsync(() -> operation.compareAndSwap(originalData, newData, newState));
+                }
+            };
+        }
+
+        @Override
+        public void removeProxy(String id) {
+            repository.deleteById(id);
+        }
+
+        @Override
+        protected CompletableFuture<Void> removeAsync(String id) {
+            return supplyAsync(() -> {
+                repository.deleteById(id);
+                return null;
+            });
+        }
+
+        @Override
+        public boolean isAsyncModeSupported() {
+            return true;
+        }
+    }
+
+    /**
+     * One read-then-compare-and-swap of a bucket row; the async variant runs the same calls on the pool
+     */
+    private final class Operation implements CompareAndSwapOperation {
+
+        private final String id;
+        private long version;
+
+        Operation(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public Optional<byte[]> getStateData() {
+            return repository.findSnapshot(id).map(snapshot -> {
+                version = snapshot.getVersion();
+                return snapshot.getState();
+            });
+        }
+
+        @Override
+        public boolean compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState) {
+            writes.increment();
+            long now = System.currentTimeMillis();
+            long expiresAt = now + TimeUnit.NANOSECONDS.toMillis(
+                    newState.calculateFullRefillingTime(TimeUnit.MILLISECONDS.toNanos(now))) + 1;
+            boolean swapped;
+            if (originalData == null) {
+                try {
+                    swapped = repository.insert(id, newData, expiresAt) == 1;
+                } catch (DataIntegrityViolationException e) {
+                    swapped = false;  // created by another node in the meantime
+                }
+            } else {
+                swapped = repository.compareAndSet(id, version, newData, expiresAt) == 1;
+            }
+            if (!swapped) {
+                conflicts.increment();
+            }
+            return swapped;
+        }
+    }
+}
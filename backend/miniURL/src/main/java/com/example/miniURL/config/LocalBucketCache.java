@@ -0,0 +1,75 @@
+package com.example.miniURL.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bounded, self-evicting map of the buckets a node holds
+ *
+ * - A bucket idle for its policy's full refill time (refill period x ceil(capacity / tokens
+ *   per refill)) would be full again, so it is dropped then and recreated full on the next
+ *   request - same answer, no memory
+ * - At most maxBuckets across all policies: under a flood of distinct IPs the least valuable
+ *   buckets (W-TinyLFU) are evicted instead of the heap growing
+ *
+ * Size eviction fails open. An evicted bucket is forgotten, drained or not, so a client whose
+ * bucket is evicted while empty gets a full one on its next request. With the in-memory store
+ * a flood of distinct IPs can therefore buy a throttled client a fresh burst (the
+ * cache.evictions metric of rateLimitBuckets shows when this happens); keep maxBuckets above
+ * the number of clients seen per full refill time. The jdbc and hybrid stores only cache proxies
+ * here, the state lives in the database and survives eviction.
+ */
+final class LocalBucketCache {
+
+    private record Entry(Bucket bucket, RateLimitPolicy policy) {
+    }
+
+    private final Cache<RateLimitKey, Entry> entries;
+
+    LocalBucketCache(long maxBuckets) {
+        this(maxBuckets, bucket -> {
+        });
+    }
+
+    /**
+     * @param sizeEvicted gets each bucket dropped to stay within maxBuckets, on the evicting thread
+     */
+    LocalBucketCache(long maxBuckets, Consumer<Bucket> sizeEvicted) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfter(Expiry.<RateLimitKey, Entry>accessing((key, entry) -> entry.policy().fullRefillTime()))
+                .executor(Runnable::run)  // evict on the caller's thread, no backlog on the common pool
+                .removalListener((RateLimitKey key, Entry entry, RemovalCause cause) -> {
+                    entry.policy().live().decrement();
+                    if (cause == RemovalCause.SIZE) {
+                        sizeEvicted.accept(entry.bucket());
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    Bucket get(RateLimitKey key, RateLimitPolicy policy, Function<RateLimitKey, Bucket> factory) {
+        return entries.get(key, k -> {
+            policy.live().increment();
+            return new Entry(factory.apply(k), policy);
+        }).bucket();
+    }
+
+    long size() {
+        return entries.estimatedSize();
+    }
+
+    void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, entries, "rateLimitBuckets", Tags.empty());
+    }
+}
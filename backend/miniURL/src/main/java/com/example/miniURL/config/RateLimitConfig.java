@@ -1,18 +1,30 @@
 package com.example.miniURL.config;
 
+import com.example.miniURL.util.SlidingWindowCountMin;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.server.PathContainer;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Rate Limiter using Token Bucket algorithm
  * 
  * How it works:
- * - Each user (IP) gets a "bucket" with tokens
+ * - Each user (IP) gets a "bucket" with tokens per policy (RateLimitProperties: shorten, redirect, ...)
  * - Each request consumes 1 token
  * - Tokens refill at a fixed rate
  * - If bucket is empty, request is blocked (429 Too Many Requests)
@@ -21,53 +33,214 @@ import java.util.concurrent.ConcurrentHashMap;
  * - Prevents abuse/DDOS
  * - Allows burst traffic (token bucket allows temporary spikes)
  * - Fair usage across all users
+ *
+ * Buckets live in a RateLimitStore: this node's heap by default, or the database shared by
+ * all replicas (miniurl.rate-limit.store=jdbc|hybrid). Live buckets held by this node per
+ * policy: miniurl.ratelimit.buckets{policy=...}; requests turned away: miniurl.ratelimit.rejected{policy=...}
+ *
+ * Sliding-window policies skip buckets altogether and count in a per-node count-min sketch
+ * (miniurl.ratelimit.sketch.* metrics, incl. an estimate of false throttles).
  */
 @Component
-public class RateLimitConfig {
-    
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig implements MeterBinder {
 
     /**
-     * Rate limit for URL shortening: 20 requests per minute
-     * 
-     * Why 20/min?
-     * - Generous for normal users (1 every 3 seconds)
-     * - Blocks malicious automation
-     * - Protects database write operations
+     * tryConsume result for a path no policy covers
      */
-    public Bucket resolveShorteningBucket(String key) {
-        return cache.computeIfAbsent(key, k -> createShorteningBucket());
+    public static final long NOT_LIMITED = Long.MIN_VALUE;
+
+    private final List<RateLimitPolicy> policies = new ArrayList<>();
+    // All policies' patterns, most specific first
+    private final List<Route> routes = new ArrayList<>();
+    // Every pattern is a literal path or literal/** (the defaults), so plain paths match as strings
+    private final boolean literalRoutes;
+    private final RateLimitStore store;
+
+    public RateLimitConfig(RateLimitProperties properties, RateLimitStore store) {
+        for (Map.Entry<String, RateLimitProperties.Policy> entry : properties.policies().entrySet()) {
+            RateLimitProperties.Policy config = entry.getValue();
+            // Bandwidths are immutable, so every bucket of a policy shares one
+            Bandwidth bandwidth = Bandwidth.builder()
+                    .capacity(config.capacity())
+                    .refillIntervally(config.tokensPerRefill(), config.refillPeriod())
+                    .build();
+            SlidingWindowCountMin sketch = config.algorithm() == RateLimitProperties.Algorithm.SLIDING_WINDOW
+                    ? new SlidingWindowCountMin(config.sketchWidth(), config.capacity(), config.refillPeriod().toNanos())
+                    : null;
+            RateLimitPolicy policy = new RateLimitPolicy(policies.size(), entry.getKey(), bandwidth,
+                    config.fullRefillTime(), new LongAdder(), sketch, new LongAdder());
+            policies.add(policy);
+            for (String path : config.paths()) {
+                routes.add(Route.of(PathPatternParser.defaultInstance.parse(path), policy));
+            }
+        }
+        routes.sort(Comparator.comparing(Route::pattern, PathPattern.SPECIFICITY_COMPARATOR));
+        this.literalRoutes = routes.stream().allMatch(route -> route.prefix() != null);
+        this.store = store;
+    }
+
+    /**
+     * Takes one request off the client's allowance under the policy for this path
+     *
+     * Defaults (application.properties):
+     * - shorten: 20 requests per minute - generous for normal users, blocks automation,
+     *   protects database write operations
+     * - redirect: 100 requests per minute - read operations are cheaper and cached
+     *
+     * The answer is one long, not a ConsumptionProbe, and literal routes are matched on the path
+     * string, so a sliding-window policy allocates nothing.
+     *
+     * @return the requests left (>= 0) when allowed, NOT_LIMITED when no policy covers the path,
+     *         any other negative value when rejected - see nanosToRetry
+     */
+    public long tryConsume(String path, String clientIp) {
+        return consume(resolvePolicy(path), clientIp);
+    }
+
+    /**
+     * tryConsume for a path the caller has already parsed (WebFlux)
+     */
+    public long tryConsume(PathContainer path, String clientIp) {
+        return consume(resolvePolicy(path), clientIp);
+    }
+
+    private long consume(RateLimitPolicy policy, String clientIp) {
+        if (policy == null) {
+            return NOT_LIMITED;
+        }
+        if (policy.sketch() != null) {
+            long remaining = policy.sketch().tryAcquire(clientIp);
+            return remaining >= 0 ? remaining : rejected(policy.sketch().nanosToNextWindow());
+        }
+        ConsumptionProbe probe = store.resolve(RateLimitKey.of(policy.id(), clientIp), policy).tryConsumeAndReturnRemaining(1);
+        if (probe.isConsumed()) {
+            return probe.getRemainingTokens();
+        }
+        policy.rejected().increment();
+        return rejected(probe.getNanosToWaitForRefill());
+    }
+
+    /**
+     * @return when a request rejected with this tryConsume result may succeed, in nanos from now
+     */
+    public static long nanosToRetry(long result) {
+        return -1 - result;
+    }
+
+    private static long rejected(long nanosToRetry) {
+        return -1 - nanosToRetry;
     }
 
     /**
-     * Rate limit for redirects: 100 requests per minute
-     * 
-     * Why 100/min?
-     * - More lenient (read operations are cheaper)
-     * - Allows normal browsing patterns
-     * - Cached responses don't hit DB anyway
+     * Bucket of the client under the token-bucket policy for this path
+     *
+     * @return null when no policy covers the path, or when it is a sliding-window policy
      */
-    public Bucket resolveRedirectBucket(String key) {
-        return cache.computeIfAbsent(key, k -> createRedirectBucket());
+    public Bucket resolveBucket(String path, String clientIp) {
+        RateLimitPolicy policy = resolvePolicy(path);
+        if (policy == null || policy.sketch() != null) {
+            return null;
+        }
+        return store.resolve(RateLimitKey.of(policy.id(), clientIp), policy);
+    }
+
+    private RateLimitPolicy resolvePolicy(String path) {
+        // Encoded characters and matrix variables are matched on decoded segments: PathPattern only
+        if (!literalRoutes || path.indexOf('%') >= 0 || path.indexOf(';') >= 0) {
+            return resolvePolicy(PathContainer.parsePath(path));
+        }
+        for (Route route : routes) {
+            if (route.matchesLiteral(path)) {
+                return route.policy();
+            }
+        }
+        return null;
     }
 
-    private Bucket createShorteningBucket() {
-        Bandwidth limit = Bandwidth.builder()
-                .capacity(20)
-                .refillIntervally(20, Duration.ofMinutes(1))
-                .build();
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
+    private RateLimitPolicy resolvePolicy(PathContainer container) {
+        for (Route route : routes) {
+            if (route.pattern().matches(container)) {
+                return route.policy();
+            }
+        }
+        return null;
     }
 
-    private Bucket createRedirectBucket() {
-        Bandwidth limit = Bandwidth.builder()
-                .capacity(100)
-                .refillIntervally(100, Duration.ofMinutes(1))
-                .build();
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
+    /**
+     * Whether tryConsume may block on the bucket store (jdbc, hybrid)
+     */
+    public boolean blocking() {
+        return store.blocking();
+    }
+
+    /**
+     * Live buckets of all policies on this node (estimate, expired entries may not be purged yet)
+     */
+    public long bucketCount() {
+        return store.bucketCount();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (RateLimitPolicy policy : policies) {
+            SlidingWindowCountMin sketch = policy.sketch();
+            if (sketch == null) {
+                Gauge.builder("miniurl.ratelimit.buckets", policy.live(), LongAdder::sum)
+                        .tag("policy", policy.name())
+                        .description("Live rate-limit buckets, i.e. clients seen within the time a bucket takes to refill")
+                        .register(registry);
+                FunctionCounter.builder("miniurl.ratelimit.rejected", policy.rejected(), LongAdder::sum)
+                        .tag("policy", policy.name())
+                        .description("Requests answered with 429")
+                        .register(registry);
+                continue;
+            }
+            FunctionCounter.builder("miniurl.ratelimit.sketch.requests", sketch, SlidingWindowCountMin::allowedCount)
+                    .tags("policy", policy.name(), "result", "allowed")
+                    .description("Requests counted by a sliding-window policy")
+                    .register(registry);
+            FunctionCounter.builder("miniurl.ratelimit.sketch.requests", sketch, SlidingWindowCountMin::throttledCount)
+                    .tags("policy", policy.name(), "result", "throttled")
+                    .description("Requests throttled by a sliding-window policy")
+                    .register(registry);
+            FunctionCounter.builder("miniurl.ratelimit.rejected", sketch, SlidingWindowCountMin::throttledCount)
+                    .tag("policy", policy.name())
+                    .description("Requests answered with 429")
+                    .register(registry);
+            Gauge.builder("miniurl.ratelimit.sketch.noise", sketch, SlidingWindowCountMin::noise)
+                    .tag("policy", policy.name())
+                    .description("Average requests of other clients sharing each sketch counter this window")
+                    .register(registry);
+            Gauge.builder("miniurl.ratelimit.sketch.false-throttle-bound", sketch, SlidingWindowCountMin::falseThrottleBound)
+                    .tag("policy", policy.name())
+                    .description("Upper bound on the chance a new client is throttled by sketch collisions alone")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * @param prefix   the literal part of a /literal or /literal/** pattern, null for any other pattern
+     * @param subtree  whether the pattern ends in /**
+     */
+    private record Route(PathPattern pattern, RateLimitPolicy policy, String prefix, boolean subtree) {
+
+        static Route of(PathPattern pattern, RateLimitPolicy policy) {
+            String text = pattern.getPatternString();
+            boolean subtree = text.endsWith("/**");
+            String prefix = subtree ? text.substring(0, text.length() - 3) : text;
+            boolean literal = prefix.chars().noneMatch(c -> c == '*' || c == '?' || c == '{' || c == '%' || c == ';');
+            return new Route(pattern, policy, literal ? prefix : null, subtree);
+        }
+
+        /**
+         * Same answer as pattern.matches for a path without '%' or ';'
+         */
+        boolean matchesLiteral(String path) {
+            if (!subtree) {
+                return path.equals(prefix);
+            }
+            return path.startsWith(prefix) && (path.length() == prefix.length() || path.charAt(prefix.length()) == '/');
+        }
     }
 }
@@ -0,0 +1,95 @@
+package com.example.miniURL.config;
+
+import com.example.miniURL.util.HashUtils;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Bucket key: policy id plus the client address packed into 128 bits
+ *
+ * IPv4 clients are stored as IPv4-mapped IPv6 (::ffff:a.b.c.d), so "1.2.3.4" and
+ * "::ffff:1.2.3.4" share a bucket. A client that is not an IP literal (a forged
+ * X-Forwarded-For, say) is keyed by a 128-bit hash of the string, flagged in scope
+ * so it can never collide with a real address. 32 bytes per key instead of a String
+ * of 40-80 bytes, and hashing/equality are a few long compares.
+ *
+ * @param scope policy id << 1, low bit set for hashed (non-IP) clients
+ */
+public record RateLimitKey(int scope, long high, long low) {
+
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFFL << 32;
+    private static final long HIGH_SEED = 0x9E3779B97F4A7C15L;
+    private static final long LOW_SEED = 0xC2B2AE3D27D4EB4FL;
+
+    static RateLimitKey of(int policyId, String client) {
+        String address = client.strip();
+        if (address.isEmpty()) {
+            return new RateLimitKey(policyId << 1 | 1, 0, 0);
+        }
+        long ipv4 = parseIpv4(address);
+        if (ipv4 >= 0) {
+            return new RateLimitKey(policyId << 1, 0, IPV4_MAPPED_PREFIX | ipv4);
+        }
+        // getByName never does a DNS lookup for a string that starts with a hex digit or ':' and has a ':'
+        if (address.indexOf(':') >= 0 && (address.charAt(0) == ':' || Character.digit(address.charAt(0), 16) >= 0)) {
+            try {
+                InetAddress parsed = InetAddress.getByName(address);
+                byte[] bytes = parsed.getAddress();
+                if (parsed instanceof Inet4Address) {
+                    return new RateLimitKey(policyId << 1, 0, IPV4_MAPPED_PREFIX | toLong(bytes, 0, 4));
+                }
+                return new RateLimitKey(policyId << 1, toLong(bytes, 0, 8), toLong(bytes, 8, 8));
+            } catch (UnknownHostException e) {
+                // not an IPv6 literal - hashed below
+            }
+        }
+        return new RateLimitKey(policyId << 1 | 1, HashUtils.hash64(address, HIGH_SEED), HashUtils.hash64(address, LOW_SEED));
+    }
+
+    int policyId() {
+        return scope >>> 1;
+    }
+
+    /**
+     * Key of this bucket in the shared store: the policy name rather than its id, which
+     * depends on configuration order and may differ between nodes
+     */
+    String storageId(String policyName) {
+        return policyName + ((scope & 1) == 0 ? ":" : ":~") + Long.toHexString(high) + ":" + Long.toHexString(low);
+    }
+
+    /**
+     * @return the address as an unsigned 32-bit value, or -1 unless it is a dotted-quad IPv4 literal
+     */
+    private static long parseIpv4(String address) {
+        long value = 0;
+        int octets = 0;
+        int octet = -1;
+        for (int i = 0; i < address.length(); i++) {
+            char c = address.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = octet < 0 ? c - '0' : octet * 10 + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && octets < 3) {
+                value = value << 8 | octet;
+                octets++;
+                octet = -1;
+            } else {
+                return -1;
+            }
+        }
+        return octets == 3 && octet >= 0 ? value << 8 | octet : -1;
+    }
+
+    private static long toLong(byte[] bytes, int offset, int length) {
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            value = value << 8 | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.miniURL.config;
+
+import com.example.miniURL.util.SlidingWindowCountMin;
+import io.github.bucket4j.Bandwidth;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A configured rate limit (RateLimitProperties.Policy) ready for use
+ *
+ * @param id           position in configuration order, the policy part of a RateLimitKey
+ * @param name         policy name; the key prefix of buckets shared through the database
+ * @param bandwidth    limit of every bucket of this policy (immutable, shared)
+ * @param fullRefillTime how long a bucket may sit idle before it is full again and can be dropped
+ *                       (refill period x ceil(capacity / tokens per refill))
+ * @param live         buckets of this policy currently held by this node
+ * @param sketch       counters of a sliding-window policy, null for token buckets
+ * @param rejected     requests this node turned away under a token-bucket policy (the sketch counts its own)
+ */
+public record RateLimitPolicy(int id, String name, Bandwidth bandwidth, Duration fullRefillTime, LongAdder live,
+                              SlidingWindowCountMin sketch, LongAdder rejected) {
+}
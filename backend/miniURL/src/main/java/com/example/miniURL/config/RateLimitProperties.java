@@ -0,0 +1,89 @@
+package com.example.miniURL.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate limit policies (miniurl.rate-limit.*)
+ *
+ * Each named policy is a token bucket per client applied to the request paths matching
+ * its patterns; the most specific matching pattern wins, and paths no policy matches
+ * are not limited. e.g.
+ *
+ *   miniurl.rate-limit.policies.shorten.capacity=20
+ *   miniurl.rate-limit.policies.shorten.refill-period=1m
+ *   miniurl.rate-limit.policies.shorten.paths=/shorten/**
+ *
+ * algorithm=sliding-window trades exactness for speed: a fixed-size count-min sketch
+ * (SlidingWindowCountMin) instead of a bucket per client - no allocation, no store, per node.
+ *
+ * Without any configured policy the built-in shorten (20/min) and redirect (100/min) limits apply.
+ *
+ * @param maxBuckets buckets kept across all policies before the least valuable are evicted
+ */
+@ConfigurationProperties("miniurl.rate-limit")
+public record RateLimitProperties(@DefaultValue("1000000") long maxBuckets,
+                                  Map<String, Policy> policies) {
+
+    public RateLimitProperties {
+        if (policies == null || policies.isEmpty()) {
+            policies = Map.of(
+                    "shorten", new Policy(20, 0, Duration.ofMinutes(1), List.of("/shorten/**"), Algorithm.TOKEN_BUCKET, 0),
+                    "redirect", new Policy(100, 0, Duration.ofMinutes(1), List.of("/**"), Algorithm.TOKEN_BUCKET, 0));
+        }
+    }
+
+    /**
+     * @param capacity     tokens a new (or idle) client starts with, i.e. the allowed burst
+     * @param refillTokens tokens added every refill period, 0 for capacity
+     * @param refillPeriod how often the tokens are added
+     * @param paths        path patterns (/shorten/**, /{code}, ...) the policy applies to
+     * @param algorithm    token-bucket (exact, via RateLimitStore) or sliding-window (approximate:
+     *                     capacity requests per refill-period window, refill-tokens is ignored)
+     * @param sketchWidth  counters per sketch row for sliding-window; more means fewer false throttles
+     *
+     * Checked when the properties are bound, so a bad policy fails startup instead of every request.
+     */
+    public record Policy(long capacity,
+                         @DefaultValue("0") long refillTokens,
+                         @DefaultValue("1m") Duration refillPeriod,
+                         @DefaultValue("/**") List<String> paths,
+                         @DefaultValue("token-bucket") Algorithm algorithm,
+                         @DefaultValue("65536") int sketchWidth) {
+
+        public Policy {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("capacity must be positive, was " + capacity);
+            }
+            if (refillTokens < 0) {
+                throw new IllegalArgumentException("refill-tokens must not be negative, was " + refillTokens);
+            }
+            if (refillPeriod.isNegative() || refillPeriod.isZero()) {
+                throw new IllegalArgumentException("refill-period must be positive, was " + refillPeriod);
+            }
+            if (algorithm == Algorithm.SLIDING_WINDOW && sketchWidth <= 0) {
+                throw new IllegalArgumentException("sketch-width must be positive, was " + sketchWidth);
+            }
+        }
+
+        public long tokensPerRefill() {
+            return refillTokens > 0 ? refillTokens : capacity;
+        }
+
+        /**
+         * How long an empty bucket takes to fill up: ceil(capacity / tokensPerRefill) refill periods
+         */
+        public Duration fullRefillTime() {
+            return refillPeriod.multipliedBy(Math.ceilDiv(capacity, tokensPerRefill()));
+        }
+    }
+
+    public enum Algorithm {
+        TOKEN_BUCKET,
+        SLIDING_WINDOW
+    }
+}
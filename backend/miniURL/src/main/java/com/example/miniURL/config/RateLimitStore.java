@@ -0,0 +1,27 @@
+package com.example.miniURL.config;
+
+import io.github.bucket4j.Bucket;
+
+/**
+ * Where the token buckets behind RateLimitConfig live (miniurl.rate-limit.store)
+ *
+ * - memory (default): on this node only - with N replicas a client gets N times the quota
+ * - jdbc: one bucket per client in the database, shared by every replica; a round-trip per request
+ * - hybrid: shared like jdbc, but tokens are consumed locally and synced in batches
+ */
+public interface RateLimitStore {
+
+    Bucket resolve(RateLimitKey key, RateLimitPolicy policy);
+
+    /**
+     * Whether consuming from a bucket may wait on I/O (the database), so must stay off event loops
+     */
+    default boolean blocking() {
+        return false;
+    }
+
+    /**
+     * Buckets held by this node (estimate)
+     */
+    long bucketCount();
+}
@@ -0,0 +1,39 @@
+package com.example.miniURL.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * WebConfig for the reactive variant (profile "reactive")
+ *
+ * Runs on Netty rather than Tomcat (both are on the classpath, Boot would pick Tomcat):
+ * a few event-loop threads hold any number of idle keep-alive connections, so concurrency
+ * is bounded by memory and file descriptors instead of a thread pool.
+ * Rate limiting is RateLimitWebFilter.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Same CORS policy as WebConfig
+     */
+    @Override
+    public void addCorsMappings(CorsRegistry registry) {
+        registry.addMapping("/**") // Apply to all endpoints
+                .allowedOriginPatterns("*") // Allow all origins including file://
+                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                .allowedHeaders("*")
+                .allowCredentials(true)
+                .maxAge(3600); // Cache preflight response for 1 hour
+    }
+}
@@ -0,0 +1,362 @@
+package com.example.miniURL.config;
+
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.util.OffHeapUrlStore;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Spring Cache with two tiers for short code -> URI
+ *
+ * - L1: on-heap Caffeine cache of URI objects, bounded by estimated bytes (hottest codes)
+ * - L2: off-heap store of UTF-8 URL bytes keyed by the packed short code (working set)
+ *
+ * Keys are ShortCode values. Reads go L1 -> L2 (promoting hits into L1) -> loader;
+ * writes go to both tiers. Any other key type only uses L1.
+ *
+ * L2 entries expire like L1 ones (CacheConfig gives both the same expire-after-write). A hit
+ * promoted into L1 only gets the rest of its L2 lifetime, so an entry never outlives the TTL
+ * by bouncing between the tiers.
+ *
+ * Built on a Caffeine AsyncCache, L1 also serves retrieve(): concurrent misses for the same
+ * code share one pending load (the reactive redirect path), and sync reads see loaded values.
+ *
+ * pin() exempts the hottest codes from L1 expiry (needs L1 built with a variable Expiry).
+ */
+public class TieredUrlCache implements Cache, MeterBinder {
+
+    // Caffeine caps expiry at ~150 years; a year is "never" for a cache entry
+    private static final Duration PINNED_TTL = Duration.ofDays(365);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> l1;
+    private final AsyncCache<Object, Object> asyncL1;
+    private final OffHeapUrlStore l2;
+    private final LongAdder coalesced = new LongAdder();
+    private volatile Set<Object> pinned = Set.of();
+
+    /**
+     * @param l2 off-heap tier, or null to run with L1 only
+     */
+    public TieredUrlCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> l1, OffHeapUrlStore l2) {
+        this.name = name;
+        this.l1 = l1;
+        this.asyncL1 = null;
+        this.l2 = l2;
+    }
+
+    /**
+     * @param l2 off-heap tier, or null to run with L1 only
+     */
+    public TieredUrlCache(String name, AsyncCache<Object, Object> l1, OffHeapUrlStore l2) {
+        this.name = name;
+        this.l1 = l1.synchronous();
+        this.asyncL1 = l1;
+        this.l2 = l2;
+    }
+
+    /**
+     * Rough retained size of an L1 entry: key, URI object and the strings it holds
+     */
+    public static int weigh(Object key, Object value) {
+        int keyBytes = key instanceof ShortCode ? 24 : 64;
+        int valueBytes = value instanceof URI uri ? 96 + 3 * uri.toString().length() : 256;
+        return keyBytes + valueBytes;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l1;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = lookup(key);
+        return value == null ? null : new SimpleValueWrapper(value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        Object value = lookup(key);
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        OffHeapUrlStore.Entry[] promoted = new OffHeapUrlStore.Entry[1];
+        T value = (T) l1.get(key, k -> {
+            URI offHeap = readL2(k, promoted);
+            if (offHeap != null) {
+                return offHeap;
+            }
+            try {
+                T loaded = valueLoader.call();
+                writeL2(k, loaded);
+                return loaded;
+            } catch (Exception e) {
+                throw new ValueRetrievalException(k, valueLoader, e);
+            }
+        });
+        limitToL2Lifetime(key, promoted[0]);
+        return value;
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        if (asyncL1 != null) {
+            CompletableFuture<Object> pending = asyncL1.getIfPresent(key);
+            if (pending != null) {
+                return pending;
+            }
+        }
+        Object value = lookup(key);
+        return value == null ? null : CompletableFuture.completedFuture(value);
+    }
+
+    /**
+     * Async get-or-load: with an async L1 the loader runs once per key however many callers miss
+     * at the same time. A load that completes with null (not found) or fails is not cached.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        if (asyncL1 == null) {
+            Object value = lookup(key);
+            if (value != null) {
+                return CompletableFuture.completedFuture((T) value);
+            }
+            return valueLoader.get().thenApply(loaded -> {
+                if (loaded != null) {
+                    put(key, loaded);
+                }
+                return loaded;
+            });
+        }
+        boolean[] loading = new boolean[1];
+        OffHeapUrlStore.Entry[] promoted = new OffHeapUrlStore.Entry[1];
+        CompletableFuture<Object> result = asyncL1.get(key, (k, executor) -> {
+            loading[0] = true;
+            URI offHeap = readL2(k, promoted);
+            if (offHeap != null) {
+                return CompletableFuture.completedFuture(offHeap);
+            }
+            return valueLoader.get().thenApply(loaded -> {
+                if (loaded != null) {
+                    writeL2(k, loaded);
+                }
+                return loaded;
+            });
+        });
+        //joined someone else's load that is still running
+        if (!loading[0] && !result.isDone()) {
+            coalesced.increment();
+        }
+        limitToL2Lifetime(key, promoted[0]);
+        return (CompletableFuture<T>) result;
+    }
+
+    /**
+     * @return retrieve() calls that waited on another caller's pending load instead of loading
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Cache '" + name + "' does not allow null values");
+        }
+        l1.put(key, value);
+        writeL2(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        l1.invalidate(key);
+        long packed = pack(key);
+        if (l2 != null && packed >= 0) {
+            l2.remove(packed);
+        }
+    }
+
+    @Override
+    public void clear() {
+        l1.invalidateAll();
+        if (l2 != null) {
+            l2.clear();
+        }
+    }
+
+    /**
+     * The L1 entries Caffeine considers most valuable, hottest first (used for warm-up snapshots)
+     */
+    public Map<Object, Object> hottest(int limit) {
+        return l1.policy().eviction()
+                .map(eviction -> eviction.hottest(limit))
+                .orElse(Map.of());
+    }
+
+    /**
+     * Keeps these keys in L1 until they are unpinned: they no longer expire, and keys pinned by
+     * the previous call that are not in this one expire after unpinnedTtl from now. Keys only in
+     * L2 are promoted first; keys in neither are skipped. Size-based eviction still applies.
+     *
+     * @return how many keys are pinned now
+     */
+    public synchronized int pin(Collection<?> keys, Duration unpinnedTtl) {
+        var expiry = l1.policy().expireVariably().orElseThrow(() ->
+                new IllegalStateException("Cache '" + name + "' is not built with a variable expiry"));
+        Set<Object> next = new HashSet<>();
+        for (Object key : keys) {
+            if (lookup(key) != null) {
+                expiry.setExpiresAfter(key, PINNED_TTL);
+                next.add(key);
+            }
+        }
+        for (Object key : pinned) {
+            if (!next.contains(key)) {
+                expiry.setExpiresAfter(key, unpinnedTtl);
+            }
+        }
+        pinned = Set.copyOf(next);
+        return next.size();
+    }
+
+    public int pinnedCount() {
+        return pinned.size();
+    }
+
+    private Object lookup(Object key) {
+        Object value = l1.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        OffHeapUrlStore.Entry[] promoted = new OffHeapUrlStore.Entry[1];
+        URI offHeap = readL2(key, promoted);
+        if (offHeap != null) {
+            Duration remaining = l2.remaining(promoted[0]);
+            var expiry = l1.policy().expireVariably();
+            if (remaining != null && expiry.isPresent()) {
+                expiry.get().put(key, offHeap, remaining);
+            } else {
+                l1.put(key, offHeap);
+            }
+        }
+        return offHeap;
+    }
+
+    /**
+     * @param hit receives the L2 entry when there is one
+     */
+    private URI readL2(Object key, OffHeapUrlStore.Entry[] hit) {
+        long packed = pack(key);
+        if (l2 == null || packed < 0) {
+            return null;
+        }
+        OffHeapUrlStore.Entry entry = l2.getEntry(packed);
+        if (entry == null) {
+            return null;
+        }
+        hit[0] = entry;
+        return URI.create(new String(entry.value(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * An L1 entry just computed from an L2 hit only lives as long as the L2 entry had left
+     */
+    private void limitToL2Lifetime(Object key, OffHeapUrlStore.Entry promoted) {
+        if (promoted == null || pinned.contains(key)) {
+            return;
+        }
+        Duration remaining = l2.remaining(promoted);
+        if (remaining != null) {
+            l1.policy().expireVariably().ifPresent(expiry -> expiry.setExpiresAfter(key, remaining));
+        }
+    }
+
+    private void writeL2(Object key, Object value) {
+        long packed = pack(key);
+        if (l2 != null && packed >= 0 && value instanceof URI uri) {
+            l2.put(packed, uri.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static long pack(Object key) {
+        return key instanceof ShortCode code ? code.value() : -1;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, l1, name, Tags.of("tier", "l1"));
+        FunctionCounter.builder("cache.loads.coalesced", this, TieredUrlCache::coalescedCount)
+                .tags("cache", name, "tier", "l1")
+                .description("Async lookups that joined an in-flight load for the same key")
+                .register(registry);
+        Gauge.builder("cache.pinned", this, TieredUrlCache::pinnedCount)
+                .tags("cache", name, "tier", "l1")
+                .description("Hot entries exempt from expiry")
+                .register(registry);
+        if (l2 == null) {
+            return;
+        }
+        Tags tags = Tags.of("cache", name, "tier", "l2");
+        FunctionCounter.builder("cache.gets", l2, OffHeapUrlStore::hitCount)
+                .tags(tags).tag("result", "hit")
+                .description("Off-heap cache lookups that found the code")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", l2, OffHeapUrlStore::missCount)
+                .tags(tags).tag("result", "miss")
+                .description("Off-heap cache lookups that missed")
+                .register(registry);
+        FunctionCounter.builder("cache.puts", l2, OffHeapUrlStore::putCount)
+                .tags(tags)
+                .description("Entries written to the off-heap cache")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", l2, OffHeapUrlStore::evictionCount)
+                .tags(tags)
+                .description("Entries evicted from the off-heap cache")
+                .register(registry);
+        Gauge.builder("cache.size", l2, OffHeapUrlStore::size)
+                .tags(tags)
+                .description("Entries in the off-heap cache")
+                .register(registry);
+        Gauge.builder("cache.offheap.used", l2, OffHeapUrlStore::usedBytes)
+                .tags(tags).baseUnit("bytes")
+                .description("Off-heap data bytes in use")
+                .register(registry);
+        Gauge.builder("cache.offheap.capacity", l2, OffHeapUrlStore::capacityBytes)
+                .tags(tags).baseUnit("bytes")
+                .description("Configured off-heap capacity")
+                .register(registry);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.miniURL.controller;
+
+import com.example.miniURL.dto.BatchShortenResultDto;
+import com.example.miniURL.dto.ShortenUrlRequestDto;
+import com.example.miniURL.service.BulkShortenService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Bulk shortening: POST /shorten/batch
+ *
+ * Accepts either
+ * - a JSON array:  [{"url": "..."}, {"url": "..."}]            (Content-Type: application/json)
+ * - NDJSON:        one {"url": "..."} object per line           (Content-Type: application/x-ndjson)
+ *
+ * and streams results back in the same format and order, chunk by chunk,
+ * while the rest of the input is still being read.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class BulkShortenController {
+    private final BulkShortenService bulkShortenService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(value = "/shorten/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> shortenJsonArray(HttpServletRequest request) throws IOException {
+        InputStream in = request.getInputStream();
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.createGenerator(out);
+            generator.writeStartArray();
+            bulkShortenService.shortenAll(jsonArrayItems(in), chunk -> write(generator, chunk, false));
+            generator.writeEndArray();
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @PostMapping(value = "/shorten/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> shortenNdjson(HttpServletRequest request) throws IOException {
+        InputStream in = request.getInputStream();
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.createGenerator(out);
+            bulkShortenService.shortenAll(ndjsonItems(in), chunk -> write(generator, chunk, true));
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private static void write(JsonGenerator generator, List<BatchShortenResultDto> chunk, boolean newlineDelimited) {
+        try {
+            for (BatchShortenResultDto result : chunk) {
+                generator.writeObject(result);
+                if (newlineDelimited) {
+                    generator.writeRaw('\n');
+                }
+            }
+            // Push each committed chunk to the client right away
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Elements of a JSON array; a syntax error yields one empty (invalid) item and ends the input
+     */
+    private Iterator<ShortenUrlRequestDto> jsonArrayItems(InputStream in) throws IOException {
+        MappingIterator<ShortenUrlRequestDto> values =
+                objectMapper.readerFor(ShortenUrlRequestDto.class).readValues(in);
+        return new Iterator<>() {
+            private boolean broken;
+
+            @Override
+            public boolean hasNext() {
+                if (broken) {
+                    return false;
+                }
+                try {
+                    return values.hasNextValue();
+                } catch (IOException | RuntimeException e) {
+                    broken = true;
+                    return true;
+                }
+            }
+
+            @Override
+            public ShortenUrlRequestDto next() {
+                if (broken) {
+                    return new ShortenUrlRequestDto();
+                }
+                try {
+                    return values.nextValue();
+                } catch (IOException | RuntimeException e) {
+                    broken = true;
+                    return new ShortenUrlRequestDto();
+                }
+            }
+        };
+    }
+
+    /**
+     * Non-blank lines of an NDJSON body; a malformed line only invalidates itself
+     */
+    private Iterator<ShortenUrlRequestDto> ndjsonItems(InputStream in) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        ObjectReader lineReader = objectMapper.readerFor(ShortenUrlRequestDto.class);
+        return new Iterator<>() {
+            private String nextLine = advance();
+
+            private String advance() {
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null && line.isBlank()) {
+                        // skip empty lines
+                    }
+                    return line;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nextLine != null;
+            }
+
+            @Override
+            public ShortenUrlRequestDto next() {
+                if (nextLine == null) {
+                    throw new NoSuchElementException();
+                }
+                String line = nextLine;
+                nextLine = advance();
+                try {
+                    return lineReader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    return new ShortenUrlRequestDto();
+                }
+            }
+        };
+    }
+}
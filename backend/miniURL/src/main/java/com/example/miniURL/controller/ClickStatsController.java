@@ -0,0 +1,34 @@
+package com.example.miniURL.controller;
+
+import com.example.miniURL.dto.ClickStatsDto;
+import com.example.miniURL.exception.UrlNotFoundException;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.service.ClickCounter;
+import com.example.miniURL.service.UrlService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "miniurl.click-stats.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ClickStatsController {
+    private final ClickCounter clickCounter;
+    private final UrlService urlService;
+
+    @GetMapping("/stats/{shortCode}")
+    public ClickStatsDto getStats(@PathVariable String shortCode) {
+        long codeValue = ShortCode.parse(shortCode);
+        if (codeValue < 0) {
+            throw new UrlNotFoundException("Short code not found: " + shortCode);
+        }
+        ShortCode code = new ShortCode(codeValue);
+        //404 for codes that do not exist (usually answered from urlCache)
+        urlService.getRedirectionUri(code);
+        return clickCounter.stats(code);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.miniURL.controller;
+
+import com.example.miniURL.dto.HotCodesDto;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.service.HotCodeTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/hotcodes?limit=20
+ *
+ * An actuator endpoint rather than a public route: the most redirected codes are other users'
+ * links. Served only once listed in management.endpoints.web.exposure.include, and on
+ * management.server.port when the management port is split off.
+ */
+@Component
+@Endpoint(id = "hotcodes")
+@ConditionalOnProperty(name = "miniurl.hot-codes.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class HotCodesEndpoint {
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 1000;
+
+    private final HotCodeTracker hotCodeTracker;
+
+    @ReadOperation
+    public HotCodesDto hotCodes(@Nullable Integer limit) {
+        return HotCodesDto.builder()
+                .counted(hotCodeTracker.total())
+                .maxError(hotCodeTracker.maxError())
+                .codes(hotCodeTracker.top(Math.clamp(limit == null ? DEFAULT_LIMIT : limit, 1, MAX_LIMIT)).stream()
+                        .map(entry -> new HotCodesDto.Code(new ShortCode(entry.key()).toString(),
+                                entry.count(), entry.guaranteed()))
+                        .toList())
+                .build();
+    }
+}
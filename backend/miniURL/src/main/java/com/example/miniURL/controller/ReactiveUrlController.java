@@ -0,0 +1,49 @@
+package com.example.miniURL.controller;
+
+import com.example.miniURL.dto.ShortenUrlRequestDto;
+import com.example.miniURL.dto.ShortenUrlResponseDto;
+import com.example.miniURL.exception.ErrorResponses;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.service.ReactiveUrlService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * UrlController for the reactive variant (profile "reactive", WebFlux on Netty)
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveUrlController {
+    private final ReactiveUrlService reactiveUrlService;
+    private final ErrorResponses errorResponses;
+
+    @PostMapping("/shorten") // non-idempotent
+    public Mono<ShortenUrlResponseDto> shortenURL(@RequestBody ShortenUrlRequestDto requestDto) {
+        return reactiveUrlService.shortenUrl(requestDto);
+    }
+
+    @GetMapping("/{shortCode}")
+    public Mono<ResponseEntity<byte[]>> getRedirectionUrl(@PathVariable String shortCode, ServerHttpRequest request) {
+        //anything that is not 8 base62 chars cannot be a code - no cache or DB lookup needed
+        long codeValue = ShortCode.parse(shortCode);
+        if (codeValue < 0) {
+            return Mono.just(notFound(shortCode, request));
+        }
+        //unknown codes are answered here, without an exception
+        return reactiveUrlService.getRedirectionUri(new ShortCode(codeValue))
+                .map(redirectUri -> ResponseEntity.status(HttpStatus.MOVED_PERMANENTLY)
+                        .location(redirectUri)
+                        .<byte[]>build())
+                .switchIfEmpty(Mono.fromSupplier(() -> notFound(shortCode, request)));
+    }
+
+    private ResponseEntity<byte[]> notFound(String shortCode, ServerHttpRequest request) {
+        return errorResponses.notFound("Short code not found: " + shortCode, request.getPath().value());
+    }
+}
@@ -2,31 +2,75 @@ package com.example.miniURL.controller;
 
 import com.example.miniURL.dto.ShortenUrlRequestDto;
 import com.example.miniURL.dto.ShortenUrlResponseDto;
+import com.example.miniURL.exception.ErrorResponses;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.interceptor.RateLimitInterceptor;
+import com.example.miniURL.service.ClickAnalytics;
+import com.example.miniURL.service.ClickCounter;
+import com.example.miniURL.service.HotCodeTracker;
+import com.example.miniURL.service.RequestMetrics;
 import com.example.miniURL.service.UrlService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 public class UrlController {
     private final UrlService urlService;
+    private final RequestMetrics requestMetrics;
+    private final ErrorResponses errorResponses;
+    private final Optional<ClickCounter> clickCounter;
+    private final Optional<HotCodeTracker> hotCodeTracker;
+    private final Optional<ClickAnalytics> clickAnalytics;
 
     //idempotency: the ability of API to produce same result for same request
+    //returns a future so the write-behind pipeline can release the request thread while it commits
     @PostMapping("/shorten") // non-idempotent
-    public ShortenUrlResponseDto shortenURL(@RequestBody ShortenUrlRequestDto requestDto){
-        return urlService.shortenUrl(requestDto);
+    public CompletableFuture<ShortenUrlResponseDto> shortenURL(@RequestBody ShortenUrlRequestDto requestDto){
+        long start = System.nanoTime();
+        return urlService.submitShortenUrl(requestDto)
+                .whenComplete((response, error) -> requestMetrics.recordShorten(start));
     }
 
     @GetMapping("/{shortCode}")
-    public ResponseEntity<Void> getRedirectionUrl(@PathVariable String shortCode) {
-        URI redirectUri = urlService.getRedirectionUri(shortCode);
+    public ResponseEntity<byte[]> getRedirectionUrl(@PathVariable String shortCode, HttpServletRequest request) {
+        //anything that is not 8 base62 chars cannot be a code - no cache or DB lookup needed
+        long codeValue = ShortCode.parse(shortCode);
+        if (codeValue < 0) {
+            return notFound(shortCode, request);
+        }
+        long start = System.nanoTime();
+        ShortCode code = new ShortCode(codeValue);
+        boolean[] missed = new boolean[1];
+        //unknown codes are answered here, without an exception and the exception handler
+        Optional<URI> found = urlService.findRedirectionUri(code, missed);
+        if (found.isEmpty()) {
+            return notFound(shortCode, request);
+        }
+        URI redirectUri = found.get();
+        requestMetrics.recordRedirect(!missed[0], start);
+        clickCounter.ifPresent(counter -> counter.increment(code));
+        hotCodeTracker.ifPresent(tracker -> tracker.record(code));
+        //queued for the analytics workers, never waits
+        clickAnalytics.ifPresent(analytics -> analytics.record(code,
+                RateLimitInterceptor.getClientIP(request), request.getHeader(HttpHeaders.USER_AGENT)));
         return ResponseEntity.status(HttpStatus.MOVED_PERMANENTLY)
                 .location(redirectUri)
                 .build();
     }
+
+    private ResponseEntity<byte[]> notFound(String shortCode, HttpServletRequest request) {
+        return errorResponses.notFound("Short code not found: " + shortCode, request.getRequestURI());
+    }
 }
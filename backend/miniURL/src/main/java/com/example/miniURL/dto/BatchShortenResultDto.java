@@ -0,0 +1,24 @@
+package com.example.miniURL.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One entry of a bulk shortening response
+ *
+ * Entries come back in input order; index is the position of the URL in the request.
+ * Either shortCode/shortUrl or error is set, so one bad URL never fails the whole batch.
+ */
+@Getter
+@Setter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchShortenResultDto {
+    private int index;          // e.g., 0
+    private String url;         // e.g., "https://example.com/long"
+    private String shortCode;   // e.g., "abc12345"
+    private String shortUrl;    // e.g., "http://localhost:8080/abc12345"
+    private String error;       // e.g., "Invalid URL format: not-a-url"
+}
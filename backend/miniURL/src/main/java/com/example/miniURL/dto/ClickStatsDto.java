@@ -0,0 +1,27 @@
+package com.example.miniURL.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Response DTO for GET /stats/{shortCode}
+ *
+ * Counts include clicks not yet written to the database. Minutes and hours without clicks
+ * are left out of the series.
+ */
+@Getter
+@Setter
+@Builder
+public class ClickStatsDto {
+    private String shortCode;       // e.g., "abc12345"
+    private long totalClicks;       // e.g., 1042
+    private List<Bucket> lastHour;  // per minute, oldest first
+    private List<Bucket> lastDay;   // per hour, oldest first
+
+    public record Bucket(Instant start, long clicks) {
+    }
+}
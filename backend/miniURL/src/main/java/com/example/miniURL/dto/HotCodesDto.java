@@ -0,0 +1,25 @@
+package com.example.miniURL.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Response DTO for GET /actuator/hotcodes (HotCodesEndpoint)
+ *
+ * Counts are recent redirects (halved every decay interval) and may be overestimated by up to
+ * maxError; minClicks is a guaranteed lower bound.
+ */
+@Getter
+@Setter
+@Builder
+public class HotCodesDto {
+    private long counted;           // e.g., 250000
+    private long maxError;          // e.g., 240
+    private List<Code> codes;       // highest first
+
+    public record Code(String shortCode, long clicks, long minClicks) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.miniURL.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Clicks on one short code on one day from one country/city, browser and OS
+ *
+ * Rows are only ever added to (see ClickAnalytics): each flush upserts clicks += delta into
+ * the row for its dimension combination, so there is one row per combination.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "click_aggregate", indexes = {
+    @Index(name = "idx_click_aggregate_code_day", columnList = "code_value, click_date")
+})
+@IdClass(ClickAggregate.Key.class)
+public class ClickAggregate {
+
+    public record Key(long codeValue, LocalDate clickDate, String country, String city, String browser, String os)
+            implements Serializable {
+    }
+
+    // ShortCode value, see UrlEntity.codeValue
+    @Id
+    @Column(name = "code_value")
+    private long codeValue;
+
+    // UTC
+    @Id
+    @Column(name = "click_date")
+    private LocalDate clickDate;
+
+    // ISO 3166 code, empty when unknown (no GeoIP database, private address, ...): part of the key
+    @Id
+    @Column(name = "country", length = 2)
+    private String country;
+
+    // Empty when unknown, as country
+    @Id
+    @Column(name = "city", length = 64)
+    private String city;
+
+    @Id
+    @Column(name = "browser", length = 32)
+    private String browser;
+
+    @Id
+    @Column(name = "os", length = 32)
+    private String os;
+
+    @Column(name = "clicks", nullable = false)
+    private long clicks;
+}
@@ -0,0 +1,39 @@
+package com.example.miniURL.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Serialized Bucket4j state of one client under one rate-limit policy, shared by all nodes
+ *
+ * Updated with compare-and-swap on version (see JdbcRateLimitStore), so nodes never hold
+ * row locks. Rows past expiresAt describe a bucket that is full again and are deleted.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "rate_limit_bucket", indexes = {
+    @Index(name = "idx_rate_limit_expires_at", columnList = "expires_at")
+})
+public class RateLimitBucketState {
+
+    // policy name + packed client address, see RateLimitKey.storageId
+    @Id
+    @Column(name = "id", length = 96)
+    private String id;
+
+    @Column(name = "state", nullable = false)
+    private byte[] state;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // epoch millis
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+}
@@ -0,0 +1,29 @@
+package com.example.miniURL.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Shared high-water mark of a numeric sequence that nodes lease ranges from
+ *
+ * Each lease moves nextValue forward by one block, so every node owns a
+ * disjoint range of ids and never needs to ask the database again until
+ * that range is used up.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "short_code_block")
+public class ShortCodeBlock {
+
+    @Id
+    @Column(name = "name", length = 32)
+    private String name;
+
+    @Column(name = "next_value", nullable = false)
+    private long nextValue;
+}
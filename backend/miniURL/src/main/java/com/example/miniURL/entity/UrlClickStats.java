@@ -0,0 +1,57 @@
+package com.example.miniURL.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Clicks on one short code in one minute or one hour
+ *
+ * Rows are only ever added to (see ClickCounter): each flush upserts clicks += delta into the
+ * minute row and the hour row it rolls up into. Minute rows are deleted after a retention
+ * period; hour rows are kept and hold the totals.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "url_click_stats", indexes = {
+    @Index(name = "idx_click_stats_bucket", columnList = "granularity, bucket_start")
+})
+@IdClass(UrlClickStats.Key.class)
+public class UrlClickStats {
+
+    public enum Granularity {
+        MINUTE,
+        HOUR
+    }
+
+    public record Key(long codeValue, Granularity granularity, long bucketStart) implements Serializable {
+    }
+
+    // ShortCode value, see UrlEntity.codeValue
+    @Id
+    @Column(name = "code_value")
+    private long codeValue;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", length = 6)
+    private Granularity granularity;
+
+    // Start of the minute or hour, epoch millis
+    @Id
+    @Column(name = "bucket_start")
+    private long bucketStart;
+
+    @Column(name = "clicks", nullable = false)
+    private long clicks;
+}
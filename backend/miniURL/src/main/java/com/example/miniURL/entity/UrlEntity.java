@@ -1,20 +1,26 @@
 package com.example.miniURL.entity;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
 import java.time.LocalDateTime;
 
 @Getter
 @Setter
 @Entity //not just class but an entity that will be mapped to a database table
 @Table(name = "url_entity", indexes = {
-    @Index(name = "idx_short_code", columnList = "shortCode", unique = true)
+    @Index(name = "idx_short_code", columnList = "shortCode", unique = true),
+    @Index(name = "idx_code_value", columnList = "codeValue", unique = true),
+    @Index(name = "idx_url_hash", columnList = "urlHash"),
+    @Index(name = "idx_created_at", columnList = "createdAt")
 })
-public class UrlEntity {
+public class UrlEntity implements Persistable<Long> {
 
+    // Assigned in-process by ShortCodeGenerator (no IDENTITY), so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
     @Column(name = "main_url", length = 2048, nullable = false)
@@ -22,12 +28,46 @@ public class UrlEntity {
 
     @Column(name = "short_code", length = 8, nullable = false, unique = true)
     private String shortCode;
+
+    // shortCode packed into a number (see ShortCode); redirects look rows up by this column.
+    // Null only for legacy rows until ShortCodeValueBackfill has filled them in
+    @Column(name = "code_value")
+    private Long codeValue;
+
+    // 64-bit hash of the normalized main URL, used to find duplicates (null for legacy rows)
+    @Column(name = "url_hash")
+    private Long urlHash;
     
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
+    // With an assigned id, Spring Data cannot tell new from existing rows by id == null
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
     }
+
+    @PostPersist
+    @PostLoad
+    protected void markPersisted() {
+        persisted = true;
+    }
+
+    /**
+     * For a row whose insert was rolled back after @PostPersist ran: new again, so saving it
+     * persists (one INSERT) instead of merging
+     */
+    public void markRolledBack() {
+        persisted = false;
+    }
 }
@@ -0,0 +1,160 @@
+package com.example.miniURL.exception;
+
+import com.example.miniURL.util.LogSampler;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JSON error bodies, rendered from pre-serialized templates
+ *
+ *   {"timestamp":"2026-01-01T12:00:00.123","status":404,"error":"Not Found","message":"...","path":"/..."}
+ *
+ * Everything but the timestamp, message and path is serialized once, up front, along with the
+ * (read-only) response headers; a response is one StringBuilder and its UTF-8 bytes. No Map,
+ * no Jackson, no content negotiation - what scanners hitting unknown codes cost us per request.
+ *
+ * Each kind is counted in miniurl.errors{exception, status}. Unknown codes and invalid URLs are
+ * client errors, logged at WARN for 1 request in miniurl.logging.sample-every.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ErrorResponses implements MeterBinder {
+
+    private final LogSampler logSampler;
+
+    private final Template invalidUrl = new Template(HttpStatus.BAD_REQUEST, "InvalidUrlException", null);
+    private final Template notFound = new Template(HttpStatus.NOT_FOUND, "UrlNotFoundException", null);
+    private final Template generationFailed = new Template(HttpStatus.INTERNAL_SERVER_ERROR,
+            "UrlGenerationException", "Failed to generate shortened URL. Please try again.");
+    private final Template busy = new Template(HttpStatus.SERVICE_UNAVAILABLE,
+            "ServiceBusyException", "Server is busy. Please try again shortly.");
+    private final Template unexpected = new Template(HttpStatus.INTERNAL_SERVER_ERROR,
+            "other", "An unexpected error occurred. Please try again later.");
+
+    public ResponseEntity<byte[]> invalidUrl(String message, String path) {
+        if (logSampler.sample()) {
+            log.warn("Invalid URL error: {} (1 in {} logged)", message, logSampler.every());
+        }
+        return invalidUrl.render(message, path);
+    }
+
+    public ResponseEntity<byte[]> notFound(String message, String path) {
+        if (logSampler.sample()) {
+            log.warn("URL not found: {} (1 in {} logged)", message, logSampler.every());
+        }
+        return notFound.render(message, path);
+    }
+
+    public ResponseEntity<byte[]> generationFailed(String path) {
+        return generationFailed.render(null, path);
+    }
+
+    /**
+     * 503 with Retry-After: 1
+     */
+    public ResponseEntity<byte[]> busy(String path) {
+        return busy.render(null, path);
+    }
+
+    public ResponseEntity<byte[]> unexpected(String path) {
+        return unexpected.render(null, path);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Template template : new Template[]{invalidUrl, notFound, generationFailed, busy, unexpected}) {
+            FunctionCounter.builder("miniurl.errors", template.count, LongAdder::sum)
+                    .tags("exception", template.exception, "status", String.valueOf(template.status.value()))
+                    .description("Requests answered with an error response, by exception")
+                    .register(registry);
+        }
+    }
+
+    private static final class Template {
+
+        private final HttpStatus status;
+        private final String exception;
+        private final HttpHeaders headers;
+        // ","status":404,"error":"Not Found","message":
+        private final String afterTimestamp;
+        // "fixed message", or null when each response brings its own
+        private final String message;
+        private final LongAdder count = new LongAdder();
+
+        Template(HttpStatus status, String exception, String message) {
+            this.status = status;
+            this.exception = exception;
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            if (status == HttpStatus.SERVICE_UNAVAILABLE) {
+                headers.set(HttpHeaders.RETRY_AFTER, "1");
+            }
+            this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+            StringBuilder json = new StringBuilder("\",\"status\":").append(status.value()).append(",\"error\":");
+            quote(status.getReasonPhrase(), json);
+            this.afterTimestamp = json.append(",\"message\":").toString();
+            this.message = message == null ? null : quote(message, new StringBuilder()).toString();
+        }
+
+        ResponseEntity<byte[]> render(String message, String path) {
+            count.increment();
+            StringBuilder json = new StringBuilder(160 + (message == null ? 0 : message.length())
+                    + (path == null ? 0 : path.length()));
+            json.append("{\"timestamp\":\"");
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(LocalDateTime.now(), json);
+            json.append(afterTimestamp);
+            if (this.message != null) {
+                json.append(this.message);
+            } else {
+                quote(message, json);
+            }
+            json.append(",\"path\":");
+            quote(path, json).append('}');
+            return new ResponseEntity<>(json.toString().getBytes(StandardCharsets.UTF_8), headers, status);
+        }
+    }
+
+    /**
+     * Appends text as a JSON string, escaped as Jackson does (quotes, backslashes, control characters)
+     */
+    private static StringBuilder quote(String text, StringBuilder json) {
+        if (text == null) {
+            return json.append("null");
+        }
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                case '\b' -> json.append("\\b");
+                case '\f' -> json.append("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        json.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"');
+    }
+}
@@ -1,81 +1,77 @@
 package com.example.miniURL.exception;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 
-import java.time.LocalDateTime;
-import java.util.LinkedHashMap;
-import java.util.Map;
-
+/**
+ * Maps exceptions to JSON error responses (ErrorResponses), which also counts and logs client errors
+ */
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
 @Slf4j
 public class GlobalExceptionHandler {
 
+    private final ErrorResponses errorResponses;
+
     @ExceptionHandler(InvalidUrlException.class)
-    public ResponseEntity<Object> handleInvalidUrlException(
+    public ResponseEntity<byte[]> handleInvalidUrlException(
             InvalidUrlException ex, WebRequest request) {
-        
-        log.error("Invalid URL error: {}", ex.getMessage());
-        
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        body.put("error", "Bad Request");
-        body.put("message", ex.getMessage());
-        body.put("path", request.getDescription(false).replace("uri=", ""));
-        
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+
+        return errorResponses.invalidUrl(ex.getMessage(), path(request));
     }
 
     @ExceptionHandler(UrlNotFoundException.class)
-    public ResponseEntity<Object> handleUrlNotFoundException(
+    public ResponseEntity<byte[]> handleUrlNotFoundException(
             UrlNotFoundException ex, WebRequest request) {
-        
-        log.error("URL not found: {}", ex.getMessage());
-        
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.NOT_FOUND.value());
-        body.put("error", "Not Found");
-        body.put("message", ex.getMessage());
-        body.put("path", request.getDescription(false).replace("uri=", ""));
-        
-        return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
+
+        return errorResponses.notFound(ex.getMessage(), path(request));
     }
 
     @ExceptionHandler(UrlGenerationException.class)
-    public ResponseEntity<Object> handleUrlGenerationException(
+    public ResponseEntity<byte[]> handleUrlGenerationException(
             UrlGenerationException ex, WebRequest request) {
-        
+
         log.error("URL generation error: {}", ex.getMessage(), ex);
-        
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        body.put("error", "Internal Server Error");
-        body.put("message", "Failed to generate shortened URL. Please try again.");
-        body.put("path", request.getDescription(false).replace("uri=", ""));
-        
-        return new ResponseEntity<>(body, HttpStatus.INTERNAL_SERVER_ERROR);
+        return errorResponses.generationFailed(path(request));
+    }
+
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<byte[]> handleServiceBusyException(
+            ServiceBusyException ex, WebRequest request) {
+
+        log.warn("Service busy: {}", ex.getMessage());
+        return errorResponses.busy(path(request));
+    }
+
+    /**
+     * A transaction that could not get a connection permit (DatabaseConcurrencyLimiter) is a 503, not a 500
+     */
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<byte[]> handleCannotCreateTransactionException(
+            CannotCreateTransactionException ex, WebRequest request) {
+
+        if (ex.getRootCause() instanceof ServiceBusyException busy) {
+            return handleServiceBusyException(busy, request);
+        }
+        return handleGlobalException(ex, request);
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Object> handleGlobalException(
+    public ResponseEntity<byte[]> handleGlobalException(
             Exception ex, WebRequest request) {
-        
+
         log.error("Unexpected error occurred: {}", ex.getMessage(), ex);
-        
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        body.put("error", "Internal Server Error");
-        body.put("message", "An unexpected error occurred. Please try again later.");
-        body.put("path", request.getDescription(false).replace("uri=", ""));
-        
-        return new ResponseEntity<>(body, HttpStatus.INTERNAL_SERVER_ERROR);
+        return errorResponses.unexpected(path(request));
+    }
+
+    private static String path(WebRequest request) {
+        return request.getDescription(false).replace("uri=", "");
     }
 }
@@ -1,11 +1,14 @@
 package com.example.miniURL.exception;
 
+/**
+ * A client error answered with 400, so it carries no stack trace
+ */
 public class InvalidUrlException extends RuntimeException {
     public InvalidUrlException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
     
     public InvalidUrlException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 }
@@ -0,0 +1,74 @@
+package com.example.miniURL.exception;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * GlobalExceptionHandler for the reactive variant: same statuses, response bodies and counts
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveExceptionHandler {
+
+    private final ErrorResponses errorResponses;
+
+    @ExceptionHandler(InvalidUrlException.class)
+    public ResponseEntity<byte[]> handleInvalidUrlException(
+            InvalidUrlException ex, ServerWebExchange exchange) {
+
+        return errorResponses.invalidUrl(ex.getMessage(), path(exchange));
+    }
+
+    @ExceptionHandler(UrlNotFoundException.class)
+    public ResponseEntity<byte[]> handleUrlNotFoundException(
+            UrlNotFoundException ex, ServerWebExchange exchange) {
+
+        return errorResponses.notFound(ex.getMessage(), path(exchange));
+    }
+
+    @ExceptionHandler(UrlGenerationException.class)
+    public ResponseEntity<byte[]> handleUrlGenerationException(
+            UrlGenerationException ex, ServerWebExchange exchange) {
+
+        log.error("URL generation error: {}", ex.getMessage(), ex);
+        return errorResponses.generationFailed(path(exchange));
+    }
+
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<byte[]> handleServiceBusyException(
+            ServiceBusyException ex, ServerWebExchange exchange) {
+
+        log.warn("Service busy: {}", ex.getMessage());
+        return errorResponses.busy(path(exchange));
+    }
+
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<byte[]> handleCannotCreateTransactionException(
+            CannotCreateTransactionException ex, ServerWebExchange exchange) {
+
+        if (ex.getRootCause() instanceof ServiceBusyException busy) {
+            return handleServiceBusyException(busy, exchange);
+        }
+        return handleGlobalException(ex, exchange);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<byte[]> handleGlobalException(
+            Exception ex, ServerWebExchange exchange) {
+
+        log.error("Unexpected error occurred: {}", ex.getMessage(), ex);
+        return errorResponses.unexpected(path(exchange));
+    }
+
+    private static String path(ServerWebExchange exchange) {
+        return exchange.getRequest().getPath().value();
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.miniURL.exception;
 
+/**
+ * Thrown for every unknown code a scanner tries, so it carries no stack trace (the handler
+ * never logs one); the redirect route itself answers 404 without throwing
+ */
 public class UrlNotFoundException extends RuntimeException {
     public UrlNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
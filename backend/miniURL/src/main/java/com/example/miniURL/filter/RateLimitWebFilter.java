@@ -0,0 +1,103 @@
+package com.example.miniURL.filter;
+
+import com.example.miniURL.config.RateLimitConfig;
+import com.example.miniURL.util.LogSampler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RateLimitInterceptor for the reactive variant: same buckets, headers and 429 body
+ *
+ * Like the interceptor (which only sees MVC handlers), actuator endpoints are not limited.
+ *
+ * With a database-backed bucket store (jdbc, hybrid) consuming a token can wait on JDBC, so it
+ * runs on the bounded-elastic scheduler instead of the Netty event loop. The in-memory store
+ * stays inline: it never blocks, and a thread hop would cost more than the check itself.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitWebFilter implements WebFilter {
+
+    private final RateLimitConfig rateLimitConfig;
+    private final LogSampler logSampler;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        PathContainer pathWithinApplication = request.getPath().pathWithinApplication();
+        String path = pathWithinApplication.value();
+        if (path.startsWith("/actuator")) {
+            return chain.filter(exchange);
+        }
+
+        String clientIp = getClientIP(request);
+        // Limit of the policy configured for this path (miniurl.rate-limit.policies)
+        if (rateLimitConfig.blocking()) {
+            return Mono.fromCallable(() -> rateLimitConfig.tryConsume(pathWithinApplication, clientIp))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(result -> apply(result, exchange, chain, path, clientIp));
+        }
+        return apply(rateLimitConfig.tryConsume(pathWithinApplication, clientIp), exchange, chain, path, clientIp);
+    }
+
+    private Mono<Void> apply(long result, ServerWebExchange exchange, WebFilterChain chain,
+                             String path, String clientIp) {
+        if (result == RateLimitConfig.NOT_LIMITED) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponse response = exchange.getResponse();
+
+        if (result >= 0) {
+            // Request allowed
+            response.getHeaders().add("X-Rate-Limit-Remaining", String.valueOf(result));
+            return chain.filter(exchange);
+        }
+
+        // Rate limit exceeded
+        long waitForRefill = RateLimitConfig.nanosToRetry(result) / 1_000_000_000;
+
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().add("X-Rate-Limit-Retry-After-Seconds", String.valueOf(waitForRefill));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer body = response.bufferFactory().wrap(String.format(
+                "{\"error\": \"Too many requests\", \"message\": \"Rate limit exceeded. Please try again in %d seconds.\"}",
+                waitForRefill
+        ).getBytes(StandardCharsets.UTF_8));
+
+        if (logSampler.sample()) {
+            log.warn("Rate limit exceeded for IP: {} on path: {} (1 in {} logged)", clientIp, path, logSampler.every());
+        }
+        return response.writeWith(Mono.just(body));
+    }
+
+    /**
+     * Extracts client IP address, handling proxies
+     */
+    private String getClientIP(ServerHttpRequest request) {
+        String xfHeader = request.getHeaders().getFirst("X-Forwarded-For");
+        if (xfHeader != null) {
+            int comma = xfHeader.indexOf(',');
+            return comma < 0 ? xfHeader : xfHeader.substring(0, comma);
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress == null ? "unknown" : remoteAddress.getAddress().getHostAddress();
+    }
+}
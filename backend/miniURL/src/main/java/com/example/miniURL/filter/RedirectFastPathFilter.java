@@ -0,0 +1,135 @@
+package com.example.miniURL.filter;
+
+import com.example.miniURL.config.TieredUrlCache;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.interceptor.RateLimitInterceptor;
+import com.example.miniURL.service.ClickAnalytics;
+import com.example.miniURL.service.ClickCounter;
+import com.example.miniURL.service.HotCodeTracker;
+import com.example.miniURL.service.RequestMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves cached redirects before the request reaches Spring MVC
+ *
+ * For GET/HEAD /{8 base62 chars} whose URL is already in urlCache, the filter applies the
+ * rate limit and writes the 301 itself: no handler mapping, argument resolution,
+ * ResponseEntity or URI parsing. The path is parsed in place and the Location value is the
+ * cached URI's own (ASCII) string, so a hit allocates next to nothing.
+ *
+ * Everything else - other routes, cache misses, unknown codes, CORS requests - goes down
+ * the normal filter chain to UrlController, which loads and caches the URL.
+ * Enabled with miniurl.redirect.fast-path.enabled=true.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "miniurl.redirect.fast-path.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)  // after the observation filter, so http.server.requests still counts hits
+@RequiredArgsConstructor
+public class RedirectFastPathFilter implements Filter, MeterBinder {
+
+    private static final int CODE_PATH_LENGTH = 1 + ShortCode.LENGTH;
+
+    private final TieredUrlCache urlCache;
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final Optional<ClickCounter> clickCounter;
+    private final Optional<HotCodeTracker> hotCodeTracker;
+    private final Optional<ClickAnalytics> clickAnalytics;
+    private final RequestMetrics requestMetrics;
+
+    private final LongAdder served = new LongAdder();
+    private final LongAdder passedOn = new LongAdder();
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+
+        long start = System.nanoTime();
+        ShortCode code = cachedCode(request);
+        URI cached = code == null ? null : urlCache.get(code, URI.class);
+        if (cached == null) {
+            passedOn.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+
+        try {
+            if (!rateLimitInterceptor.preHandle(request, response, this)) {
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+        // A 429 is not a redirect, as in UrlController (the interceptor rejects before it runs)
+        served.increment();
+        requestMetrics.recordRedirect(true, start);
+        clickCounter.ifPresent(counter -> counter.increment(code));
+        hotCodeTracker.ifPresent(tracker -> tracker.record(code));
+        clickAnalytics.ifPresent(analytics -> analytics.record(code,
+                RateLimitInterceptor.getClientIP(request), request.getHeader(HttpHeaders.USER_AGENT)));
+        response.setStatus(HttpServletResponse.SC_MOVED_PERMANENTLY);
+        response.setHeader(HttpHeaders.LOCATION, cached.toASCIIString());
+        response.setContentLength(0);
+    }
+
+    /**
+     * @return the code if this request is a plain redirect we can answer, otherwise null
+     */
+    private ShortCode cachedCode(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return null;
+        }
+        String uri = request.getRequestURI();
+        int start = request.getContextPath().length();
+        if (uri.length() - start != CODE_PATH_LENGTH || uri.charAt(start) != '/') {
+            return null;
+        }
+        // Cross-origin fetches need the CORS headers MVC adds
+        if (request.getHeader(HttpHeaders.ORIGIN) != null) {
+            return null;
+        }
+        long codeValue = ShortCode.parse(uri, start + 1);
+        if (codeValue < 0) {
+            return null;
+        }
+        return new ShortCode(codeValue);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("miniurl.redirect.fastpath", served, LongAdder::sum)
+                .tag("result", "served")
+                .description("Redirects answered by the fast-path filter from the cache")
+                .register(registry);
+        FunctionCounter.builder("miniurl.redirect.fastpath", passedOn, LongAdder::sum)
+                .tag("result", "passed-on")
+                .description("Requests handed on to Spring MVC")
+                .register(registry);
+    }
+}
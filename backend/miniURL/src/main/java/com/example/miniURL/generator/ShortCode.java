@@ -0,0 +1,95 @@
+package com.example.miniURL.generator;
+
+/**
+ * A short code packed into a long: the 8 base62 characters read as a base-62 number
+ *
+ * 62^8 < 2^48, so every code fits in 48 bits and the mapping is lossless both ways.
+ * Used instead of the String form as cache key, index column (code_value) and lookup key:
+ * - equals/hashCode are a single long compare/mix instead of a char-by-char walk
+ * - parse() reads the characters without allocating anything
+ *
+ * Alphabet: 0-9, A-Z, a-z (also covers the legacy random alphanumeric codes).
+ */
+public record ShortCode(long value) {
+
+    public static final int LENGTH = 8;
+
+    /** 62^8 = 218,340,105,584,896 possible codes */
+    public static final long SPACE = 218_340_105_584_896L;
+
+    private static final char[] ALPHABET =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    public ShortCode {
+        if (value < 0 || value >= SPACE) {
+            throw new IllegalArgumentException("Short code value out of range: " + value);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not 8 base62 characters
+     */
+    public static ShortCode of(CharSequence text) {
+        long value = parse(text);
+        if (value < 0) {
+            throw new IllegalArgumentException("Not a short code: " + text);
+        }
+        return new ShortCode(value);
+    }
+
+    /**
+     * Allocation-free parse
+     *
+     * @return the packed value, or -1 if the text is not 8 base62 characters
+     */
+    public static long parse(CharSequence text) {
+        if (text == null || text.length() != LENGTH) {
+            return -1;
+        }
+        return parse(text, 0);
+    }
+
+    /**
+     * Parses the 8 characters starting at offset (e.g. a request URI after its leading '/')
+     *
+     * @return the packed value, or -1 if they are not base62 characters
+     */
+    public static long parse(CharSequence text, int offset) {
+        if (offset < 0 || text.length() - offset < LENGTH) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = offset; i < offset + LENGTH; i++) {
+            int digit = digitOf(text.charAt(i));
+            if (digit < 0) {
+                return -1;
+            }
+            value = value * 62 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Writes a packed value in [0, SPACE) as its 8 characters
+     */
+    public static String format(long value) {
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value % 62)];
+            value /= 62;
+        }
+        return new String(chars);
+    }
+
+    private static int digitOf(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 10;
+        if (c >= 'a' && c <= 'z') return c - 'a' + 36;
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return format(value);
+    }
+}
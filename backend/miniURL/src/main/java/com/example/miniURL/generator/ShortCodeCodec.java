@@ -0,0 +1,117 @@
+package com.example.miniURL.generator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns sequential numeric ids into 8-character base62 short codes and back
+ *
+ * How it works:
+ * - The id is scrambled with a keyed 4-round Feistel network over 48 bits
+ * - Results outside the base62 keyspace (62^8) are fed back in ("cycle walking")
+ * - The scrambled value is written as exactly 8 base62 characters
+ *
+ * Because every step is a bijection, distinct ids always give distinct codes
+ * (no collisions), while consecutive ids look unrelated (codes stay non-guessable
+ * as long as miniurl.shortcode.secret is kept private).
+ */
+@Component
+public class ShortCodeCodec {
+
+    public static final int CODE_LENGTH = ShortCode.LENGTH;
+
+    public static final long CODE_SPACE = ShortCode.SPACE;
+
+    private static final int HALF_BITS = 24;
+    private static final long HALF_MASK = (1L << HALF_BITS) - 1;
+    private static final int ROUNDS = 4;
+
+    private final int[] roundKeys = new int[ROUNDS];
+
+    public ShortCodeCodec(@Value("${miniurl.shortcode.secret:miniurl}") String secret) {
+        // Derive independent round keys from the configured secret
+        long seed = 0x9E3779B97F4A7C15L;
+        for (byte b : secret.getBytes(StandardCharsets.UTF_8)) {
+            seed = mix64(seed ^ (b & 0xFF));
+        }
+        for (int i = 0; i < ROUNDS; i++) {
+            seed = mix64(seed + 0x9E3779B97F4A7C15L);
+            roundKeys[i] = (int) seed;
+        }
+    }
+
+    /**
+     * Encodes an id in [0, CODE_SPACE) into its 8-character short code
+     */
+    public String encode(long id) {
+        return ShortCode.format(encodeValue(id));
+    }
+
+    /**
+     * Same as encode, but returns the packed code (see ShortCode) instead of its characters
+     */
+    public long encodeValue(long id) {
+        if (id < 0 || id >= CODE_SPACE) {
+            throw new IllegalArgumentException("Id out of short code range: " + id);
+        }
+        long value = id;
+        do {
+            value = permute(value);
+        } while (value >= CODE_SPACE);
+        return value;
+    }
+
+    /**
+     * Recovers the id behind a short code, or -1 if the code is not 8 base62 characters
+     */
+    public long decode(String shortCode) {
+        long value = ShortCode.parse(shortCode);
+        if (value < 0) {
+            return -1;
+        }
+        do {
+            value = unpermute(value);
+        } while (value >= CODE_SPACE);
+        return value;
+    }
+
+    private long permute(long value) {
+        long left = (value >>> HALF_BITS) & HALF_MASK;
+        long right = value & HALF_MASK;
+        for (int i = 0; i < ROUNDS; i++) {
+            long next = left ^ round(right, roundKeys[i]);
+            left = right;
+            right = next;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private long unpermute(long value) {
+        long left = (value >>> HALF_BITS) & HALF_MASK;
+        long right = value & HALF_MASK;
+        for (int i = ROUNDS - 1; i >= 0; i--) {
+            long previous = right ^ round(left, roundKeys[i]);
+            right = left;
+            left = previous;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private static long round(long half, int key) {
+        int h = (int) half ^ key;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h & HALF_MASK;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.miniURL.generator;
+
+/**
+ * Source of unique ids for newly shortened URLs
+ *
+ * The id becomes UrlEntity.id and, scrambled by ShortCodeCodec, the short code.
+ * Implementations must never hand out the same id twice, so that shortening
+ * is a single INSERT without a collision/retry path.
+ *
+ * Selected with miniurl.shortcode.generator:
+ * - block (default): ranges leased from a database sequence row
+ * - snowflake: time + node + counter, no database coordination at all
+ */
+public interface ShortCodeGenerator {
+
+    /**
+     * Allocates the next unused id, always in [0, ShortCodeCodec.CODE_SPACE)
+     *
+     * @throws com.example.miniURL.exception.UrlGenerationException if no id can be allocated
+     */
+    long nextId();
+}
@@ -1,12 +1,13 @@
 package com.example.miniURL.interceptor;
 
 import com.example.miniURL.config.RateLimitConfig;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.ConsumptionProbe;
+import com.example.miniURL.util.LogSampler;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
@@ -18,36 +19,38 @@ import org.springframework.web.servlet.HandlerInterceptor;
  * Adds rate limit headers to response for client awareness
  */
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 @Slf4j
 public class RateLimitInterceptor implements HandlerInterceptor {
 
     private final RateLimitConfig rateLimitConfig;
+    private final LogSampler logSampler;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         
+        // Async results (streamed/deferred responses) are dispatched a second time - already counted
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+
         String clientIp = getClientIP(request);
         String path = request.getRequestURI();
         
-        Bucket bucket;
-        
-        // Different limits for different endpoints
-        if (path.equals("/shorten")) {
-            bucket = rateLimitConfig.resolveShorteningBucket(clientIp);
-        } else {
-            bucket = rateLimitConfig.resolveRedirectBucket(clientIp);
+        // Limit of the policy configured for this path (miniurl.rate-limit.policies)
+        long result = rateLimitConfig.tryConsume(path, clientIp);
+        if (result == RateLimitConfig.NOT_LIMITED) {
+            return true;
         }
         
-        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
-        
-        if (probe.isConsumed()) {
+        if (result >= 0) {
             // Request allowed
-            response.addHeader("X-Rate-Limit-Remaining", String.valueOf(probe.getRemainingTokens()));
+            response.addHeader("X-Rate-Limit-Remaining", String.valueOf(result));
             return true;
         } else {
             // Rate limit exceeded
-            long waitForRefill = probe.getNanosToWaitForRefill() / 1_000_000_000;
+            long waitForRefill = RateLimitConfig.nanosToRetry(result) / 1_000_000_000;
             
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             response.addHeader("X-Rate-Limit-Retry-After-Seconds", String.valueOf(waitForRefill));
@@ -56,7 +59,10 @@ public class RateLimitInterceptor implements HandlerInterceptor {
                 waitForRefill
             ));
             
-            log.warn("Rate limit exceeded for IP: {} on path: {}", clientIp, path);
+            // A flood is exactly when one line per request would hurt most
+            if (logSampler.sample()) {
+                log.warn("Rate limit exceeded for IP: {} on path: {} (1 in {} logged)", clientIp, path, logSampler.every());
+            }
             return false;
         }
     }
@@ -64,11 +70,12 @@ public class RateLimitInterceptor implements HandlerInterceptor {
     /**
      * Extracts client IP address, handling proxies
      */
-    private String getClientIP(HttpServletRequest request) {
+    public static String getClientIP(HttpServletRequest request) {
         String xfHeader = request.getHeader("X-Forwarded-For");
         if (xfHeader == null) {
             return request.getRemoteAddr();
         }
-        return xfHeader.split(",")[0];
+        int comma = xfHeader.indexOf(',');
+        return comma < 0 ? xfHeader : xfHeader.substring(0, comma);
     }
 }
@@ -0,0 +1,12 @@
+package com.example.miniURL.repository;
+
+import com.example.miniURL.entity.ClickAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ClickAggregateRepository extends JpaRepository<ClickAggregate, ClickAggregate.Key>, ClickAggregateUpsert {
+
+    @Query("select coalesce(sum(c.clicks), 0) from ClickAggregate c where c.codeValue = :codeValue")
+    long sumClicks(@Param("codeValue") long codeValue);
+}
@@ -0,0 +1,14 @@
+package com.example.miniURL.repository;
+
+import com.example.miniURL.entity.ClickAggregate;
+
+import java.util.Collection;
+
+public interface ClickAggregateUpsert {
+
+    /**
+     * Adds each row's clicks to the stored row with the same key, creating it if missing,
+     * in JDBC batches
+     */
+    void addClicks(Collection<ClickAggregate> deltas);
+}
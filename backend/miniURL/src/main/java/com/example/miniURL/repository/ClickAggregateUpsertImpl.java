@@ -0,0 +1,45 @@
+package com.example.miniURL.repository;
+
+import com.example.miniURL.entity.ClickAggregate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Standard SQL MERGE, as UrlClickStatsUpsertImpl: concurrent flushes from several workers or
+ * nodes add to the same row instead of each inserting their own
+ */
+@RequiredArgsConstructor
+class ClickAggregateUpsertImpl implements ClickAggregateUpsert {
+
+    private static final String MERGE = """
+            merge into click_aggregate a
+            using (values (cast(? as bigint), cast(? as date), cast(? as varchar(2)), cast(? as varchar(64)),
+                           cast(? as varchar(32)), cast(? as varchar(32)), cast(? as bigint)))
+                as d (code_value, click_date, country, city, browser, os, clicks)
+            on a.code_value = d.code_value and a.click_date = d.click_date and a.country = d.country
+                and a.city = d.city and a.browser = d.browser and a.os = d.os
+            when matched then update set clicks = a.clicks + d.clicks
+            when not matched then insert (code_value, click_date, country, city, browser, os, clicks)
+                values (d.code_value, d.click_date, d.country, d.city, d.browser, d.os, d.clicks)""";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void addClicks(Collection<ClickAggregate> deltas) {
+        jdbcTemplate.batchUpdate(MERGE, deltas, BATCH_SIZE, (statement, delta) -> {
+            statement.setLong(1, delta.getCodeValue());
+            statement.setObject(2, delta.getClickDate());
+            statement.setString(3, delta.getCountry());
+            statement.setString(4, delta.getCity());
+            statement.setString(5, delta.getBrowser());
+            statement.setString(6, delta.getOs());
+            statement.setLong(7, delta.getClicks());
+        });
+    }
+}
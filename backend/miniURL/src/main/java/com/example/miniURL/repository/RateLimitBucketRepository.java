@@ -0,0 +1,43 @@
+package com.example.miniURL.repository;
+
+import com.example.miniURL.entity.RateLimitBucketState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface RateLimitBucketRepository extends JpaRepository<RateLimitBucketState, String> {
+
+    interface Snapshot {
+        byte[] getState();
+
+        long getVersion();
+    }
+
+    // A projection, not the entity: always read from the database, never from a persistence context
+    @Query("select b.state as state, b.version as version from RateLimitBucketState b where b.id = :id")
+    Optional<Snapshot> findSnapshot(@Param("id") String id);
+
+    // Fails with a duplicate key when another node created the bucket first
+    @Transactional
+    @Modifying
+    @Query(value = "insert into rate_limit_bucket (id, state, version, expires_at) values (:id, :state, 0, :expiresAt)",
+            nativeQuery = true)
+    int insert(@Param("id") String id, @Param("state") byte[] state, @Param("expiresAt") long expiresAt);
+
+    // Compare-and-swap: 0 rows when another node updated the bucket since it was read
+    @Transactional
+    @Modifying
+    @Query("update RateLimitBucketState b set b.state = :state, b.version = b.version + 1, b.expiresAt = :expiresAt "
+            + "where b.id = :id and b.version = :version")
+    int compareAndSet(@Param("id") String id, @Param("version") long version,
+                      @Param("state") byte[] state, @Param("expiresAt") long expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RateLimitBucketState b where b.expiresAt < :now")
+    int deleteExpired(@Param("now") long now);
+}
@@ -0,0 +1,38 @@
+package com.example.miniURL.repository;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking (R2DBC) counterpart of the UrlRepository lookups used by redirects
+ *
+ * Only exists in the reactive variant. Writes still go through JPA (UrlService), so both
+ * variants share the schema Hibernate maintains for UrlEntity.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUrlRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveUrlRepository(ConnectionFactory connectionFactory) {
+        this.databaseClient = DatabaseClient.create(connectionFactory);
+    }
+
+    public Mono<String> findMainUrlByCodeValue(long codeValue) {
+        return databaseClient.sql("SELECT main_url FROM url_entity WHERE code_value = :codeValue")
+                .bind("codeValue", codeValue)
+                .map(row -> row.get("main_url", String.class))
+                .one();
+    }
+
+    public Mono<String> findMainUrlByShortCode(String shortCode) {
+        return databaseClient.sql("SELECT main_url FROM url_entity WHERE short_code = :shortCode")
+                .bind("shortCode", shortCode)
+                .map(row -> row.get("main_url", String.class))
+                .one();
+    }
+}
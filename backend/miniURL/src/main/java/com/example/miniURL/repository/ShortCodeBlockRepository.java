@@ -0,0 +1,24 @@
+package com.example.miniURL.repository;
+
+import com.example.miniURL.entity.ShortCodeBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ShortCodeBlockRepository extends JpaRepository<ShortCodeBlock, String> {
+
+    // The UPDATE row lock makes concurrent leases from other nodes wait for our commit
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ShortCodeBlock b set b.nextValue = b.nextValue + :blockSize where b.name = :name")
+    int advance(@Param("name") String name, @Param("blockSize") long blockSize);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ShortCodeBlock b set b.nextValue = :nextValue where b.name = :name")
+    int reset(@Param("name") String name, @Param("nextValue") long nextValue);
+
+    @Query("select b.nextValue from ShortCodeBlock b where b.name = :name")
+    Optional<Long> findNextValue(@Param("name") String name);
+}
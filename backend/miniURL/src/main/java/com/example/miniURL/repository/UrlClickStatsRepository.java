@@ -0,0 +1,28 @@
+package com.example.miniURL.repository;
+
+import com.example.miniURL.entity.UrlClickStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface UrlClickStatsRepository extends JpaRepository<UrlClickStats, UrlClickStats.Key>, UrlClickStatsUpsert {
+
+    @Query("select coalesce(sum(s.clicks), 0) from UrlClickStats s"
+            + " where s.codeValue = :codeValue and s.granularity = com.example.miniURL.entity.UrlClickStats.Granularity.HOUR")
+    long totalClicks(@Param("codeValue") long codeValue);
+
+    @Query("select s from UrlClickStats s where s.codeValue = :codeValue and s.granularity = :granularity"
+            + " and s.bucketStart >= :since order by s.bucketStart")
+    List<UrlClickStats> findSince(@Param("codeValue") long codeValue,
+                                  @Param("granularity") UrlClickStats.Granularity granularity,
+                                  @Param("since") long since);
+
+    @Transactional
+    @Modifying
+    @Query("delete from UrlClickStats s where s.granularity = :granularity and s.bucketStart < :before")
+    int deleteBefore(@Param("granularity") UrlClickStats.Granularity granularity, @Param("before") long before);
+}
@@ -0,0 +1,14 @@
+package com.example.miniURL.repository;
+
+import com.example.miniURL.entity.UrlClickStats;
+
+import java.util.Collection;
+
+public interface UrlClickStatsUpsert {
+
+    /**
+     * Adds each row's clicks to the stored row with the same key, creating it if missing,
+     * in JDBC batches
+     */
+    void addClicks(Collection<UrlClickStats> deltas);
+}
@@ -0,0 +1,40 @@
+package com.example.miniURL.repository;
+
+import com.example.miniURL.entity.UrlClickStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Standard SQL MERGE (PostgreSQL 15+, H2): one statement per row whatever exists already,
+ * so concurrent flushes from several nodes add up instead of overwriting each other
+ */
+@RequiredArgsConstructor
+class UrlClickStatsUpsertImpl implements UrlClickStatsUpsert {
+
+    private static final String MERGE = """
+            merge into url_click_stats s
+            using (values (cast(? as bigint), cast(? as varchar(6)), cast(? as bigint), cast(? as bigint)))
+                as d (code_value, granularity, bucket_start, clicks)
+            on s.code_value = d.code_value and s.granularity = d.granularity and s.bucket_start = d.bucket_start
+            when matched then update set clicks = s.clicks + d.clicks
+            when not matched then insert (code_value, granularity, bucket_start, clicks)
+                values (d.code_value, d.granularity, d.bucket_start, d.clicks)""";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void addClicks(Collection<UrlClickStats> deltas) {
+        jdbcTemplate.batchUpdate(MERGE, deltas, BATCH_SIZE, (statement, delta) -> {
+            statement.setLong(1, delta.getCodeValue());
+            statement.setString(2, delta.getGranularity().name());
+            statement.setLong(3, delta.getBucketStart());
+            statement.setLong(4, delta.getClicks());
+        });
+    }
+}
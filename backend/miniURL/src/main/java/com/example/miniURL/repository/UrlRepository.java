@@ -1,11 +1,54 @@
 package com.example.miniURL.repository;
 
 import com.example.miniURL.entity.UrlEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface UrlRepository extends JpaRepository<UrlEntity, Long> {
     Optional<UrlEntity> findByShortCode(String shortCode);
 
+    @Query("select u.mainUrl from UrlEntity u where u.codeValue = :codeValue")
+    Optional<String> findMainUrlByCodeValue(@Param("codeValue") long codeValue);
+
+    // Rows another replica is filling are skipped, not waited for (native: the PostgreSQL
+    // dialect's pessimistic lock is "for no key update", which H2 does not parse)
+    @Query(value = "select * from url_entity where code_value is null limit :limit for update skip locked",
+            nativeQuery = true)
+    List<UrlEntity> claimByCodeValueIsNull(@Param("limit") int limit);
+
+    boolean existsByCodeValueIsNull();
+
+    List<UrlEntity> findByUrlHash(long urlHash);
+
+    List<UrlEntity> findByUrlHashIn(Collection<Long> urlHashes);
+
+    // Streaming scans (must run inside a transaction); rows are fetched 1000 at a time
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.shortCode from UrlEntity u")
+    Stream<String> streamAllShortCodes();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.shortCode from UrlEntity u where u.createdAt >= :since")
+    Stream<String> streamShortCodesCreatedSince(@Param("since") LocalDateTime since);
+
+    // Paged reads without the count query a Page would need; order comes from the Pageable
+    @Query("select u from UrlEntity u")
+    Slice<UrlEntity> findSlice(Pageable pageable);
+
+    @Query("select coalesce(max(u.id), 0) from UrlEntity u")
+    long findMaxId();
+
 }
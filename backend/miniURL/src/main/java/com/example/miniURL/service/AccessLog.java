@@ -0,0 +1,245 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.util.Threads;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured access log, written off the request thread
+ *
+ * How it works:
+ * - A finished request adds one small entry to a lock-free queue and returns: no formatting,
+ *   no I/O. A full queue drops the entry (counted)
+ * - One writer thread encodes up to batch-size entries as NDJSON into a reused buffer and
+ *   appends them to the file in a single write
+ *
+ * One line per request, e.g.
+ *   {"ts":1767225600000,"method":"GET","path":"/abc12345","status":301,"micros":84,"ip":"10.0.0.1"}
+ *
+ * Enabled with miniurl.access-log.enabled=true. The file is appended to, never rotated:
+ * leave rotation to logrotate (copytruncate) or the platform's log shipper.
+ */
+@Component
+@ConditionalOnProperty(name = "miniurl.access-log.enabled", havingValue = "true")
+@Slf4j
+public class AccessLog implements MeterBinder {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private record Entry(long timestamp, String method, String path, int status, long micros, String clientIp) {
+    }
+
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() walks the queue; bounded by this instead
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int queueCapacity;
+    private final int batchSize;
+    private final Path path;
+    private final FileChannel file;
+    private final boolean virtualThreads;
+    private Thread writer;
+    private volatile boolean running = true;
+
+    // Only touched by the writer thread
+    private byte[] buffer = new byte[64 * 1024];
+    private int length;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+
+    public AccessLog(@Value("${miniurl.access-log.path:logs/access.ndjson}") Path path,
+                     @Value("${miniurl.access-log.queue-capacity:100000}") int queueCapacity,
+                     @Value("${miniurl.access-log.batch-size:1000}") int batchSize,
+                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) throws IOException {
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.path = path;
+        this.virtualThreads = virtualThreads;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer = Threads.builder("access-log", virtualThreads).start(this::writeLoop);
+        log.info("Access log: {}", path.toAbsolutePath());
+    }
+
+    /**
+     * Queues one request; never blocks
+     *
+     * @return false if the entry was dropped because the queue is full
+     */
+    public boolean record(long timestamp, String method, String path, int status, long micros, String clientIp) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        queue.offer(new Entry(timestamp, method, path, status, micros, clientIp));
+        return true;
+    }
+
+    private void writeLoop() {
+        while (running || !queue.isEmpty()) {
+            int count = 0;
+            Entry entry;
+            while (count < batchSize && (entry = queue.poll()) != null) {
+                queued.decrementAndGet();
+                append(entry);
+                count++;
+            }
+            if (count == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, length);
+                while (bytes.hasRemaining()) {
+                    file.write(bytes);
+                }
+                written.add(count);
+            } catch (IOException e) {
+                writeFailures.increment();
+                log.warn("Failed to write {} access log entries: {}", count, e.getMessage());
+            }
+            length = 0;
+        }
+    }
+
+    private void append(Entry entry) {
+        ascii("{\"ts\":");
+        number(entry.timestamp());
+        ascii(",\"method\":");
+        string(entry.method());
+        ascii(",\"path\":");
+        string(entry.path());
+        ascii(",\"status\":");
+        number(entry.status());
+        ascii(",\"micros\":");
+        number(entry.micros());
+        ascii(",\"ip\":");
+        string(entry.clientIp());
+        ascii("}\n");
+    }
+
+    private void ascii(String text) {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer[length++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void number(long value) {
+        ensure(20);
+        if (value == 0) {
+            buffer[length++] = '0';
+            return;
+        }
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+        int start = length;
+        while (value > 0) {
+            buffer[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte digit = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = digit;
+        }
+    }
+
+    /**
+     * Request lines and IPs are ASCII; anything else is written as a \\u escape
+     */
+    private void string(String text) {
+        if (text == null) {
+            ascii("null");
+            return;
+        }
+        ensure(2 + 6 * text.length());
+        buffer[length++] = '"';
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                buffer[length++] = '\\';
+                buffer[length++] = (byte) c;
+            } else if (c >= 0x20 && c < 0x7f) {
+                buffer[length++] = (byte) c;
+            } else {
+                buffer[length++] = '\\';
+                buffer[length++] = 'u';
+                for (int shift = 12; shift >= 0; shift -= 4) {
+                    buffer[length++] = (byte) Character.forDigit((c >> shift) & 0xF, 16);
+                }
+            }
+        }
+        buffer[length++] = '"';
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("miniurl.accesslog.entries", written, LongAdder::sum)
+                .tag("result", "written")
+                .description("Requests written to the access log")
+                .register(registry);
+        FunctionCounter.builder("miniurl.accesslog.entries", dropped, LongAdder::sum)
+                .tag("result", "dropped")
+                .description("Requests not logged because the access log queue was full")
+                .register(registry);
+        FunctionCounter.builder("miniurl.accesslog.write.failures", writeFailures, LongAdder::sum)
+                .description("Batches of access log entries that could not be written")
+                .register(registry);
+        Gauge.builder("miniurl.accesslog.queue.depth", queued, AtomicInteger::get)
+                .description("Access log entries waiting to be written")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        // Stop accepting, write what is already queued
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        file.close();
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.dto.BatchShortenResultDto;
+import com.example.miniURL.dto.ShortenUrlRequestDto;
+import com.example.miniURL.entity.UrlEntity;
+import com.example.miniURL.repository.UrlRepository;
+import com.example.miniURL.util.UrlUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Shortens large numbers of URLs per request (import jobs)
+ *
+ * How it works:
+ * - Input is consumed as a stream and cut into chunks (default 500 URLs)
+ * - Each chunk is validated in parallel and gets its ids/codes pre-allocated
+ *   (or, in dedup mode, existing codes looked up with one query per chunk)
+ * - Each chunk is inserted in ONE transaction, sent as JDBC batches
+ * - Results are handed back per chunk, in input order
+ *
+ * A bad URL only fails its own entry; a failed chunk only fails its own entries.
+ */
+@Service
+@Slf4j
+public class BulkShortenService {
+
+    private final UrlService urlService;
+    private final UrlRepository urlRepository;
+    private final UrlUtils urlUtils;
+    private final Optional<UrlDeduplicator> urlDeduplicator;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final int maxUrls;
+
+    public BulkShortenService(UrlService urlService,
+                              UrlRepository urlRepository,
+                              UrlUtils urlUtils,
+                              Optional<UrlDeduplicator> urlDeduplicator,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${miniurl.batch.chunk-size:500}") int chunkSize,
+                              @Value("${miniurl.batch.max-urls:10000}") int maxUrls) {
+        this.urlService = urlService;
+        this.urlRepository = urlRepository;
+        this.urlUtils = urlUtils;
+        this.urlDeduplicator = urlDeduplicator;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxUrls = maxUrls;
+    }
+
+    /**
+     * Shortens every URL from the input, passing each chunk's results to the sink as soon as it is committed
+     *
+     * Input beyond miniurl.batch.max-urls is not read; a single error entry marks where it was cut off.
+     */
+    public void shortenAll(Iterator<ShortenUrlRequestDto> requests, Consumer<List<BatchShortenResultDto>> sink) {
+        int index = 0;
+        List<String> chunk = new ArrayList<>(chunkSize);
+
+        while (requests.hasNext()) {
+            if (index == maxUrls) {
+                sink.accept(List.of(BatchShortenResultDto.builder()
+                        .index(index)
+                        .error("Batch limit of " + maxUrls + " URLs exceeded; remaining input was ignored")
+                        .build()));
+                return;
+            }
+            ShortenUrlRequestDto request = requests.next();
+            chunk.add(request == null ? null : request.getUrl());
+            index++;
+
+            if (chunk.size() == chunkSize) {
+                sink.accept(processChunk(index - chunk.size(), chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            sink.accept(processChunk(index - chunk.size(), chunk));
+        }
+    }
+
+    private List<BatchShortenResultDto> processChunk(int firstIndex, List<String> urls) {
+        int size = urls.size();
+
+        //validate in parallel, then allocate codes for the valid ones
+        boolean[] valid = new boolean[size];
+        IntStream.range(0, size).parallel().forEach(i -> valid[i] = urlUtils.isValid(urls.get(i)));
+
+        //reuse existing codes for URLs shortened before (dedup mode), including repeats within the chunk
+        Map<String, String> existing = Map.of();
+        Map<String, UrlEntity> createdInChunk = new HashMap<>();
+        if (urlDeduplicator.isPresent()) {
+            List<String> validUrls = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                if (valid[i]) {
+                    validUrls.add(urls.get(i));
+                }
+            }
+            existing = urlDeduplicator.get().findShortCodes(validUrls);
+        }
+
+        String[] shortCodes = new String[size];
+        boolean[] needsInsert = new boolean[size];
+        List<UrlEntity> toInsert = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (!valid[i]) {
+                continue;
+            }
+            String url = urls.get(i);
+            UrlEntity entity;
+            if (urlDeduplicator.isPresent()) {
+                String normalized = urlUtils.normalize(url);
+                shortCodes[i] = existing.get(normalized);
+                if (shortCodes[i] != null) {
+                    continue;
+                }
+                entity = createdInChunk.computeIfAbsent(normalized, n -> {
+                    UrlEntity created = urlService.newUrlEntity(url);
+                    toInsert.add(created);
+                    return created;
+                });
+            } else {
+                entity = urlService.newUrlEntity(url);
+                toInsert.add(entity);
+            }
+            shortCodes[i] = entity.getShortCode();
+            needsInsert[i] = true;
+        }
+
+        String chunkError = null;
+        if (!toInsert.isEmpty()) {
+            try {
+                chunkTransaction.executeWithoutResult(status -> {
+                    urlRepository.saveAll(toInsert);
+                    urlRepository.flush();
+                });
+            } catch (RuntimeException e) {
+                log.error("Failed to persist batch chunk starting at index {}: {}", firstIndex, e.getMessage());
+                chunkError = "Failed to persist URL. Please try again.";
+            }
+        }
+        if (chunkError == null) {
+            urlDeduplicator.ifPresent(dedup -> toInsert.forEach(dedup::remember));
+        }
+
+        List<BatchShortenResultDto> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            BatchShortenResultDto.BatchShortenResultDtoBuilder result = BatchShortenResultDto.builder()
+                    .index(firstIndex + i)
+                    .url(urls.get(i));
+            if (urls.get(i) == null) {
+                result.error("Missing or malformed url");
+            } else if (!valid[i]) {
+                result.error("Invalid URL format: " + urls.get(i));
+            } else if (needsInsert[i] && chunkError != null) {
+                result.error(chunkError);
+            } else {
+                result.shortCode(shortCodes[i]).shortUrl(urlService.toShortUrl(shortCodes[i]));
+            }
+            results.add(result.build());
+        }
+
+        log.info("Batch chunk [{}, {}) shortened: {} inserted", firstIndex, firstIndex + size,
+                chunkError == null ? toInsert.size() : 0);
+        return results;
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.entity.ClickAggregate;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.repository.ClickAggregateRepository;
+import com.example.miniURL.util.Threads;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Click analytics off the redirect path
+ *
+ * How it works:
+ * - A redirect appends (code, time, IP, User-Agent) to the batch of its stripe, picked by thread
+ *   id: a few array stores under a lock no other running thread is likely to hold. No shared
+ *   counter, no allocation, no I/O, no parsing
+ * - A full batch (handoff-size clicks) is handed to the workers in one lock-free queue operation;
+ *   a partly filled one is collected by the workers before each flush. Once queue-capacity clicks
+ *   are waiting, whole batches are dropped (counted) rather than slow redirects
+ * - Worker threads enrich clicks with country/city and browser/OS (ClickEnricher) and count
+ *   them per (code, day, country, city, browser, os)
+ * - Every flush-interval, or once batch-size combinations are pending, a worker adds its counts
+ *   to click_aggregate in one JDBC batch of MERGEs
+ *
+ * Enabled with miniurl.analytics.enabled=true; counts are lost if the node dies before a flush.
+ */
+@Component
+@ConditionalOnProperty(name = "miniurl.analytics.enabled", havingValue = "true")
+@Slf4j
+public class ClickAnalytics implements MeterBinder {
+
+    // Workers sleep this long when the queue is empty, so producers never have to wake them
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private record Dimensions(long codeValue, LocalDate day, String country, String city, String browser, String os) {
+    }
+
+    /**
+     * Clicks as parallel arrays, reused once the workers have counted them
+     */
+    private static final class Batch {
+
+        private final long[] codeValues;
+        private final long[] timestamps;
+        private final String[] ips;
+        private final String[] userAgents;
+        private int size;
+
+        Batch(int capacity) {
+            codeValues = new long[capacity];
+            timestamps = new long[capacity];
+            ips = new String[capacity];
+            userAgents = new String[capacity];
+        }
+
+        /**
+         * @return true once the batch is full
+         */
+        boolean add(long codeValue, long timestamp, String ip, String userAgent) {
+            codeValues[size] = codeValue;
+            timestamps[size] = timestamp;
+            ips[size] = ip;
+            userAgents[size] = userAgent;
+            return ++size == codeValues.length;
+        }
+
+        void clear() {
+            Arrays.fill(ips, 0, size, null);
+            Arrays.fill(userAgents, 0, size, null);
+            size = 0;
+        }
+    }
+
+    // The batch being filled by the threads of one stripe; guarded by the stripe
+    private static final class Stripe {
+        private Batch batch;
+    }
+
+    private final ClickAggregateRepository repository;
+    private final String geoDatabase;
+    private final ClickEnricher enricher;
+    private final Stripe[] stripes;
+    private final ConcurrentLinkedQueue<Batch> queue = new ConcurrentLinkedQueue<>();
+    // Empty batches to hand out again, so filling one never allocates
+    private final ConcurrentLinkedQueue<Batch> recycled = new ConcurrentLinkedQueue<>();
+    // Clicks in queued batches; ConcurrentLinkedQueue.size() walks the queue
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int handoffSize;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final int workerThreads;
+    private final boolean virtualThreads;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+
+    public ClickAnalytics(ClickAggregateRepository repository,
+                          @Value("${miniurl.analytics.geoip-database:}") String geoDatabase,
+                          @Value("${miniurl.analytics.lookup-cache-size:10000}") int lookupCacheSize,
+                          @Value("${miniurl.analytics.handoff-size:256}") int handoffSize,
+                          @Value("${miniurl.analytics.queue-capacity:100000}") int queueCapacity,
+                          @Value("${miniurl.analytics.batch-size:10000}") int batchSize,
+                          @Value("${miniurl.analytics.flush-interval:10s}") Duration flushInterval,
+                          @Value("${miniurl.analytics.workers:1}") int workerThreads,
+                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) throws IOException {
+        this.repository = repository;
+        this.geoDatabase = geoDatabase;
+        this.enricher = new ClickEnricher(geoDatabase, lookupCacheSize);
+        this.handoffSize = handoffSize;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.workerThreads = workerThreads;
+        this.virtualThreads = virtualThreads;
+
+        // A power of two, 4x the cores: threads running at the same time rarely share a stripe
+        this.stripes = new Stripe[Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+            stripes[i].batch = new Batch(handoffSize);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        for (int i = 0; i < workerThreads; i++) {
+            workers.add(Threads.builder("click-analytics-" + i, virtualThreads).start(this::workLoop));
+        }
+        log.info("Click analytics started: {} workers, {} stripes, flush every {}, GeoIP {}",
+                workerThreads, stripes.length, flushInterval, geoDatabase.isBlank() ? "off" : geoDatabase);
+    }
+
+    /**
+     * Records a redirect; never blocks
+     *
+     * @return false if the click was dropped because analytics is stopping or the queue is full
+     */
+    public boolean record(ShortCode shortCode, String clientIp, String userAgent) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        Stripe stripe = stripes[(int) Thread.currentThread().threadId() & (stripes.length - 1)];
+        Batch full = null;
+        synchronized (stripe) {
+            if (stripe.batch.add(shortCode.value(), System.currentTimeMillis(), clientIp, userAgent)) {
+                full = stripe.batch;
+                stripe.batch = emptyBatch();
+            }
+        }
+        return full == null || handOff(full);
+    }
+
+    private boolean handOff(Batch batch) {
+        int size = batch.size;
+        if (queued.addAndGet(size) > queueCapacity) {
+            queued.addAndGet(-size);
+            dropped.add(size);
+            recycle(batch);
+            return false;
+        }
+        queue.offer(batch);
+        recorded.add(size);
+        return true;
+    }
+
+    private Batch emptyBatch() {
+        Batch batch = recycled.poll();
+        return batch != null ? batch : new Batch(handoffSize);
+    }
+
+    private void recycle(Batch batch) {
+        batch.clear();
+        recycled.offer(batch);
+    }
+
+    private void workLoop() {
+        Map<Dimensions, long[]> counts = new HashMap<>();
+        long nextFlush = System.nanoTime() + flushInterval.toNanos();
+        while (running || !queue.isEmpty()) {
+            Batch batch = queue.poll();
+            if (batch != null) {
+                queued.addAndGet(-batch.size);
+                count(batch, counts);
+            }
+            boolean flushDue = System.nanoTime() - nextFlush >= 0;
+            if (flushDue) {
+                collectPartialBatches(counts);
+                nextFlush = System.nanoTime() + flushInterval.toNanos();
+            }
+            if (!counts.isEmpty() && (counts.size() >= batchSize || flushDue)) {
+                flush(counts);
+            }
+            if (batch == null && !flushDue) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        collectPartialBatches(counts);
+        if (!counts.isEmpty()) {
+            flush(counts);
+        }
+    }
+
+    /**
+     * Takes the clicks still sitting in stripes, so quiet stripes are counted every flush-interval
+     */
+    private void collectPartialBatches(Map<Dimensions, long[]> counts) {
+        for (Stripe stripe : stripes) {
+            Batch partial;
+            synchronized (stripe) {
+                if (stripe.batch.size == 0) {
+                    continue;
+                }
+                partial = stripe.batch;
+                stripe.batch = emptyBatch();
+            }
+            recorded.add(partial.size);
+            count(partial, counts);
+        }
+    }
+
+    private void count(Batch batch, Map<Dimensions, long[]> counts) {
+        for (int i = 0; i < batch.size; i++) {
+            try {
+                counts.computeIfAbsent(dimensions(batch.codeValues[i], batch.timestamps[i], batch.ips[i],
+                        batch.userAgents[i]), d -> new long[1])[0]++;
+            } catch (RuntimeException e) {
+                log.warn("Dropping click on {}: {}", batch.codeValues[i], e.getMessage());
+            }
+        }
+        recycle(batch);
+    }
+
+    private Dimensions dimensions(long codeValue, long timestamp, String ip, String userAgent) {
+        ClickEnricher.Location location = enricher.locate(ip);
+        ClickEnricher.Client client = enricher.identify(userAgent);
+        LocalDate day = LocalDate.ofEpochDay(Math.floorDiv(timestamp, TimeUnit.DAYS.toMillis(1)));
+        // Unknown location is stored as "": the columns are part of the key
+        return new Dimensions(codeValue, day, Objects.requireNonNullElse(location.country(), ""),
+                Objects.requireNonNullElse(location.city(), ""), client.browser(), client.os());
+    }
+
+    private void flush(Map<Dimensions, long[]> counts) {
+        List<ClickAggregate> rows = new ArrayList<>(counts.size());
+        counts.forEach((dimensions, count) -> {
+            ClickAggregate row = new ClickAggregate();
+            row.setCodeValue(dimensions.codeValue());
+            row.setClickDate(dimensions.day());
+            row.setCountry(dimensions.country());
+            row.setCity(dimensions.city());
+            row.setBrowser(dimensions.browser());
+            row.setOs(dimensions.os());
+            row.setClicks(count[0]);
+            rows.add(row);
+        });
+        try {
+            repository.addClicks(rows);
+            rowsWritten.add(rows.size());
+        } catch (RuntimeException e) {
+            // Analytics must never back up into redirects: drop this batch rather than retry forever
+            flushFailures.increment();
+            log.error("Failed to write {} click aggregates: {}", rows.size(), e.getMessage());
+        }
+        counts.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("miniurl.analytics.clicks", recorded, LongAdder::sum)
+                .tag("result", "recorded")
+                .description("Redirects handed to the click analytics workers")
+                .register(registry);
+        FunctionCounter.builder("miniurl.analytics.clicks", dropped, LongAdder::sum)
+                .tag("result", "dropped")
+                .description("Redirects not counted because the analytics queue was full")
+                .register(registry);
+        Gauge.builder("miniurl.analytics.queue.depth", queued, AtomicInteger::get)
+                .description("Clicks in full batches waiting to be enriched")
+                .register(registry);
+        FunctionCounter.builder("miniurl.analytics.rows", rowsWritten, LongAdder::sum)
+                .description("click_aggregate rows upserted")
+                .register(registry);
+        FunctionCounter.builder("miniurl.analytics.flush.failures", flushFailures, LongAdder::sum)
+                .description("Batches of click aggregates that could not be written")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException, IOException {
+        // Stop accepting, let workers enrich and write what is already queued or in stripes
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        enricher.close();
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.dto.ClickStatsDto;
+import com.example.miniURL.entity.UrlClickStats;
+import com.example.miniURL.entity.UrlClickStats.Granularity;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.repository.UrlClickStatsRepository;
+import com.example.miniURL.util.LongCountTable;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Click counts per short code, kept in memory and written in batches
+ *
+ * How it works:
+ * - A redirect adds 1 to its code in the current minute's table for its stripe (picked by
+ *   thread id, as in ClickAnalytics): primitive long keys and counts (LongCountTable), so no
+ *   boxing, no map node and no DB write per click. Threads running at the same time rarely
+ *   share a stripe, so clicks on one hot code do not queue on one lock
+ * - Every flush-interval the tables are drained and the counts upserted into url_click_stats,
+ *   into the minute row and the hour row it rolls up into (clicks += delta)
+ * - A minute's tables are dropped once the minute is over and fully flushed
+ *
+ * A failed flush keeps what it drained and retries it with the next one. Clicks not flushed yet are lost if the node
+ * dies; stats() adds them to what is stored, so they are visible right away.
+ */
+@Component
+@ConditionalOnProperty(name = "miniurl.click-stats.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ClickCounter implements MeterBinder {
+
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    // Codes a stripe's table is sized for up front; it doubles past that
+    private static final int EXPECTED_CODES_PER_STRIPE = 64;
+
+    /**
+     * Clicks per code in one minute; each table is guarded by its own monitor
+     */
+    private record Minute(long start, LongCountTable[] stripes) {
+
+        Minute(long start, int stripeCount) {
+            this(start, new LongCountTable[stripeCount]);
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new LongCountTable(EXPECTED_CODES_PER_STRIPE);
+            }
+        }
+
+        long count(long codeValue) {
+            long count = 0;
+            for (LongCountTable table : stripes) {
+                synchronized (table) {
+                    count += table.get(codeValue);
+                }
+            }
+            return count;
+        }
+
+        long pending() {
+            long pending = 0;
+            for (LongCountTable table : stripes) {
+                synchronized (table) {
+                    pending += table.total();
+                }
+            }
+            return pending;
+        }
+    }
+
+    private final UrlClickStatsRepository repository;
+    private final Duration flushInterval;
+    private final Duration minuteRetention;
+
+    // A power of two, 4x the cores
+    private final int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+    // Minutes still holding counts, oldest first; current is the last one
+    private final List<Minute> minutes = new CopyOnWriteArrayList<>();
+    private volatile Minute current;
+    // Drained from the tables but not written yet (a failed flush); guarded by this
+    private final Map<UrlClickStats.Key, long[]> unwritten = new HashMap<>();
+
+    private final LongAdder clicks = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "click-stats-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ClickCounter(UrlClickStatsRepository repository,
+                        @Value("${miniurl.click-stats.flush-interval:10s}") Duration flushInterval,
+                        @Value("${miniurl.click-stats.minute-retention:7d}") Duration minuteRetention) {
+        this.repository = repository;
+        this.flushInterval = flushInterval;
+        this.minuteRetention = minuteRetention;
+        long now = System.currentTimeMillis();
+        this.current = new Minute(now - now % MINUTE_MILLIS, stripeCount);
+        minutes.add(current);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void startFlushing() {
+        flusher.scheduleWithFixedDelay(this::flushQuietly,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        flusher.scheduleWithFixedDelay(this::deleteExpiredMinutes, 1, 60, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Counts one click on this code
+     */
+    public void increment(ShortCode shortCode) {
+        Minute minute = current;
+        long now = System.currentTimeMillis();
+        if (now - minute.start() >= MINUTE_MILLIS) {
+            minute = roll(now);
+        }
+        LongCountTable table = minute.stripes()[(int) Thread.currentThread().threadId() & (stripeCount - 1)];
+        synchronized (table) {
+            table.add(shortCode.value(), 1);
+        }
+        clicks.increment();
+    }
+
+    private synchronized Minute roll(long now) {
+        long start = now - now % MINUTE_MILLIS;
+        if (current.start() < start) {
+            current = new Minute(start, stripeCount);
+            minutes.add(current);
+        }
+        return current;
+    }
+
+    /**
+     * Writes the clicks counted since the last flush
+     */
+    public synchronized void flush() {
+        for (Minute minute : minutes) {
+            long hour = minute.start() - minute.start() % HOUR_MILLIS;
+            for (LongCountTable table : minute.stripes()) {
+                synchronized (table) {
+                    table.drain((code, delta) -> {
+                        unwritten.computeIfAbsent(new UrlClickStats.Key(code, Granularity.MINUTE, minute.start()), k -> new long[1])[0] += delta;
+                        unwritten.computeIfAbsent(new UrlClickStats.Key(code, Granularity.HOUR, hour), k -> new long[1])[0] += delta;
+                    });
+                }
+            }
+        }
+        if (!unwritten.isEmpty()) {
+            List<UrlClickStats> rows = new ArrayList<>(unwritten.size());
+            unwritten.forEach((key, delta) -> {
+                UrlClickStats row = new UrlClickStats();
+                row.setCodeValue(key.codeValue());
+                row.setGranularity(key.granularity());
+                row.setBucketStart(key.bucketStart());
+                row.setClicks(delta[0]);
+                rows.add(row);
+            });
+            repository.addClicks(rows);
+            unwritten.clear();
+            rowsWritten.add(rows.size());
+        }
+        retireMinutes();
+    }
+
+    /**
+     * Drops minutes that ended over a minute ago and have nothing left to flush; by then
+     * no redirect can still be incrementing them
+     */
+    private void retireMinutes() {
+        long cutoff = System.currentTimeMillis() - 2 * MINUTE_MILLIS;
+        for (Minute minute : minutes) {
+            if (minute != current && minute.start() < cutoff && minute.pending() == 0) {
+                minutes.remove(minute);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            flushFailures.increment();
+            log.warn("Click stats flush failed, retrying with the next one: {}", e.getMessage());
+        }
+    }
+
+    private void deleteExpiredMinutes() {
+        try {
+            int deleted = repository.deleteBefore(Granularity.MINUTE, System.currentTimeMillis() - minuteRetention.toMillis());
+            log.debug("Deleted {} expired per-minute click stats", deleted);
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete expired click stats: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stored counts plus the clicks not flushed yet
+     */
+    public ClickStatsDto stats(ShortCode shortCode) {
+        long now = System.currentTimeMillis();
+        long hourAgo = now - now % MINUTE_MILLIS - HOUR_MILLIS + MINUTE_MILLIS;
+        long dayAgo = now - now % HOUR_MILLIS - TimeUnit.DAYS.toMillis(1) + HOUR_MILLIS;
+
+        TreeMap<Long, Long> perMinute = new TreeMap<>();
+        TreeMap<Long, Long> perHour = new TreeMap<>();
+        repository.findSince(shortCode.value(), Granularity.MINUTE, hourAgo)
+                .forEach(row -> perMinute.merge(row.getBucketStart(), row.getClicks(), Long::sum));
+        repository.findSince(shortCode.value(), Granularity.HOUR, dayAgo)
+                .forEach(row -> perHour.merge(row.getBucketStart(), row.getClicks(), Long::sum));
+        long total = repository.totalClicks(shortCode.value());
+
+        for (Minute minute : minutes) {
+            long pending = minute.count(shortCode.value());
+            if (pending > 0) {
+                total += pending;
+                if (minute.start() >= hourAgo) {
+                    perMinute.merge(minute.start(), pending, Long::sum);
+                }
+                long hour = minute.start() - minute.start() % HOUR_MILLIS;
+                if (hour >= dayAgo) {
+                    perHour.merge(hour, pending, Long::sum);
+                }
+            }
+        }
+        // Drained by a flush that failed: each click has a minute and an hour key, total counts the hour
+        synchronized (this) {
+            for (Map.Entry<UrlClickStats.Key, long[]> entry : unwritten.entrySet()) {
+                UrlClickStats.Key key = entry.getKey();
+                long pending = entry.getValue()[0];
+                if (key.codeValue() != shortCode.value()) {
+                    continue;
+                }
+                if (key.granularity() == Granularity.HOUR) {
+                    total += pending;
+                    if (key.bucketStart() >= dayAgo) {
+                        perHour.merge(key.bucketStart(), pending, Long::sum);
+                    }
+                } else if (key.bucketStart() >= hourAgo) {
+                    perMinute.merge(key.bucketStart(), pending, Long::sum);
+                }
+            }
+        }
+        return ClickStatsDto.builder()
+                .shortCode(shortCode.toString())
+                .totalClicks(total)
+                .lastHour(toBuckets(perMinute))
+                .lastDay(toBuckets(perHour))
+                .build();
+    }
+
+    private static List<ClickStatsDto.Bucket> toBuckets(TreeMap<Long, Long> counts) {
+        List<ClickStatsDto.Bucket> buckets = new ArrayList<>(counts.size());
+        counts.forEach((start, count) -> buckets.add(new ClickStatsDto.Bucket(Instant.ofEpochMilli(start), count)));
+        return buckets;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("miniurl.clickstats.clicks", clicks, LongAdder::sum)
+                .description("Redirects counted")
+                .register(registry);
+        FunctionCounter.builder("miniurl.clickstats.rows", rowsWritten, LongAdder::sum)
+                .description("url_click_stats rows upserted")
+                .register(registry);
+        FunctionCounter.builder("miniurl.clickstats.flush.failures", flushFailures, LongAdder::sum)
+                .description("Flushes that failed and were left for the next one")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+        flushQuietly();
+    }
+}
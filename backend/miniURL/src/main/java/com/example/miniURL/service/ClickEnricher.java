@@ -0,0 +1,139 @@
+package com.example.miniURL.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.maxmind.db.CHMCache;
+import com.maxmind.geoip2.DatabaseReader;
+import com.maxmind.geoip2.exception.GeoIp2Exception;
+import com.maxmind.geoip2.model.AbstractCountryResponse;
+import com.maxmind.geoip2.model.CityResponse;
+import eu.bitwalker.useragentutils.UserAgent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Optional;
+
+/**
+ * Country/city from a local GeoLite2 database and browser/OS from the User-Agent
+ *
+ * The .mmdb file is memory-mapped (the OS page cache holds it, not the heap) and decoded
+ * records are cached by the reader; parsed User-Agents, which repeat a lot, are cached too.
+ * Without a database every click is country/city unknown.
+ */
+@Slf4j
+class ClickEnricher implements Closeable {
+
+    static final String UNKNOWN = "Unknown";
+
+    record Location(String country, String city) {
+        static final Location NONE = new Location(null, null);
+    }
+
+    record Client(String browser, String os) {
+    }
+
+    private final DatabaseReader geoDatabase;
+    private final boolean cityDatabase;
+    private final Cache<String, Client> userAgents;
+
+    ClickEnricher(String geoDatabasePath, int cacheSize) throws IOException {
+        if (geoDatabasePath == null || geoDatabasePath.isBlank()) {
+            geoDatabase = null;
+            cityDatabase = false;
+        } else {
+            // File readers are memory-mapped by default
+            geoDatabase = new DatabaseReader.Builder(new File(geoDatabasePath))
+                    .withCache(new CHMCache(cacheSize))
+                    .build();
+            cityDatabase = geoDatabase.getMetadata().getDatabaseType().contains("City");
+            log.info("GeoIP database loaded: {} ({})", geoDatabasePath, geoDatabase.getMetadata().getDatabaseType());
+        }
+        userAgents = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    Location locate(String ip) {
+        InetAddress address = geoDatabase == null ? null : parseLiteral(ip);
+        if (address == null) {
+            return Location.NONE;
+        }
+        try {
+            if (cityDatabase) {
+                Optional<CityResponse> city = geoDatabase.tryCity(address);
+                return city.map(response -> new Location(response.getCountry().getIsoCode(),
+                        truncate(response.getCity().getName(), 64))).orElse(Location.NONE);
+            }
+            return geoDatabase.tryCountry(address)
+                    .map(AbstractCountryResponse::getCountry)
+                    .map(country -> new Location(country.getIsoCode(), null))
+                    .orElse(Location.NONE);
+        } catch (IOException | GeoIp2Exception e) {
+            log.debug("GeoIP lookup failed for {}: {}", ip, e.getMessage());
+            return Location.NONE;
+        }
+    }
+
+    Client identify(String userAgent) {
+        if (userAgent == null || userAgent.isEmpty()) {
+            return new Client(UNKNOWN, UNKNOWN);
+        }
+        return userAgents.get(userAgent, ua -> {
+            UserAgent parsed = UserAgent.parseUserAgentString(ua);
+            return new Client(truncate(parsed.getBrowser().getGroup().getName(), 32),
+                    truncate(parsed.getOperatingSystem().getGroup().getName(), 32));
+        });
+    }
+
+    /**
+     * @return the address of an IPv4 or IPv6 literal, or null - never a DNS lookup for a forged
+     * X-Forwarded-For
+     */
+    static InetAddress parseLiteral(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return null;
+        }
+        try {
+            if (ip.indexOf(':') >= 0) {
+                // getByName only parses strings with a ':' as IPv6 literals
+                return ip.charAt(0) == ':' || Character.digit(ip.charAt(0), 16) >= 0 ? InetAddress.getByName(ip) : null;
+            }
+            byte[] octets = new byte[4];
+            int octet = -1;
+            int count = 0;
+            for (int i = 0; i <= ip.length(); i++) {
+                char c = i < ip.length() ? ip.charAt(i) : '.';
+                if (c >= '0' && c <= '9') {
+                    octet = octet < 0 ? c - '0' : octet * 10 + (c - '0');
+                    if (octet > 255) {
+                        return null;
+                    }
+                } else if (c == '.' && octet >= 0 && count < 4) {
+                    octets[count++] = (byte) octet;
+                    octet = -1;
+                } else {
+                    return null;
+                }
+            }
+            return count == 4 ? InetAddress.getByAddress(octets) : null;
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static String truncate(String value, int length) {
+        return value == null || value.length() <= length ? value : value.substring(0, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (geoDatabase != null) {
+            geoDatabase.close();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.config.TieredUrlCache;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.util.HeavyHitters;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the most redirected short codes (top-K) in constant memory
+ *
+ * How it works:
+ * - Every redirect adds its code to a striped Space-Saving summary (HeavyHitters):
+ *   1 / error counters per stripe, whatever the number of codes
+ * - Every decay-interval all counts are halved, so the ranking follows current traffic
+ * - With pin=true the top-K codes are pinned in urlCache: they stop expiring after
+ *   miniurl.cache.l1.expire-after-write until they drop out of the top-K
+ *
+ * Counts may be overestimated by at most maxError (<= error x redirects counted), and any code
+ * with more than that many redirects is tracked. On by default, since pinning keeps the hottest
+ * redirects in L1; disable with miniurl.hot-codes.enabled=false.
+ */
+@Component
+@ConditionalOnProperty(name = "miniurl.hot-codes.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class HotCodeTracker implements MeterBinder {
+
+    private final HeavyHitters hitters;
+    private final TieredUrlCache urlCache;
+    private final int topK;
+    private final boolean pin;
+    private final Duration decayInterval;
+    private final Duration l1ExpireAfterWrite;
+
+    private final ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "hot-codes-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public HotCodeTracker(TieredUrlCache urlCache,
+                          @Value("${miniurl.hot-codes.top-k:100}") int topK,
+                          @Value("${miniurl.hot-codes.error:0.001}") double error,
+                          @Value("${miniurl.hot-codes.decay-interval:10m}") Duration decayInterval,
+                          @Value("${miniurl.hot-codes.pin:true}") boolean pin,
+                          @Value("${miniurl.cache.l1.expire-after-write:1h}") Duration l1ExpireAfterWrite) {
+        this.urlCache = urlCache;
+        this.topK = topK;
+        this.pin = pin;
+        this.decayInterval = decayInterval;
+        this.l1ExpireAfterWrite = l1ExpireAfterWrite;
+        this.hitters = new HeavyHitters(error, Runtime.getRuntime().availableProcessors());
+        log.info("Hot code tracking: top {}, error {} ({} counters), pinning {}",
+                topK, error, hitters.capacity(), pin ? "on" : "off");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void startMaintenance() {
+        long decayMillis = decayInterval.toMillis();
+        maintenance.scheduleWithFixedDelay(this::decay, decayMillis, decayMillis, TimeUnit.MILLISECONDS);
+        if (pin) {
+            // Re-pin well within the TTL, so a code that turns hot is pinned before it expires
+            long pinMillis = Math.min(decayMillis, l1ExpireAfterWrite.toMillis() / 4);
+            maintenance.scheduleWithFixedDelay(this::pinHottest, pinMillis, pinMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void record(ShortCode shortCode) {
+        hitters.add(shortCode.value());
+    }
+
+    /**
+     * @return up to limit codes with the most redirects, highest first
+     */
+    public List<HeavyHitters.Entry> top(int limit) {
+        return hitters.top(limit);
+    }
+
+    public long maxError() {
+        return hitters.maxError();
+    }
+
+    public long total() {
+        return hitters.total();
+    }
+
+    void pinHottest() {
+        try {
+            List<ShortCode> hottest = hitters.top(topK).stream()
+                    .map(entry -> new ShortCode(entry.key()))
+                    .toList();
+            int pinned = urlCache.pin(hottest, l1ExpireAfterWrite);
+            log.debug("Pinned {} of the {} hottest codes", pinned, hottest.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to pin hot codes: {}", e.getMessage());
+        }
+    }
+
+    private void decay() {
+        hitters.decay();
+    }
+
+    /**
+     * Share of the counted redirects that certainly went to the top-K codes
+     */
+    private double topShare() {
+        long total = hitters.total();
+        if (total == 0) {
+            return 0;
+        }
+        long guaranteed = 0;
+        for (HeavyHitters.Entry entry : hitters.top(topK)) {
+            guaranteed += entry.guaranteed();
+        }
+        return (double) guaranteed / total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("miniurl.hotcodes.top.share", this, HotCodeTracker::topShare)
+                .description("Fraction of recent redirects that went to the top-K codes (lower bound)")
+                .register(registry);
+        Gauge.builder("miniurl.hotcodes.error", hitters, HeavyHitters::maxError)
+                .description("Most any top-K count can be overestimated by")
+                .register(registry);
+        Gauge.builder("miniurl.hotcodes.counted", hitters, HeavyHitters::total)
+                .description("Redirects in the summary (halved every decay interval)")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        maintenance.shutdownNow();
+    }
+}
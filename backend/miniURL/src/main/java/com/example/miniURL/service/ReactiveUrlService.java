@@ -0,0 +1,74 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.config.TieredUrlCache;
+import com.example.miniURL.dto.ShortenUrlRequestDto;
+import com.example.miniURL.dto.ShortenUrlResponseDto;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.repository.ReactiveUrlRepository;
+import com.example.miniURL.util.LogSampler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.util.Optional;
+
+/**
+ * UrlService for the reactive variant
+ *
+ * Redirects never block: urlCache (async L1, off-heap L2) and then R2DBC. Concurrent misses
+ * for one code share a single query. Shortening reuses UrlService (id allocation, dedup,
+ * write-behind) on the boundedElastic scheduler, since it writes through JPA.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveUrlService {
+    private final UrlService urlService;
+    private final ReactiveUrlRepository reactiveUrlRepository;
+    private final TieredUrlCache urlCache;
+    private final Optional<ShortCodeBloomFilter> shortCodeBloomFilter;
+    private final ShortCodeValueBackfill shortCodeValueBackfill;
+    private final LogSampler logSampler;
+
+    public Mono<ShortenUrlResponseDto> shortenUrl(ShortenUrlRequestDto requestDto) {
+        return Mono.fromCallable(() -> urlService.submitShortenUrl(requestDto))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(Mono::fromFuture);
+    }
+
+    /**
+     * @return the target URI, or empty if the code does not exist
+     */
+    public Mono<URI> getRedirectionUri(ShortCode shortCode) {
+        // suppressCancel: the pending load is shared, one cancelled client must not cancel it for the others
+        return Mono.fromFuture(() -> urlCache.retrieve(shortCode, () -> load(shortCode).toFuture()), true);
+    }
+
+    private Mono<URI> load(ShortCode shortCode) {
+        //codes the Bloom filter has never seen certainly do not exist - skip the DB
+        //(single replica only: another replica's new codes are missing until the next refresh)
+        if (shortCodeBloomFilter.isPresent() && !shortCodeBloomFilter.get().mightContain(shortCode)) {
+            return Mono.empty();
+        }
+
+        //same lookup order as UrlService: code_value, then short_code until the backfill is done
+        return reactiveUrlRepository.findMainUrlByCodeValue(shortCode.value())
+                .switchIfEmpty(Mono.defer(() -> shortCodeValueBackfill.isComplete()
+                        ? Mono.empty()
+                        : reactiveUrlRepository.findMainUrlByShortCode(shortCode.toString())))
+                .map(url -> {
+                    if (logSampler.sample()) {
+                        log.info("Cache miss - Fetching from DB for short code: {} (1 in {} logged)", shortCode,
+                                logSampler.every());
+                    }
+                    return URI.create(url);
+                })
+                .switchIfEmpty(Mono.fromRunnable(() ->
+                        shortCodeBloomFilter.ifPresent(ShortCodeBloomFilter::recordFalsePositive)));
+    }
+}
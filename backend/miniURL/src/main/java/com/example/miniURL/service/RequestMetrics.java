@@ -0,0 +1,54 @@
+package com.example.miniURL.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of redirects and shortens, as seen by the handler
+ *
+ * - miniurl.redirect.latency{cache=hit|miss}: code parsed -> redirect URI known (a miss includes
+ *   the database lookup); the fast path only ever records hits
+ * - miniurl.shorten.latency: request body read -> short code committed
+ *
+ * Every timer is registered once here, so recording is a lock-free update of an existing meter:
+ * no tag lookup or allocation per request. Histogram buckets for Prometheus are switched on in
+ * application.properties (management.metrics.distribution.percentiles-histogram.*).
+ */
+@Component
+public class RequestMetrics {
+
+    private final Timer redirectHit;
+    private final Timer redirectMiss;
+    private final Timer shorten;
+
+    public RequestMetrics(MeterRegistry registry) {
+        this.redirectHit = Timer.builder("miniurl.redirect.latency")
+                .tag("cache", "hit")
+                .description("Redirects served from urlCache")
+                .register(registry);
+        this.redirectMiss = Timer.builder("miniurl.redirect.latency")
+                .tag("cache", "miss")
+                .description("Redirects that had to look the code up in the database")
+                .register(registry);
+        this.shorten = Timer.builder("miniurl.shorten.latency")
+                .description("Shortens, until the new code is committed")
+                .register(registry);
+    }
+
+    /**
+     * @param startNanos System.nanoTime() when handling started
+     */
+    public void recordRedirect(boolean cacheHit, long startNanos) {
+        (cacheHit ? redirectHit : redirectMiss).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param startNanos System.nanoTime() when handling started
+     */
+    public void recordShorten(long startNanos) {
+        shorten.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.repository.UrlRepository;
+import com.example.miniURL.util.BloomFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Negative cache for redirects: a Bloom filter of every existing short code
+ *
+ * Why: @Cacheable only remembers codes that exist, so scanners/typos/bots asking for
+ * unknown codes hit the database every time. The filter answers "definitely not
+ * there" from memory; only "maybe there" lookups reach findByShortCode.
+ *
+ * Lifecycle:
+ * - Startup: load the disk snapshot (if any), then stream codes created since it was
+ *   taken (or the whole table) into the filter. Until then every code passes.
+ * - Every shorten adds its code immediately
+ * - Every refresh-interval: stream codes created recently (picks up other replicas' codes)
+ * - Insertions beyond the sizing: rebuilt in the background at double capacity
+ * - Shutdown / every snapshot-interval: bits written to snapshot-path
+ *
+ * Only safe with a single replica, so off unless miniurl.bloom.enabled=true. Codes shortened
+ * on other replicas reach this filter with the next refresh; until then (up to refresh-interval)
+ * a redirect for one of them is a false 404 here, without the database ever being asked.
+ */
+@Component
+@ConditionalOnProperty(name = "miniurl.bloom.enabled", havingValue = "true")
+@Slf4j
+public class ShortCodeBloomFilter implements MeterBinder {
+
+    private static final long SNAPSHOT_MAGIC = 0x4D696E6955524C32L; // "MiniURL2": keys are packed ShortCode values
+
+    private final UrlRepository urlRepository;
+    private final TransactionTemplate readTransaction;
+    private final double fpp;
+    private final Path snapshotPath;
+    private final Duration refreshInterval;
+    private final Duration refreshOverlap;
+    private final Duration snapshotInterval;
+
+    private volatile BloomFilter active;
+    private volatile BloomFilter rebuilding;
+    private volatile boolean ready;
+    private volatile LocalDateTime coveredUntil;
+    private final AtomicBoolean rebuildInProgress = new AtomicBoolean();
+
+    private final ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "bloom-filter-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder passed = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public ShortCodeBloomFilter(UrlRepository urlRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${miniurl.bloom.expected-insertions:10000000}") long expectedInsertions,
+                                @Value("${miniurl.bloom.false-positive-rate:0.01}") double fpp,
+                                @Value("${miniurl.bloom.snapshot-path:}") String snapshotPath,
+                                @Value("${miniurl.bloom.refresh-interval:5s}") Duration refreshInterval,
+                                @Value("${miniurl.bloom.refresh-overlap:30s}") Duration refreshOverlap,
+                                @Value("${miniurl.bloom.snapshot-interval:10m}") Duration snapshotInterval) {
+        this.urlRepository = urlRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.fpp = fpp;
+        this.snapshotPath = snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        this.refreshInterval = refreshInterval;
+        this.refreshOverlap = refreshOverlap;
+        this.snapshotInterval = snapshotInterval;
+        this.active = BloomFilter.create(expectedInsertions, fpp);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBuild() {
+        maintenance.execute(this::initialBuild);
+    }
+
+    /**
+     * false = the code certainly does not exist; true = it may exist (or the filter is still loading)
+     */
+    public boolean mightContain(ShortCode shortCode) {
+        if (!ready || active.mightContain(shortCode.value())) {
+            passed.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void add(ShortCode shortCode) {
+        // Read the rebuild target first: once it is null, active is already the newest filter
+        BloomFilter next = rebuilding;
+        active.put(shortCode.value());
+        if (next != null) {
+            next.put(shortCode.value());
+        }
+        if (ready && active.insertions() > active.expectedInsertions()
+                && rebuildInProgress.compareAndSet(false, true)) {
+            maintenance.execute(() -> rebuild(active.expectedInsertions() * 2));
+        }
+    }
+
+    /**
+     * Called when a code passed the filter but was not in the database
+     */
+    public void recordFalsePositive() {
+        if (ready) {
+            falsePositives.increment();
+        }
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Insertions the active filter is sized for; doubles with each rebuild
+     */
+    long capacity() {
+        return active.expectedInsertions();
+    }
+
+    private void initialBuild() {
+        long start = System.nanoTime();
+        try {
+            LocalDateTime scanFrom = loadSnapshot();
+            LocalDateTime scanStartedAt = LocalDateTime.now();
+            long loaded = scanFrom == null ? scanAll(active) : scanSince(active, scanFrom);
+            coveredUntil = scanStartedAt;
+            ready = true;
+            log.info("Short code Bloom filter ready: {} codes scanned in {} ms (expected fpp {})",
+                    loaded, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    String.format("%.4f", active.expectedFpp()));
+        } catch (RuntimeException e) {
+            // Stay "not ready": every lookup keeps going to the database
+            log.error("Failed to build short code Bloom filter: {}", e.getMessage(), e);
+            return;
+        }
+
+        if (!refreshInterval.isZero()) {
+            maintenance.scheduleWithFixedDelay(this::refresh,
+                    refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (snapshotPath != null && !snapshotInterval.isZero()) {
+            maintenance.scheduleWithFixedDelay(this::writeSnapshot,
+                    snapshotInterval.toMillis(), snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Adds codes created recently, e.g. by other replicas. Rows are stamped with their
+     * node's clock, so the scan overlaps the previous one by refresh-overlap.
+     */
+    private void refresh() {
+        try {
+            LocalDateTime scanStartedAt = LocalDateTime.now();
+            scanSince(active, coveredUntil.minus(refreshOverlap));
+            coveredUntil = scanStartedAt;
+        } catch (RuntimeException e) {
+            log.warn("Bloom filter refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Builds a bigger filter from a full scan while the current one keeps serving, then swaps
+     */
+    public void rebuild(long expectedInsertions) {
+        try {
+            BloomFilter next = BloomFilter.create(expectedInsertions, fpp);
+            rebuilding = next;
+            LocalDateTime scanStartedAt = LocalDateTime.now();
+            long loaded = scanAll(next);
+            active = next;
+            coveredUntil = scanStartedAt;
+            log.info("Short code Bloom filter rebuilt for {} codes ({} loaded)", expectedInsertions, loaded);
+        } catch (RuntimeException e) {
+            log.error("Bloom filter rebuild failed: {}", e.getMessage(), e);
+        } finally {
+            rebuilding = null;
+            rebuildInProgress.set(false);
+        }
+    }
+
+    private long scanAll(BloomFilter target) {
+        return readTransaction.execute(status -> load(target, urlRepository.streamAllShortCodes()));
+    }
+
+    private long scanSince(BloomFilter target, LocalDateTime since) {
+        return readTransaction.execute(status -> load(target, urlRepository.streamShortCodesCreatedSince(since)));
+    }
+
+    private static long load(BloomFilter target, Stream<String> codes) {
+        long[] count = {0};
+        try (codes) {
+            codes.forEach(code -> {
+                long value = ShortCode.parse(code);
+                if (value >= 0) {
+                    target.put(value);
+                    count[0]++;
+                }
+            });
+        }
+        return count[0];
+    }
+
+    /**
+     * @return time the snapshot was taken minus refresh-overlap, or null if there is none to use
+     */
+    private LocalDateTime loadSnapshot() {
+        if (snapshotPath == null || !Files.exists(snapshotPath)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readLong() != SNAPSHOT_MAGIC) {
+                throw new IOException("not a Bloom filter snapshot");
+            }
+            LocalDateTime takenAt = LocalDateTime.parse(in.readUTF());
+            active = BloomFilter.readFrom(in);
+            log.info("Loaded Bloom filter snapshot from {} (taken {})", snapshotPath, takenAt);
+            return takenAt.minus(refreshOverlap);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable Bloom filter snapshot {}: {}", snapshotPath, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSnapshot() {
+        LocalDateTime takenAt = coveredUntil;
+        if (snapshotPath == null || !ready || takenAt == null) {
+            return;
+        }
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "bloom", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeLong(SNAPSHOT_MAGIC);
+                out.writeUTF(takenAt.toString());
+                active.writeTo(out);
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote Bloom filter snapshot to {}", snapshotPath);
+        } catch (IOException e) {
+            log.warn("Failed to write Bloom filter snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("miniurl.bloom.lookups", rejected, LongAdder::sum)
+                .tag("result", "rejected")
+                .description("Redirect lookups answered 'not found' without the database")
+                .register(registry);
+        FunctionCounter.builder("miniurl.bloom.lookups", passed, LongAdder::sum)
+                .tag("result", "passed")
+                .description("Redirect lookups passed on to the database")
+                .register(registry);
+        FunctionCounter.builder("miniurl.bloom.false.positives", falsePositives, LongAdder::sum)
+                .description("Codes that passed the filter but did not exist")
+                .register(registry);
+        Gauge.builder("miniurl.bloom.insertions", this, f -> f.active.insertions())
+                .description("Codes added to the filter")
+                .register(registry);
+        Gauge.builder("miniurl.bloom.expected.fpp", this, f -> f.active.expectedFpp())
+                .description("Estimated false positive rate at the current fill")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        maintenance.shutdownNow();
+        writeSnapshot();
+    }
+}
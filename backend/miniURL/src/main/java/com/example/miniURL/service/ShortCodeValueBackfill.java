@@ -0,0 +1,100 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.entity.UrlEntity;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.repository.UrlRepository;
+import com.example.miniURL.util.Threads;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills url_entity.code_value for rows created before the column existed
+ *
+ * Runs once in the background after startup, one batch per transaction. Until it
+ * finishes, redirects that miss on code_value fall back to the short_code column.
+ *
+ * Every replica runs it. Batches are claimed with SELECT ... FOR UPDATE SKIP LOCKED, so
+ * replicas split the rows between them instead of updating the same ones. A replica that
+ * runs out of rows to claim while others still hold some waits for them to commit before
+ * it counts the backfill as complete (and drops the short_code fallback).
+ */
+@Component
+@Slf4j
+public class ShortCodeValueBackfill {
+
+    private static final long CLAIMED_ELSEWHERE_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    private final UrlRepository urlRepository;
+    private final TransactionTemplate batchTransaction;
+    private final int batchSize;
+    private final boolean virtualThreads;
+    private volatile boolean complete;
+
+    public ShortCodeValueBackfill(UrlRepository urlRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${miniurl.shortcode.backfill-batch-size:1000}") int batchSize,
+                                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.urlRepository = urlRepository;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.virtualThreads = virtualThreads;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Threads.builder("code-value-backfill", virtualThreads).start(this::backfill);
+    }
+
+    void backfill() {
+        long total = 0;
+        try {
+            while (true) {
+                int updated = batchTransaction.execute(status -> fillBatch());
+                total += updated;
+                if (updated > 0) {
+                    continue;
+                }
+                if (!urlRepository.existsByCodeValueIsNull()) {
+                    break;
+                }
+                // The rest is locked by another replica's batch
+                Thread.sleep(CLAIMED_ELSEWHERE_WAIT_MILLIS);
+            }
+            complete = true;
+            if (total > 0) {
+                log.info("Backfilled code_value for {} legacy short codes", total);
+            }
+        } catch (RuntimeException e) {
+            // Not complete: lookups keep the short_code fallback until the next restart
+            log.error("code_value backfill stopped after {} rows: {}", total, e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int fillBatch() {
+        List<UrlEntity> batch = urlRepository.claimByCodeValueIsNull(batchSize);
+        int updated = 0;
+        for (UrlEntity entity : batch) {
+            long value = ShortCode.parse(entity.getShortCode());
+            if (value < 0) {
+                throw new IllegalStateException("Unparseable short code in url_entity: " + entity.getShortCode());
+            }
+            entity.setCodeValue(value);  // flushed on commit by dirty checking
+            updated++;
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.config.TieredUrlCache;
+import com.example.miniURL.entity.UrlEntity;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.repository.UrlRepository;
+import com.example.miniURL.util.Threads;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Preloads urlCache on startup so a fresh deploy does not send every redirect to the database
+ *
+ * Sources, in order:
+ * - Hot-key snapshot on local disk (code + URL of the hottest L1 entries), no DB access at all
+ * - Otherwise the top-n most recently created codes, read in pages by several threads
+ *
+ * Bounded by time-budget. With gate-readiness=true the warm-up runs before the application
+ * reports ready (/actuator/health/readiness), otherwise in the background.
+ * The snapshot is rewritten every snapshot-interval and on shutdown.
+ */
+@Component
+@ConditionalOnProperty(name = "miniurl.cache.warmup.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class UrlCacheWarmer implements ApplicationRunner, MeterBinder {
+
+    private static final String SNAPSHOT_HEADER = "# miniurl hot keys v1";
+
+    private final UrlRepository urlRepository;
+    private final TieredUrlCache urlCache;
+    private final int topN;
+    private final int pageSize;
+    private final int threads;
+    private final Duration timeBudget;
+    private final boolean gateReadiness;
+    private final Path snapshotPath;
+    private final Duration snapshotInterval;
+    private final boolean virtualThreads;
+
+    private final AtomicLong warmed = new AtomicLong();
+    private final ScheduledExecutorService snapshots = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cache-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UrlCacheWarmer(UrlRepository urlRepository,
+                          TieredUrlCache urlCache,
+                          @Value("${miniurl.cache.warmup.top-n:100000}") int topN,
+                          @Value("${miniurl.cache.warmup.page-size:1000}") int pageSize,
+                          @Value("${miniurl.cache.warmup.threads:4}") int threads,
+                          @Value("${miniurl.cache.warmup.time-budget:30s}") Duration timeBudget,
+                          @Value("${miniurl.cache.warmup.gate-readiness:false}") boolean gateReadiness,
+                          @Value("${miniurl.cache.warmup.snapshot-path:}") String snapshotPath,
+                          @Value("${miniurl.cache.warmup.snapshot-interval:5m}") Duration snapshotInterval,
+                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.urlRepository = urlRepository;
+        this.urlCache = urlCache;
+        this.topN = topN;
+        this.pageSize = pageSize;
+        this.threads = threads;
+        this.timeBudget = timeBudget;
+        this.gateReadiness = gateReadiness;
+        this.snapshotPath = snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        this.snapshotInterval = snapshotInterval;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (gateReadiness) {
+            warmUp();
+        } else {
+            Threads.builder("cache-warmup", virtualThreads).start(this::warmUp);
+        }
+        if (snapshotPath != null && !snapshotInterval.isZero()) {
+            snapshots.scheduleWithFixedDelay(this::writeSnapshot,
+                    snapshotInterval.toMillis(), snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + timeBudget.toNanos();
+        String source = "snapshot";
+        warmed.set(0);
+        try {
+            if (!warmFromSnapshot(deadline)) {
+                source = "database";
+                warmFromDatabase(deadline);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Cache warm-up stopped early: {}", e.getMessage());
+        }
+        log.info("Cache warm-up from {} loaded {} URLs in {} ms", source, warmed.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * @return false if there is no usable (non-empty) snapshot
+     */
+    private boolean warmFromSnapshot(long deadline) {
+        if (snapshotPath == null || !Files.exists(snapshotPath)) {
+            return false;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(snapshotPath, StandardCharsets.UTF_8)) {
+            if (!SNAPSHOT_HEADER.equals(reader.readLine())) {
+                log.warn("Ignoring cache snapshot {} with unknown format", snapshotPath);
+                return false;
+            }
+            String line;
+            while ((line = reader.readLine()) != null && warmed.get() < topN && System.nanoTime() < deadline) {
+                int tab = line.indexOf('\t');
+                if (tab > 0) {
+                    urlCache.put(ShortCode.of(line.substring(0, tab)), URI.create(line.substring(tab + 1)));
+                    warmed.incrementAndGet();
+                }
+            }
+            return warmed.get() > 0;
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Ignoring unreadable cache snapshot {}: {}", snapshotPath, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reads the newest top-n rows page by page; each worker claims the next page index
+     */
+    private void warmFromDatabase(long deadline) {
+        AtomicInteger nextPage = new AtomicInteger();
+        AtomicBoolean exhausted = new AtomicBoolean();
+        int pages = (topN + pageSize - 1) / pageSize;
+        Sort newestFirst = Sort.by(Sort.Direction.DESC, "createdAt");
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads,
+                Threads.factory("cache-warmup-worker-", virtualThreads));
+        for (int i = 0; i < threads; i++) {
+            workers.execute(() -> {
+                int page;
+                while (!exhausted.get() && System.nanoTime() < deadline && (page = nextPage.getAndIncrement()) < pages) {
+                    Slice<UrlEntity> slice = urlRepository.findSlice(PageRequest.of(page, pageSize, newestFirst));
+                    for (UrlEntity entity : slice) {
+                        urlCache.put(ShortCode.of(entity.getShortCode()), URI.create(entity.getMainUrl()));
+                    }
+                    warmed.addAndGet(slice.getNumberOfElements());
+                    if (!slice.hasNext()) {
+                        exhausted.set(true);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                log.warn("Cache warm-up exceeded its {} budget", timeBudget);
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes the hottest L1 entries to the snapshot file (write to temp file, then atomic rename)
+     */
+    void writeSnapshot() {
+        if (snapshotPath == null) {
+            return;
+        }
+        Map<Object, Object> hottest = urlCache.hottest(topN);
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "hot-keys", ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(SNAPSHOT_HEADER);
+                writer.newLine();
+                for (Map.Entry<Object, Object> entry : hottest.entrySet()) {
+                    writer.write(entry.getKey() + "\t" + entry.getValue());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote {} hot keys to {}", hottest.size(), snapshotPath);
+        } catch (IOException e) {
+            log.warn("Failed to write cache snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("miniurl.cache.warmup.loaded", warmed, AtomicLong::get)
+                .description("URLs preloaded into urlCache at startup")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        snapshots.shutdownNow();
+        writeSnapshot();
+    }
+}
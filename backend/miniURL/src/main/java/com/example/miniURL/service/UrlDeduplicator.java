@@ -0,0 +1,144 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.entity.UrlEntity;
+import com.example.miniURL.repository.UrlRepository;
+import com.example.miniURL.util.HashUtils;
+import com.example.miniURL.util.UrlUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Returns the existing short code when the same long URL is shortened again
+ *
+ * How it works:
+ * - URLs are normalized (case of scheme/host, default port, empty path) and hashed to 64 bits
+ * - Lookup order: local Caffeine front (recently seen URLs) -> indexed url_hash column
+ * - A hash match is confirmed by comparing normalized URLs, so hash collisions are harmless
+ *
+ * Best effort: two concurrent first-time requests for the same URL may still create two codes.
+ * Enabled with miniurl.dedup.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "miniurl.dedup.enabled", havingValue = "true")
+public class UrlDeduplicator implements MeterBinder {
+
+    private final UrlRepository urlRepository;
+    private final UrlUtils urlUtils;
+    private final Cache<Long, KnownUrl> recent;
+
+    private final LongAdder frontHits = new LongAdder();
+    private final LongAdder databaseHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private record KnownUrl(String normalizedUrl, String shortCode) {
+    }
+
+    public UrlDeduplicator(UrlRepository urlRepository,
+                           UrlUtils urlUtils,
+                           @Value("${miniurl.dedup.front-cache-size:100000}") long frontCacheSize) {
+        this.urlRepository = urlRepository;
+        this.urlUtils = urlUtils;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(frontCacheSize)
+                .build();
+    }
+
+    /**
+     * Short code already assigned to this (valid) URL, if any
+     */
+    public Optional<String> findShortCode(String url) {
+        String normalized = urlUtils.normalize(url);
+        long hash = HashUtils.hash64(normalized);
+
+        KnownUrl known = recent.getIfPresent(hash);
+        if (known != null && known.normalizedUrl().equals(normalized)) {
+            frontHits.increment();
+            return Optional.of(known.shortCode());
+        }
+
+        for (UrlEntity candidate : urlRepository.findByUrlHash(hash)) {
+            if (normalized.equals(urlUtils.normalize(candidate.getMainUrl()))) {
+                databaseHits.increment();
+                recent.put(hash, new KnownUrl(normalized, candidate.getShortCode()));
+                return Optional.of(candidate.getShortCode());
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Bulk variant of findShortCode: one database query for all front-cache misses
+     *
+     * @return normalized URL -> existing short code, for the URLs that already have one
+     */
+    public Map<String, String> findShortCodes(List<String> urls) {
+        Map<String, String> found = new HashMap<>();
+        Map<Long, String> pending = new HashMap<>();
+
+        for (String url : urls) {
+            String normalized = urlUtils.normalize(url);
+            long hash = HashUtils.hash64(normalized);
+            KnownUrl known = recent.getIfPresent(hash);
+            if (known != null && known.normalizedUrl().equals(normalized)) {
+                frontHits.increment();
+                found.put(normalized, known.shortCode());
+            } else {
+                pending.put(hash, normalized);
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            int matched = 0;
+            for (UrlEntity candidate : urlRepository.findByUrlHashIn(new ArrayList<>(pending.keySet()))) {
+                String normalized = pending.get(candidate.getUrlHash());
+                if (normalized != null && !found.containsKey(normalized)
+                        && normalized.equals(urlUtils.normalize(candidate.getMainUrl()))) {
+                    matched++;
+                    found.put(normalized, candidate.getShortCode());
+                    recent.put(candidate.getUrlHash(), new KnownUrl(normalized, candidate.getShortCode()));
+                }
+            }
+            databaseHits.add(matched);
+            misses.add(pending.size() - matched);
+        }
+        return found;
+    }
+
+    /**
+     * Records a freshly created (committed) short code so repeats are answered from memory
+     */
+    public void remember(UrlEntity urlEntity) {
+        recent.put(urlEntity.getUrlHash(),
+                new KnownUrl(urlUtils.normalize(urlEntity.getMainUrl()), urlEntity.getShortCode()));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("miniurl.dedup.lookups", frontHits, LongAdder::sum)
+                .tag("result", "front-hit")
+                .description("Duplicate URLs answered from the local front cache")
+                .register(registry);
+        FunctionCounter.builder("miniurl.dedup.lookups", databaseHits, LongAdder::sum)
+                .tag("result", "db-hit")
+                .description("Duplicate URLs found through the url_hash index")
+                .register(registry);
+        FunctionCounter.builder("miniurl.dedup.lookups", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("URLs seen for the first time")
+                .register(registry);
+    }
+}
@@ -6,95 +6,228 @@ import com.example.miniURL.entity.UrlEntity;
 import com.example.miniURL.exception.InvalidUrlException;
 import com.example.miniURL.exception.UrlGenerationException;
 import com.example.miniURL.exception.UrlNotFoundException;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.generator.ShortCodeCodec;
+import com.example.miniURL.generator.ShortCodeGenerator;
 import com.example.miniURL.repository.UrlRepository;
+import com.example.miniURL.util.LogSampler;
+import com.example.miniURL.util.SingleFlight;
 import com.example.miniURL.util.UrlUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.RandomStringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class UrlService {
+public class UrlService implements MeterBinder {
     private final UrlRepository urlRepository;
     private final UrlUtils urlUtils;
-    
-    private static final int MAX_RETRY_ATTEMPTS = 5;
-    private static final int SHORT_CODE_LENGTH = 8;
+    private final ShortCodeGenerator shortCodeGenerator;
+    private final ShortCodeCodec shortCodeCodec;
+    private final Optional<WriteBehindPipeline> writeBehindPipeline;
+    private final Optional<UrlDeduplicator> urlDeduplicator;
+    private final Optional<ShortCodeBloomFilter> shortCodeBloomFilter;
+    private final ShortCodeValueBackfill shortCodeValueBackfill;
+    private final LogSampler logSampler;
+
+    //concurrent cache misses for one code share a single DB lookup
+    private final SingleFlight<ShortCode, URI> redirectLoads = new SingleFlight<>();
+    //inserts rejected because the code was taken; nothing retries them, each one is a failed shorten
+    private final LongAdder collisions = new LongAdder();
+
+    @Value("${miniurl.base-url:http://localhost:8080}")
+    private String baseUrl;
 
     public ShortenUrlResponseDto shortenUrl(ShortenUrlRequestDto requestDto){
         String url = requestDto.getUrl();
         
         //validate URL
+        validate(url);
+
+        //same long URL shortened before? hand out the existing code
+        Optional<String> existing = urlDeduplicator.flatMap(dedup -> dedup.findShortCode(url));
+        if (existing.isPresent()) {
+            return toResponse(existing.get());
+        }
+
+        //generator hands out unique ids, so a single insert is enough (no retry loop)
+        UrlEntity urlEntity = newUrlEntity(url);
+        String shortCode = urlEntity.getShortCode();
+
+        //persist to database
+        try {
+            urlRepository.save(urlEntity);
+        } catch (DataIntegrityViolationException e) {
+            collisions.increment();
+            // Only possible if a legacy random code already occupies this value
+            throw new UrlGenerationException("Short code already in use: " + shortCode, e);
+        }
+
+        log.debug("Successfully shortened URL: {} -> {}", url, shortCode);
+        urlDeduplicator.ifPresent(dedup -> dedup.remember(urlEntity));
+
+        //return meaningful data with full short URL
+        return toResponse(shortCode);
+    }
+
+    /**
+     * Shortens through the write-behind pipeline when enabled (miniurl.write-behind.enabled),
+     * otherwise synchronously. The future completes once the row is committed.
+     */
+    public CompletableFuture<ShortenUrlResponseDto> submitShortenUrl(ShortenUrlRequestDto requestDto) {
+        if (writeBehindPipeline.isEmpty()) {
+            return CompletableFuture.completedFuture(shortenUrl(requestDto));
+        }
+        String url = requestDto.getUrl();
+        validate(url);
+
+        Optional<String> existing = urlDeduplicator.flatMap(dedup -> dedup.findShortCode(url));
+        if (existing.isPresent()) {
+            return CompletableFuture.completedFuture(toResponse(existing.get()));
+        }
+
+        UrlEntity urlEntity = newUrlEntity(url);
+        return writeBehindPipeline.get().submit(urlEntity)
+                .thenApply(committed -> {
+                    log.debug("Successfully shortened URL: {} -> {}", url, urlEntity.getShortCode());
+                    urlDeduplicator.ifPresent(dedup -> dedup.remember(urlEntity));
+                    return toResponse(urlEntity.getShortCode());
+                });
+    }
+
+    private void validate(String url) {
         boolean isValid = urlUtils.isValid(url);
         if(!isValid){
             throw new InvalidUrlException("Invalid URL format: " + url);
         }
+    }
 
-        //generate unique short code with retry logic
-        for (int attempt = 1; attempt <= MAX_RETRY_ATTEMPTS; attempt++) {
-            try {
-                String shortCode = RandomStringUtils.randomAlphanumeric(SHORT_CODE_LENGTH);
-                UrlEntity urlEntity = new UrlEntity();
-                urlEntity.setMainUrl(url);
-                urlEntity.setShortCode(shortCode);
-                
-                //persist to database
-                urlRepository.save(urlEntity);
-                
-                log.info("Successfully shortened URL: {} -> {}", url, shortCode);
-                
-                //return meaningful data with full short URL
-                String baseUrl = "http://localhost:8080"; // TODO: Make this configurable for production
-                String shortUrl = baseUrl + "/" + shortCode;
-                
-                return ShortenUrlResponseDto.builder()
-                        .shortCode(shortCode)
-                        .shortUrl(shortUrl)
-                        .build();
-                        
-            } catch (DataIntegrityViolationException e){
-                log.warn("Short code collision occurred on attempt {} of {}", attempt, MAX_RETRY_ATTEMPTS);
-                
-                if (attempt == MAX_RETRY_ATTEMPTS) {
-                    throw new UrlGenerationException(
-                        "Failed to generate unique short code after " + MAX_RETRY_ATTEMPTS + " attempts", e);
-                }
-                // Continue to next iteration for retry
-            }
-        }
-        
-        // This should never be reached due to the exception in the loop
-        throw new UrlGenerationException("Unexpected error in URL shortening process");
+    private ShortenUrlResponseDto toResponse(String shortCode) {
+        return ShortenUrlResponseDto.builder()
+                .shortCode(shortCode)
+                .shortUrl(toShortUrl(shortCode))
+                .build();
+    }
+
+    /**
+     * Builds an unsaved entity for an already validated URL, with its id and short code allocated
+     */
+    public UrlEntity newUrlEntity(String url) {
+        long id = shortCodeGenerator.nextId();
+        UrlEntity urlEntity = new UrlEntity();
+        urlEntity.setId(id);
+        urlEntity.setMainUrl(url);
+        ShortCode shortCode = new ShortCode(shortCodeCodec.encodeValue(id));
+        urlEntity.setCodeValue(shortCode.value());
+        urlEntity.setShortCode(shortCode.toString());
+        urlEntity.setUrlHash(urlUtils.hash(url));
+        shortCodeBloomFilter.ifPresent(filter -> filter.add(shortCode));
+        return urlEntity;
+    }
+
+    public String toShortUrl(String shortCode) {
+        return baseUrl + "/" + shortCode;
     }
 
     /**
      * Retrieves the original URL for redirection
      * 
-     * @Cacheable - Results are cached in memory for 1 hour
-     * Cache key: shortCode (e.g., "abc12345")
+     * @Cacheable - Results are cached in memory for 1 hour; not-found is not cached
+     * Cache key: shortCode packed into a long (ShortCode, e.g. "abc12345" -> 128914562852489)
      * 
      * Performance Impact:
-     * - Cache Hit: ~0.1ms (500-1000x faster)
-     * - Cache Miss: ~50-100ms (database query)
+     * - Cache Hit: ~0.1µs for the lookup (HotPathBenchmark), tens of µs for the whole redirect
+     * - Cache Miss: a database query, milliseconds once the database is remote
      * - Expected: 80-90% cache hit rate for popular URLs
      * 
      * Example: If a URL goes viral and gets 100,000 clicks:
      * - Without cache: 100,000 DB queries (~5000 seconds = 83 minutes of DB time)
      * - With cache: 1 DB query + 99,999 cache hits (~10 seconds total)
+     * 
+     * Stampede protection: requests that miss while the first lookup for the same code is
+     * still running wait for its result (or its not-found) instead of querying again.
+     *
+     * @return the target URI, or empty if the code does not exist - no exception, scanners
+     *         try unknown codes all day
+     */
+    @Cacheable(value = "urlCache", key = "#shortCode", unless = "#result == null")
+    public Optional<URI> findRedirectionUri(ShortCode shortCode) {
+       return lookupRedirectionUri(shortCode);
+    }
+
+    /**
+     * findRedirectionUri that also tells the caller whether the cache missed: missed[0] is set
+     * only when this body runs, so metrics need no second cache probe to tag hits
+     */
+    @Cacheable(value = "urlCache", key = "#shortCode", unless = "#result == null")
+    public Optional<URI> findRedirectionUri(ShortCode shortCode, boolean[] missed) {
+       missed[0] = true;
+       return lookupRedirectionUri(shortCode);
+    }
+
+    private Optional<URI> lookupRedirectionUri(ShortCode shortCode) {
+       //codes the Bloom filter has never seen certainly do not exist - skip the DB
+       //(single replica only: another replica's new codes are missing until the next refresh)
+       if (shortCodeBloomFilter.isPresent() && !shortCodeBloomFilter.get().mightContain(shortCode)) {
+           return Optional.empty();
+       }
+       return Optional.ofNullable(redirectLoads.load(shortCode, () -> loadRedirectionUri(shortCode)));
+    }
+
+    /**
+     * findRedirectionUri, for callers that answer an unknown code with UrlNotFoundException
      */
     @Cacheable(value = "urlCache", key = "#shortCode")
-    public URI getRedirectionUri(String shortCode) {
-       String urlToBeParsed = urlRepository.findByShortCode(shortCode)
-               .map(UrlEntity::getMainUrl)
+    public URI getRedirectionUri(ShortCode shortCode) {
+       return lookupRedirectionUri(shortCode)
                .orElseThrow(() -> new UrlNotFoundException("Short code not found: " + shortCode));
+    }
+
+    /**
+     * @return null if there is no such code
+     */
+    private URI loadRedirectionUri(ShortCode shortCode) {
+       //lookup by the BIGINT code_value index; legacy rows are found by string until the backfill is done
+       String urlToBeParsed = urlRepository.findMainUrlByCodeValue(shortCode.value())
+               .or(() -> shortCodeValueBackfill.isComplete()
+                       ? Optional.empty()
+                       : urlRepository.findByShortCode(shortCode.toString()).map(UrlEntity::getMainUrl))
+               .orElse(null);
+       if (urlToBeParsed == null) {
+           shortCodeBloomFilter.ifPresent(ShortCodeBloomFilter::recordFalsePositive);
+           return null;
+       }
                
-       log.info("Cache miss - Fetching from DB for short code: {}", shortCode);
+       if (logSampler.sample()) {
+           log.info("Cache miss - Fetching from DB for short code: {} (1 in {} logged)", shortCode, logSampler.every());
+       }
        return URI.create(urlToBeParsed);
     }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("miniurl.redirect.loads", redirectLoads, SingleFlight::loadCount)
+                .tag("result", "loaded")
+                .description("Redirect cache misses that queried the database")
+                .register(registry);
+        FunctionCounter.builder("miniurl.redirect.loads", redirectLoads, SingleFlight::coalescedCount)
+                .tag("result", "coalesced")
+                .description("Redirect cache misses that waited for an identical in-flight lookup instead")
+                .register(registry);
+        FunctionCounter.builder("miniurl.shorten.collisions", collisions, LongAdder::sum)
+                .description("Inserts that failed because the short code was already taken")
+                .register(registry);
+    }
 }
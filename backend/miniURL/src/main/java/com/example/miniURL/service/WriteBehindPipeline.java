@@ -0,0 +1,215 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.entity.UrlEntity;
+import com.example.miniURL.exception.ServiceBusyException;
+import com.example.miniURL.exception.UrlGenerationException;
+import com.example.miniURL.repository.UrlRepository;
+import com.example.miniURL.util.Threads;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous insert pipeline with group commit for /shorten
+ *
+ * How it works:
+ * - shortenUrl enqueues the new row into a bounded ring buffer and returns a future
+ * - A few writer threads drain the buffer: up to batch-size rows, or whatever
+ *   arrived within linger-ms, are inserted in ONE transaction (group commit)
+ * - Each caller's future completes once its batch has committed (durable)
+ *
+ * Back-pressure: when the buffer is full, callers get 503 + Retry-After instead of queueing.
+ *
+ * Why: synchronous INSERT + commit per request caps writes at pool size / commit latency;
+ * group commit pays the commit latency once per batch instead.
+ */
+@Component
+@ConditionalOnProperty(name = "miniurl.write-behind.enabled", havingValue = "true")
+@Slf4j
+public class WriteBehindPipeline implements MeterBinder {
+
+    private final UrlRepository urlRepository;
+    private final TransactionTemplate batchTransaction;
+    private final BlockingQueue<PendingInsert> queue;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final int writerThreads;
+    private final boolean virtualThreads;
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder commitNanos = new LongAdder();
+    private final LongAdder rowsCommitted = new LongAdder();
+    private final LongAdder rowsRetried = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private record PendingInsert(UrlEntity entity, CompletableFuture<Void> durable) {
+    }
+
+    public WriteBehindPipeline(UrlRepository urlRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${miniurl.write-behind.queue-capacity:10000}") int queueCapacity,
+                               @Value("${miniurl.write-behind.batch-size:200}") int batchSize,
+                               @Value("${miniurl.write-behind.linger-ms:5}") long lingerMs,
+                               @Value("${miniurl.write-behind.writer-threads:2}") int writerThreads,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.urlRepository = urlRepository;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.writerThreads = writerThreads;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @PostConstruct
+    void start() {
+        for (int i = 0; i < writerThreads; i++) {
+            writers.add(Threads.builder("write-behind-" + i, virtualThreads).start(this::drainLoop));
+        }
+        log.info("Write-behind pipeline started: {} writers, batch size {}, linger {}ms",
+                writerThreads, batchSize, TimeUnit.NANOSECONDS.toMillis(lingerNanos));
+    }
+
+    /**
+     * Queues a new row for insertion; the returned future completes once it is committed
+     *
+     * @throws ServiceBusyException if the queue is full
+     */
+    public CompletableFuture<Void> submit(UrlEntity entity) {
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        if (!running || !queue.offer(new PendingInsert(entity, durable))) {
+            rejected.increment();
+            throw new ServiceBusyException("Write queue is full");
+        }
+        return durable;
+    }
+
+    private void drainLoop() {
+        List<PendingInsert> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingInsert first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collectBatch(batch);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Write-behind batch failed unexpectedly: {}", e.getMessage(), e);
+                batch.forEach(p -> p.durable().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Tops up the batch until it is full or the linger time since the first row has passed
+     */
+    private void collectBatch(List<PendingInsert> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            PendingInsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingInsert> batch) {
+        List<UrlEntity> entities = new ArrayList<>(batch.size());
+        batch.forEach(p -> entities.add(p.entity()));
+
+        long start = System.nanoTime();
+        try {
+            batchTransaction.executeWithoutResult(status -> {
+                urlRepository.saveAll(entities);
+                urlRepository.flush();
+            });
+            commitNanos.add(System.nanoTime() - start);
+            commits.increment();
+            rowsCommitted.add(batch.size());
+            batch.forEach(p -> p.durable().complete(null));
+        } catch (RuntimeException e) {
+            // One bad row must not fail its neighbours: fall back to one transaction per row
+            log.warn("Group commit of {} rows failed ({}), retrying rows individually", batch.size(), e.getMessage());
+            batch.forEach(this::commitSingle);
+        }
+    }
+
+    private void commitSingle(PendingInsert pending) {
+        rowsRetried.increment();
+        // @PostPersist marked the row persisted before the batch rolled back: without this the
+        // retry would go through merge, a SELECT per row for a row that does not exist
+        pending.entity().markRolledBack();
+        try {
+            batchTransaction.executeWithoutResult(status -> urlRepository.saveAndFlush(pending.entity()));
+            rowsCommitted.increment();
+            pending.durable().complete(null);
+        } catch (RuntimeException e) {
+            pending.durable().completeExceptionally(new UrlGenerationException(
+                    "Failed to persist short code " + pending.entity().getShortCode(), e));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("miniurl.writebehind.queue.depth", queue, BlockingQueue::size)
+                .description("Inserts waiting for a group commit")
+                .register(registry);
+        FunctionTimer.builder("miniurl.writebehind.commit", this,
+                        p -> p.commits.sum(), p -> p.commitNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time to insert and commit one batch")
+                .register(registry);
+        FunctionCounter.builder("miniurl.writebehind.rows", rowsCommitted, LongAdder::sum)
+                .tag("result", "committed")
+                .description("Rows committed, in group commits or retried alone (rows / commits = batch size)")
+                .register(registry);
+        FunctionCounter.builder("miniurl.writebehind.rows", rowsRetried, LongAdder::sum)
+                .tag("result", "retried")
+                .description("Rows retried in their own transaction after their group commit failed")
+                .register(registry);
+        FunctionCounter.builder("miniurl.writebehind.rejected", rejected, LongAdder::sum)
+                .description("Inserts rejected because the queue was full")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // Stop accepting, let writers flush what is already queued
+        running = false;
+        for (Thread writer : writers) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+}
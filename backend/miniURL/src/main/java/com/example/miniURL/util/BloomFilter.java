@@ -0,0 +1,144 @@
+package com.example.miniURL.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe Bloom filter over strings or longs (a filter should only ever see one of the two)
+ *
+ * How it works:
+ * - m bits, k bit positions per value derived from one 64-bit hash (double hashing)
+ * - put() sets the k bits, mightContain() checks them
+ * - "false" is always correct; "true" is wrong with probability ~fpp
+ *
+ * Sizing (standard formulas):
+ * - m = -n * ln(fpp) / ln(2)^2   (10M codes at 1% = ~12 MB)
+ * - k = m / n * ln(2)
+ *
+ * Lock-free: bits are set with CAS on an AtomicLongArray, reads never block.
+ */
+public final class BloomFilter {
+
+    private static final int SERIAL_VERSION = 1;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedInsertions;
+    private final LongAdder insertions = new LongAdder();
+
+    private BloomFilter(long bitCount, int hashCount, long expectedInsertions) {
+        this.words = new AtomicLongArray(Math.toIntExact((bitCount + 63) >>> 6));
+        this.bitCount = (long) words.length() << 6;
+        this.hashCount = hashCount;
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public static BloomFilter create(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("expectedInsertions must be > 0 and fpp in (0, 1)");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        return new BloomFilter(bits, hashes, expectedInsertions);
+    }
+
+    public void put(CharSequence value) {
+        putHash(HashUtils.hash64(value));
+    }
+
+    public void put(long value) {
+        putHash(HashUtils.mix64(value));
+    }
+
+    public boolean mightContain(CharSequence value) {
+        return containsHash(HashUtils.hash64(value));
+    }
+
+    public boolean mightContain(long value) {
+        return containsHash(HashUtils.mix64(value));
+    }
+
+    private void putHash(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            setBit(index(h1 + i * h2));
+        }
+        insertions.increment();
+    }
+
+    private boolean containsHash(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int combinedHash) {
+        // Non-negative, spread over the whole bit range
+        return ((combinedHash & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L >>> 1) % bitCount;
+    }
+
+    private void setBit(long bit) {
+        int word = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long current;
+        while (((current = words.get(word)) & mask) == 0) {
+            if (words.compareAndSet(word, current, current | mask)) {
+                return;
+            }
+        }
+    }
+
+    /** Values added so far (duplicates counted) */
+    public long insertions() {
+        return insertions.sum();
+    }
+
+    public long expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    /**
+     * Estimated false positive probability for the current number of insertions
+     */
+    public double expectedFpp() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * insertions() / bitCount), hashCount);
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(SERIAL_VERSION);
+        out.writeLong(bitCount);
+        out.writeInt(hashCount);
+        out.writeLong(expectedInsertions);
+        out.writeLong(insertions());
+        for (int i = 0; i < words.length(); i++) {
+            out.writeLong(words.get(i));
+        }
+    }
+
+    public static BloomFilter readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != SERIAL_VERSION) {
+            throw new IOException("Unsupported Bloom filter snapshot version");
+        }
+        BloomFilter filter = new BloomFilter(in.readLong(), in.readInt(), in.readLong());
+        filter.insertions.add(in.readLong());
+        for (int i = 0; i < filter.words.length(); i++) {
+            filter.words.set(i, in.readLong());
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.miniURL.util;
+
+/**
+ * Allocation-free 64-bit hashing for hot-path data structures
+ *
+ * FNV-1a over UTF-16 chars followed by a strong final mix, so that every
+ * output bit depends on every input char (needed when the hash is split
+ * into several independent indexes, e.g. Bloom filters and sketches).
+ */
+public final class HashUtils {
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private HashUtils() {
+    }
+
+    public static long hash64(CharSequence value) {
+        return hash64(value, 0, value.length());
+    }
+
+    /**
+     * Independent hash families from one function: seed 0 is hash64(value), other seeds give
+     * unrelated values (e.g. two seeds for a 128-bit key)
+     */
+    public static long hash64(CharSequence value, long seed) {
+        return hash64(value, 0, value.length(), seed);
+    }
+
+    public static long hash64(CharSequence value, int start, int end) {
+        return hash64(value, start, end, 0);
+    }
+
+    public static long hash64(CharSequence value, int start, int end, long seed) {
+        long h = FNV_OFFSET ^ seed;
+        for (int i = start; i < end; i++) {
+            h = (h ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return mix64(h);
+    }
+
+    /**
+     * Finalizer from SplitMix64 / MurmurHash3 (fmix64)
+     */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
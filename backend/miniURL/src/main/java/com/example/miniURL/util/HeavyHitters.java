@@ -0,0 +1,292 @@
+package com.example.miniURL.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Most frequent longs in a stream, in fixed memory (Space-Saving, Metwally et al.)
+ *
+ * How it works:
+ * - A stripe keeps m = ceil(1 / error) counters in a min-heap indexed by key
+ * - A tracked key has its counter incremented; an untracked key takes over the smallest
+ *   counter, inheriting its count as the error of the new key
+ * - Threads update one of a few stripes each (by thread id), so redirects on different
+ *   threads rarely wait for each other; top() merges the stripes
+ *
+ * Guarantees, with N the number of adds so far:
+ * - every count is an overestimate by at most its error, and every error is <= error * N
+ * - every key seen more than error * N times is in the summary
+ *
+ * decay() halves all counts, so the summary follows what is hot now rather than all-time.
+ */
+public final class HeavyHitters {
+
+    /**
+     * @param count upper bound of how often the key was added
+     * @param error how much count may overestimate; count - error is a lower bound
+     */
+    public record Entry(long key, long count, long error) {
+        public long guaranteed() {
+            return count - error;
+        }
+    }
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    /**
+     * @param error   largest overcount, as a fraction of all adds (0.001 = 0.1%)
+     * @param stripes independently locked summaries, rounded up to a power of two
+     */
+    public HeavyHitters(double error, int stripes) {
+        if (error <= 0 || error >= 1 || stripes <= 0) {
+            throw new IllegalArgumentException("error must be in (0, 1) and stripes > 0");
+        }
+        int count = Math.max(1, Integer.highestOneBit(stripes - 1) << 1);
+        this.stripes = new Stripe[count];
+        this.mask = count - 1;
+        int capacity = (int) Math.ceil(1 / error);
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe(capacity);
+        }
+    }
+
+    public void add(long key) {
+        stripes[(int) HashUtils.mix64(Thread.currentThread().threadId()) & mask].add(key);
+    }
+
+    /**
+     * @return up to k keys with the highest counts, highest first
+     */
+    public List<Entry> top(int k) {
+        Map<Long, long[]> merged = new HashMap<>();
+        long[] minimums = new long[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            minimums[i] = stripes[i].collect(i, stripes.length, merged);
+        }
+        // A key missing from a stripe may still have been counted there up to that stripe's minimum
+        List<Entry> entries = new ArrayList<>(merged.size());
+        merged.forEach((key, perStripe) -> {
+            long count = 0;
+            long error = 0;
+            for (int i = 0; i < stripes.length; i++) {
+                long stripeCount = perStripe[2 * i];
+                if (stripeCount < 0) {
+                    count += minimums[i];
+                    error += minimums[i];
+                } else {
+                    count += stripeCount;
+                    error += perStripe[2 * i + 1];
+                }
+            }
+            entries.add(new Entry(key, count, error));
+        });
+        entries.sort((a, b) -> Long.compare(b.count(), a.count()));
+        return entries.size() > k ? new ArrayList<>(entries.subList(0, k)) : entries;
+    }
+
+    /**
+     * @return adds counted (halved by each decay)
+     */
+    public long total() {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.total();
+        }
+        return total;
+    }
+
+    /**
+     * @return the most any count can currently overestimate: the sum of the stripes' smallest counters
+     */
+    public long maxError() {
+        long error = 0;
+        for (Stripe stripe : stripes) {
+            error += stripe.minimum();
+        }
+        return error;
+    }
+
+    public void decay() {
+        for (Stripe stripe : stripes) {
+            stripe.decay();
+        }
+    }
+
+    public int capacity() {
+        return stripes.length * stripes[0].capacity;
+    }
+
+    /**
+     * One Space-Saving summary: counters in a min-heap by count, plus an open-addressing
+     * index key -> heap position (linear probing, backward-shift deletion)
+     */
+    private static final class Stripe {
+        private final int capacity;
+        private final long[] keys;
+        private final long[] counts;
+        private final long[] errors;
+        private final long[] indexKeys;
+        // heap position + 1, 0 for an empty slot
+        private final int[] indexSlots;
+        private final int indexMask;
+        private int size;
+        private long total;
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+            this.keys = new long[capacity];
+            this.counts = new long[capacity];
+            this.errors = new long[capacity];
+            int indexSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+            this.indexKeys = new long[indexSize];
+            this.indexSlots = new int[indexSize];
+            this.indexMask = indexSize - 1;
+        }
+
+        synchronized void add(long key) {
+            total++;
+            int slot = find(key);
+            if (slot >= 0) {
+                int position = indexSlots[slot] - 1;
+                counts[position]++;
+                siftDown(position);
+            } else if (size < capacity) {
+                int position = size++;
+                keys[position] = key;
+                counts[position] = 1;
+                errors[position] = 0;
+                indexSlots[~slot] = position + 1;
+                indexKeys[~slot] = key;
+                siftUp(position);
+            } else {
+                // Replace the smallest counter: the newcomer may have been among the keys it counted
+                remove(keys[0]);
+                keys[0] = key;
+                errors[0] = counts[0];
+                counts[0]++;
+                insert(key, 0);
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Adds this stripe's counters to merged (key -> [count, error] per stripe, -1 where untracked)
+         *
+         * @return the smallest count, the most an untracked key may have been added here
+         */
+        synchronized long collect(int stripe, int stripeCount, Map<Long, long[]> merged) {
+            for (int i = 0; i < size; i++) {
+                long[] perStripe = merged.computeIfAbsent(keys[i], key -> {
+                    long[] untracked = new long[2 * stripeCount];
+                    Arrays.fill(untracked, -1);
+                    return untracked;
+                });
+                perStripe[2 * stripe] = counts[i];
+                perStripe[2 * stripe + 1] = errors[i];
+            }
+            return minimum();
+        }
+
+        synchronized long minimum() {
+            return size < capacity ? 0 : counts[0];
+        }
+
+        synchronized long total() {
+            return total;
+        }
+
+        synchronized void decay() {
+            // Halving keeps the heap order and the error bounds
+            for (int i = 0; i < size; i++) {
+                counts[i] >>>= 1;
+                errors[i] >>>= 1;
+            }
+            total >>>= 1;
+        }
+
+        private void siftUp(int position) {
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (counts[parent] <= counts[position]) {
+                    return;
+                }
+                swap(position, parent);
+                position = parent;
+            }
+        }
+
+        private void siftDown(int position) {
+            while (true) {
+                int smallest = position;
+                int left = 2 * position + 1;
+                int right = left + 1;
+                if (left < size && counts[left] < counts[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && counts[right] < counts[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == position) {
+                    return;
+                }
+                swap(position, smallest);
+                position = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long key = keys[a];
+            long count = counts[a];
+            long error = errors[a];
+            keys[a] = keys[b];
+            counts[a] = counts[b];
+            errors[a] = errors[b];
+            keys[b] = key;
+            counts[b] = count;
+            errors[b] = error;
+            indexSlots[find(keys[a])] = a + 1;
+            indexSlots[find(keys[b])] = b + 1;
+        }
+
+        /**
+         * @return the index slot holding key, or ~(the empty slot it would go in)
+         */
+        private int find(long key) {
+            int slot = (int) HashUtils.mix64(key) & indexMask;
+            while (indexSlots[slot] != 0) {
+                if (indexKeys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & indexMask;
+            }
+            return ~slot;
+        }
+
+        private void insert(long key, int position) {
+            int slot = ~find(key);
+            indexKeys[slot] = key;
+            indexSlots[slot] = position + 1;
+        }
+
+        private void remove(long key) {
+            int slot = find(key);
+            indexSlots[slot] = 0;
+            // Shift back later entries of the probe run that would no longer be reachable
+            int next = (slot + 1) & indexMask;
+            while (indexSlots[next] != 0) {
+                int home = (int) HashUtils.mix64(indexKeys[next]) & indexMask;
+                if (((next - home) & indexMask) >= ((next - slot) & indexMask)) {
+                    indexKeys[slot] = indexKeys[next];
+                    indexSlots[slot] = indexSlots[next];
+                    indexSlots[next] = 0;
+                    slot = next;
+                }
+                next = (next + 1) & indexMask;
+            }
+        }
+    }
+}
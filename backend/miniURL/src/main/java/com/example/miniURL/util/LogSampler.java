@@ -0,0 +1,37 @@
+package com.example.miniURL.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which per-request log lines are written: on average 1 in every
+ * miniurl.logging.sample-every (1 logs all of them)
+ *
+ * Guard the log call with it, so the lines skipped also skip argument formatting:
+ *
+ *   if (logSampler.sample()) log.info("Cache miss for {}", code);
+ *
+ * Random rather than a shared counter, so request threads never contend on it.
+ */
+@Component
+public class LogSampler {
+
+    private final int every;
+
+    public LogSampler(@Value("${miniurl.logging.sample-every:100}") int every) {
+        if (every < 1) {
+            throw new IllegalArgumentException("miniurl.logging.sample-every must be at least 1: " + every);
+        }
+        this.every = every;
+    }
+
+    public boolean sample() {
+        return every == 1 || ThreadLocalRandom.current().nextInt(every) == 0;
+    }
+
+    public int every() {
+        return every;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.miniURL.util;
+
+import java.util.Arrays;
+
+/**
+ * Counts per long key in an open-addressing table of primitive longs
+ *
+ * add() boxes nothing and allocates nothing once a key has a slot; the arrays only grow
+ * (doubling, at half full). Keys stay put when drained, so a key counted again after a drain
+ * reuses its slot.
+ *
+ * Not thread-safe: callers guard each table with a lock (see ClickCounter).
+ */
+public final class LongCountTable {
+
+    private static final long EMPTY = -1;
+
+    @FunctionalInterface
+    public interface CountConsumer {
+        void accept(long key, long count);
+    }
+
+    private long[] keys;
+    private long[] counts;
+    private int size;
+
+    /**
+     * @param expectedKeys rounded up to a power of two, x2 for the load factor
+     */
+    public LongCountTable(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedKeys) * 2 - 1) << 1;
+        keys = new long[capacity];
+        counts = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * @param key must not be negative
+     */
+    public void add(long key, long delta) {
+        int slot = slot(keys, key);
+        if (keys[slot] == EMPTY) {
+            if (size * 2 >= keys.length) {
+                grow();
+                slot = slot(keys, key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        counts[slot] += delta;
+    }
+
+    public long get(long key) {
+        int slot = slot(keys, key);
+        return keys[slot] == EMPTY ? 0 : counts[slot];
+    }
+
+    /**
+     * Hands every non-zero count to the consumer and resets it to zero
+     */
+    public void drain(CountConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (counts[i] != 0) {
+                consumer.accept(keys[i], counts[i]);
+                counts[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * @return the sum of all counts not drained yet
+     */
+    public long total() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    private static int slot(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = (int) HashUtils.mix64(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new long[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
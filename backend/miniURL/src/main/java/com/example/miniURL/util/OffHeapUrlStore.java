@@ -0,0 +1,435 @@
+package com.example.miniURL.util;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Off-heap map from packed short codes (non-negative longs) to URL bytes
+ *
+ * How it works:
+ * - The store is split into segments, each guarded by its own StampedLock
+ * - Each segment has an open-addressing index (linear probing, 16 bytes per slot:
+ *   key + record position) and a data ring holding [key][write time][length][bytes] records
+ * - New records are appended at the ring head; when the ring (or the index) is full
+ *   the oldest records are evicted from the tail (FIFO)
+ * - With a time-to-live, a record older than it reads as missing; it stays in the ring
+ *   (and in size()) until FIFO eviction reaches it
+ * - Reads are optimistic: no lock is taken unless a writer raced with the read
+ *
+ * Everything lives in direct ByteBuffers, so tens of millions of entries add no GC work.
+ * The JVM needs -XX:MaxDirectMemorySize >= the configured capacity.
+ */
+public final class OffHeapUrlStore {
+
+    private static final int SLOT_BYTES = 16;
+    private static final int RECORD_HEADER = 20;
+    private static final long EMPTY = 0;
+    private static final long PADDING = -1;
+    private static final double MAX_LOAD = 0.75;
+    private static final long MIN_SEGMENT_BYTES = 4096;
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final long capacityBytes;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * A value and when it was stored (ticker nanos)
+     */
+    public record Entry(byte[] value, long writtenAtNanos) {
+    }
+
+    /**
+     * Entries that never expire
+     */
+    public OffHeapUrlStore(long capacityBytes, int segmentCount) {
+        this(capacityBytes, segmentCount, Duration.ZERO, System::nanoTime);
+    }
+
+    /**
+     * @param capacityBytes total off-heap memory (index + data)
+     * @param segmentCount  concurrency level, rounded to a power of two and adjusted
+     *                      so that every segment holds between 4 KB and 1 GB
+     * @param timeToLive    how long after its put an entry can be read; zero for no expiry
+     * @param ticker        nanosecond time source (System::nanoTime)
+     */
+    public OffHeapUrlStore(long capacityBytes, int segmentCount, Duration timeToLive, LongSupplier ticker) {
+        if (capacityBytes < MIN_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("Off-heap store needs at least " + MIN_SEGMENT_BYTES + " bytes");
+        }
+        int count = Integer.highestOneBit(Math.max(1, segmentCount));
+        while (capacityBytes / count > MAX_SEGMENT_BYTES) {
+            count <<= 1;
+        }
+        while (count > 1 && capacityBytes / count < MIN_SEGMENT_BYTES) {
+            count >>= 1;
+        }
+        this.segments = new Segment[count];
+        this.segmentMask = count - 1;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment((int) (capacityBytes / count));
+        }
+        this.capacityBytes = (capacityBytes / count) * count;
+        this.ttlNanos = timeToLive.toNanos();
+        this.ticker = ticker;
+    }
+
+    /**
+     * @return the stored bytes, or null if the key is not (or no longer) present or has expired
+     */
+    public byte[] get(long key) {
+        Entry entry = getEntry(key);
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * get() with the time the value was stored, e.g. to give a copy the rest of its time-to-live
+     */
+    public Entry getEntry(long key) {
+        long hash = HashUtils.mix64(key);
+        Entry entry = segmentFor(hash).get(key, (int) hash);
+        if (entry != null && expired(entry.writtenAtNanos())) {
+            entry = null;
+        }
+        (entry == null ? misses : hits).increment();
+        return entry;
+    }
+
+    /**
+     * Whether the key is present and not expired, without copying the value or counting a hit or miss
+     */
+    public boolean contains(long key) {
+        long hash = HashUtils.mix64(key);
+        long writtenAt = segmentFor(hash).writtenAt(key, (int) hash);
+        return writtenAt != Long.MIN_VALUE && !expired(writtenAt);
+    }
+
+    /**
+     * @return the time-to-live, Duration.ZERO if entries never expire
+     */
+    public Duration timeToLive() {
+        return Duration.ofNanos(ttlNanos);
+    }
+
+    /**
+     * @return how long the entry has left to live, or null if entries never expire
+     */
+    public Duration remaining(Entry entry) {
+        if (ttlNanos <= 0) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(0, ttlNanos - (ticker.getAsLong() - entry.writtenAtNanos())));
+    }
+
+    private boolean expired(long writtenAtNanos) {
+        return ttlNanos > 0 && ticker.getAsLong() - writtenAtNanos >= ttlNanos;
+    }
+
+    /**
+     * Stores the value, replacing any previous one; evicts the oldest entries if needed
+     *
+     * @return false if the value is too large for a segment and was not stored
+     */
+    public boolean put(long key, byte[] value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Keys must be non-negative: " + key);
+        }
+        long hash = HashUtils.mix64(key);
+        boolean stored = segmentFor(hash).put(key, (int) hash, value);
+        if (stored) {
+            puts.increment();
+        }
+        return stored;
+    }
+
+    public void remove(long key) {
+        long hash = HashUtils.mix64(key);
+        segmentFor(hash).remove(key, (int) hash);
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 40) & segmentMask];
+    }
+
+    /** Live entries (approximate while writers are active) */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.live;
+        }
+        return size;
+    }
+
+    /** Data ring bytes occupied by records, including superseded ones not yet evicted */
+    public long usedBytes() {
+        long used = 0;
+        for (Segment segment : segments) {
+            used += segment.head - segment.tail;
+        }
+        return used;
+    }
+
+    public long capacityBytes() {
+        return capacityBytes;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private final class Segment {
+
+        private final StampedLock lock = new StampedLock();
+        private final ByteBuffer index;
+        private final ByteBuffer data;
+        private final int slotMask;
+        private final int maxLive;
+        private final int dataCapacity;
+
+        // absolute ring positions: head = next write, tail = oldest record
+        private volatile long head;
+        private volatile long tail;
+        private volatile int live;
+
+        Segment(int segmentBytes) {
+            // ~1/4 of the segment for the index (one slot per 64 bytes), the rest for data
+            int slots = Integer.highestOneBit(Math.max(16, segmentBytes / 64));
+            this.index = ByteBuffer.allocateDirect(slots * SLOT_BYTES);
+            this.data = ByteBuffer.allocateDirect(segmentBytes - slots * SLOT_BYTES);
+            this.slotMask = slots - 1;
+            this.maxLive = (int) (slots * MAX_LOAD);
+            this.dataCapacity = data.capacity();
+        }
+
+        Entry get(long key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            Entry entry = read(key, hash);
+            if (lock.validate(stamp)) {
+                return entry;
+            }
+            stamp = lock.readLock();
+            try {
+                return read(key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * @return the key's write time, or Long.MIN_VALUE if it is not present
+         */
+        long writtenAt(long key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            long writtenAt = readWrittenAt(key, hash);
+            if (lock.validate(stamp)) {
+                return writtenAt;
+            }
+            stamp = lock.readLock();
+            try {
+                return readWrittenAt(key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private long readWrittenAt(long key, int hash) {
+            int offset = recordOffset(key, hash);
+            return offset < 0 ? Long.MIN_VALUE : data.getLong(offset + 8);
+        }
+
+        /**
+         * @return the data offset of the key's record, or -1 if it is not present (or the read was torn)
+         */
+        private int recordOffset(long key, int hash) {
+            int slot = find(key, hash);
+            if (slot < 0) {
+                return -1;
+            }
+            long position = index.getLong(slot * SLOT_BYTES + 8);
+            int offset = (int) Math.floorMod(position, (long) dataCapacity);
+            return offset > dataCapacity - RECORD_HEADER ? -1 : offset;
+        }
+
+        /**
+         * May see a torn state under an optimistic read; every offset is bounds-checked
+         * so that a torn read returns garbage (discarded by validate) instead of failing
+         */
+        private Entry read(long key, int hash) {
+            int offset = recordOffset(key, hash);
+            if (offset < 0) {
+                return null;
+            }
+            int length = data.getInt(offset + 16);
+            if (length < 0 || length > dataCapacity / 4 || length > dataCapacity - offset - RECORD_HEADER) {
+                return null;
+            }
+            byte[] value = new byte[length];
+            data.get(offset + RECORD_HEADER, value);
+            return new Entry(value, data.getLong(offset + 8));
+        }
+
+        boolean put(long key, int hash, byte[] value) {
+            int recordSize = RECORD_HEADER + value.length;
+            if (recordSize > dataCapacity / 4) {
+                return false;
+            }
+            long stamp = lock.writeLock();
+            try {
+                int offset = (int) (head % dataCapacity);
+                int padding = dataCapacity - offset < recordSize ? dataCapacity - offset : 0;
+                while (head + padding + recordSize - tail > dataCapacity || (live >= maxLive && tail < head)) {
+                    evictOldest();
+                }
+                if (padding > 0) {
+                    if (padding >= RECORD_HEADER) {
+                        data.putLong(offset, PADDING);
+                    }
+                    head += padding;
+                    offset = 0;
+                }
+                data.putLong(offset, key);
+                data.putLong(offset + 8, ticker.getAsLong());
+                data.putInt(offset + 16, value.length);
+                data.put(offset + RECORD_HEADER, value);
+
+                int slot = find(key, hash);
+                if (slot < 0) {
+                    slot = emptySlot(hash);
+                    index.putLong(slot * SLOT_BYTES, key + 1);
+                    live++;
+                }
+                index.putLong(slot * SLOT_BYTES + 8, head);
+                head += recordSize;
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void remove(long key, int hash) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = find(key, hash);
+                if (slot >= 0) {
+                    deleteSlot(slot);
+                    live--;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                for (int slot = 0; slot <= slotMask; slot++) {
+                    index.putLong(slot * SLOT_BYTES, EMPTY);
+                }
+                head = 0;
+                tail = 0;
+                live = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Drops the record at the tail; its index slot is only removed if it still points
+         * there (a newer put of the same key leaves the old record as garbage)
+         */
+        private void evictOldest() {
+            int offset = (int) (tail % dataCapacity);
+            int remaining = dataCapacity - offset;
+            if (remaining < RECORD_HEADER || data.getLong(offset) == PADDING) {
+                tail += remaining;
+                return;
+            }
+            long key = data.getLong(offset);
+            int length = data.getInt(offset + 16);
+            int slot = find(key, (int) HashUtils.mix64(key));
+            if (slot >= 0 && index.getLong(slot * SLOT_BYTES + 8) == tail) {
+                deleteSlot(slot);
+                live--;
+                evictions.increment();
+            }
+            tail += RECORD_HEADER + length;
+        }
+
+        private int find(long key, int hash) {
+            long stored = key + 1;
+            int slot = hash & slotMask;
+            for (int probes = 0; probes <= slotMask; probes++) {
+                long current = index.getLong(slot * SLOT_BYTES);
+                if (current == stored) {
+                    return slot;
+                }
+                if (current == EMPTY) {
+                    return -1;
+                }
+                slot = (slot + 1) & slotMask;
+            }
+            return -1;
+        }
+
+        private int emptySlot(int hash) {
+            int slot = hash & slotMask;
+            while (index.getLong(slot * SLOT_BYTES) != EMPTY) {
+                slot = (slot + 1) & slotMask;
+            }
+            return slot;
+        }
+
+        /**
+         * Backward-shift deletion: later entries of the probe run move up, so no tombstones are needed
+         */
+        private void deleteSlot(int slot) {
+            int hole = slot;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & slotMask;
+                long stored = index.getLong(next * SLOT_BYTES);
+                if (stored == EMPTY) {
+                    break;
+                }
+                int home = (int) HashUtils.mix64(stored - 1) & slotMask;
+                boolean canMove = hole <= next
+                        ? (home <= hole || home > next)
+                        : (home <= hole && home > next);
+                if (canMove) {
+                    index.putLong(hole * SLOT_BYTES, stored);
+                    index.putLong(hole * SLOT_BYTES + 8, index.getLong(next * SLOT_BYTES + 8));
+                    hole = next;
+                }
+            }
+            index.putLong(hole * SLOT_BYTES, EMPTY);
+        }
+    }
+}
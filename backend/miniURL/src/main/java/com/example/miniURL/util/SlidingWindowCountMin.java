@@ -0,0 +1,170 @@
+package com.example.miniURL.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Approximate per-client request counter over a sliding window, in fixed memory
+ *
+ * How it works:
+ * - A count-min sketch per window: DEPTH rows (stripes) of width counters; a client hashes to
+ *   one counter per row, and its count is the smallest of them (collisions only add)
+ * - Two windows alternate; the sliding count is the current window plus the previous one
+ *   weighted by how much of it still overlaps: cur + prev * (1 - elapsed / window)
+ * - Each counter is stamped with the window it counts for: one stamped with an older window
+ *   reads as 0 and restarts at 1 on its next increment. Nothing ever clears the table, so no
+ *   request pays for zeroing it and no count is lost to a reset
+ *
+ * No per-client objects: memory is 2 x DEPTH x width longs whatever the number of clients,
+ * and an allowed request is up to DEPTH compare-and-swaps. Collisions only overestimate, so
+ * a client may be throttled early when the sketch is crowded (see falseThrottleBound()).
+ * The limit is not strict under concurrency, though: the check and the increments are
+ * separate steps, so requests of one client that arrive together can all pass the check
+ * before any of them is counted. A client overshoots by at most its concurrent requests.
+ */
+public final class SlidingWindowCountMin {
+
+    public static final int DEPTH = 4;
+
+    private final int width;
+    private final int mask;
+    private final long windowNanos;
+    private final long limit;
+    private final long origin = System.nanoTime();
+
+    // Even and odd windows; each counter is (window << 32) | count
+    private final AtomicLongArray[] counters = new AtomicLongArray[2];
+    // Latest window each slot was used for, to reset the counted statistic
+    private final AtomicLongArray windows = new AtomicLongArray(2);
+    private final LongAdder[] counted = {new LongAdder(), new LongAdder()};
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     * @param limit requests allowed per client within any window-long span
+     */
+    public SlidingWindowCountMin(int width, long limit, long windowNanos) {
+        if (width <= 0 || limit <= 0 || windowNanos <= 0) {
+            throw new IllegalArgumentException("width, limit and window must be > 0");
+        }
+        this.width = Math.max(1, Integer.highestOneBit(width - 1) << 1);
+        this.mask = this.width - 1;
+        this.limit = limit;
+        this.windowNanos = windowNanos;
+        for (int i = 0; i < 2; i++) {
+            counters[i] = new AtomicLongArray(DEPTH * this.width);
+            windows.set(i, i - 2);  // neither holds a window yet
+        }
+    }
+
+    /**
+     * Counts the request if the client is still under the limit
+     *
+     * @return remaining requests (>= 0) when allowed, or -1 when throttled
+     */
+    public long tryAcquire(CharSequence client) {
+        return tryAcquire(HashUtils.hash64(client), System.nanoTime());
+    }
+
+    long tryAcquire(long hash, long now) {
+        long elapsed = now - origin;
+        long window = elapsed / windowNanos;
+        int slot = (int) (window & 1);
+        startWindow(slot, window);
+        AtomicLongArray current = counters[slot];
+        AtomicLongArray previous = counters[slot ^ 1];
+
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int currentCount = Integer.MAX_VALUE;
+        int previousCount = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * width + ((h1 + row * h2) & mask);
+            currentCount = Math.min(currentCount, count(current.get(index), window));
+            previousCount = Math.min(previousCount, count(previous.get(index), window - 1));
+        }
+        double overlap = 1.0 - (double) (elapsed - window * windowNanos) / windowNanos;
+        long estimate = currentCount + (long) (previousCount * overlap);
+        if (estimate >= limit) {
+            throttled.increment();
+            return -1;
+        }
+
+        // Conservative update: only the counters at the minimum grow, which keeps collisions down
+        for (int row = 0; row < DEPTH; row++) {
+            increment(current, row * width + ((h1 + row * h2) & mask), window, currentCount);
+        }
+        counted[slot].increment();
+        allowed.increment();
+        return limit - estimate - 1;
+    }
+
+    private void startWindow(int slot, long window) {
+        long held = windows.get(slot);
+        if (held < window && windows.compareAndSet(slot, held, window)) {
+            // Only the statistic: requests racing the reset may be left out of noise()
+            counted[slot].reset();
+        }
+    }
+
+    /**
+     * @return the count of a counter for this window, 0 if it was last written in another one
+     */
+    private static int count(long counter, long window) {
+        return (int) (counter >>> 32) == (int) window ? (int) counter : 0;
+    }
+
+    /**
+     * Adds one to a counter unless a concurrent request already took it above atMost
+     */
+    private static void increment(AtomicLongArray array, int index, long window, int atMost) {
+        long stamp = window << 32;
+        while (true) {
+            long counter = array.get(index);
+            int count = count(counter, window);
+            if (count > atMost || array.compareAndSet(index, counter, stamp | (count + 1))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return nanos until the current window ends (when a throttled client should retry)
+     */
+    public long nanosToNextWindow() {
+        return windowNanos - (System.nanoTime() - origin) % windowNanos;
+    }
+
+    /**
+     * Average collision noise per counter in the current window: requests counted / width
+     */
+    public double noise() {
+        long window = (System.nanoTime() - origin) / windowNanos;
+        int slot = (int) (window & 1);
+        return windows.get(slot) == window ? (double) counted[slot].sum() / width : 0;
+    }
+
+    /**
+     * Upper bound on the chance that a client who sent nothing yet is throttled by collisions alone
+     *
+     * Markov per row: P(noise >= limit) <= noise / limit, and the DEPTH rows hash independently.
+     * A client close to its limit needs less noise to be throttled, so its own odds are higher.
+     */
+    public double falseThrottleBound() {
+        return Math.pow(Math.min(1.0, noise() / limit), DEPTH);
+    }
+
+    public long allowedCount() {
+        return allowed.sum();
+    }
+
+    public long throttledCount() {
+        return throttled.sum();
+    }
+
+    public int width() {
+        return width;
+    }
+}
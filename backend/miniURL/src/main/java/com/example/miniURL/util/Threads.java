@@ -0,0 +1,31 @@
+package com.example.miniURL.util;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Threads for background pipelines that follow spring.threads.virtual.enabled
+ *
+ * Work that mostly waits on JDBC (write-behind writers, cache warm-up, backfill) runs on
+ * virtual threads in virtual-thread mode and on daemon platform threads otherwise.
+ * Single-threaded schedulers that only tick now and then stay platform threads either way.
+ */
+public final class Threads {
+
+    private Threads() {
+    }
+
+    /**
+     * @return a builder for one thread with this name (virtual threads are always daemons)
+     */
+    public static Thread.Builder builder(String name, boolean virtual) {
+        return virtual ? Thread.ofVirtual().name(name) : Thread.ofPlatform().daemon().name(name);
+    }
+
+    /**
+     * @return a factory naming its threads prefix0, prefix1, ...
+     */
+    public static ThreadFactory factory(String prefix, boolean virtual) {
+        Thread.Builder builder = virtual ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        return builder.name(prefix, 0).factory();
+    }
+}
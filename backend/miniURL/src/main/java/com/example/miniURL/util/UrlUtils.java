@@ -1,5 +1,6 @@
 package com.example.miniURL.util;
 import java.net.URI;
+import java.util.Locale;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -7,11 +8,54 @@ public class UrlUtils {
     //logic should be centralised and will be reused various times so instead
     //of a particular code in a class we make this Utils where we store the utility snippets
     public boolean isValid(String url){
+        if (url == null || url.isBlank()) {
+            return false;
+        }
         try{
-            URI.create(url);
-            return true;
+            //only absolute http(s) URLs can be redirected to (same rule as the frontend)
+            URI uri = URI.create(url);
+            String scheme = uri.getScheme();
+            return ("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))
+                    && uri.getHost() != null;
         }catch (Exception e){
             return false;
         }
     }
+
+    /**
+     * Canonical form of a valid URL, so that trivially different spellings compare equal:
+     * lower-case scheme and host, no default port, "/" for an empty path.
+     * Path, query and fragment are kept exactly as given.
+     */
+    public String normalize(String url) {
+        URI uri = URI.create(url.trim());
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        int port = uri.getPort();
+        boolean defaultPort = ("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443);
+
+        StringBuilder normalized = new StringBuilder(url.length()).append(scheme).append("://");
+        if (uri.getRawUserInfo() != null) {
+            normalized.append(uri.getRawUserInfo()).append('@');
+        }
+        normalized.append(uri.getHost().toLowerCase(Locale.ROOT));
+        if (port != -1 && !defaultPort) {
+            normalized.append(':').append(port);
+        }
+        String path = uri.getRawPath();
+        normalized.append(path == null || path.isEmpty() ? "/" : path);
+        if (uri.getRawQuery() != null) {
+            normalized.append('?').append(uri.getRawQuery());
+        }
+        if (uri.getRawFragment() != null) {
+            normalized.append('#').append(uri.getRawFragment());
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * 64-bit hash of the normalized URL (stored in url_entity.url_hash for deduplication)
+     */
+    public long hash(String url) {
+        return HashUtils.hash64(normalize(url));
+    }
 }
@@ -0,0 +1,73 @@
+package com.example.miniURL.config;
+
+import com.example.miniURL.exception.ServiceBusyException;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DatabaseConcurrencyLimiterTest {
+
+    private static DataSource h2() {
+        return new DriverManagerDataSource("jdbc:h2:mem:limiter", "sa", "");
+    }
+
+    @Test
+    void test_permitReturnedOnCloseOnlyOnce() throws Exception {
+        DatabaseConcurrencyLimiter limiter = new DatabaseConcurrencyLimiter(1, Duration.ofMillis(50), 10);
+        DataSource dataSource = limiter.wrap(h2());
+
+        Connection first = dataSource.getConnection();
+        assertThrows(ServiceBusyException.class, dataSource::getConnection);
+
+        first.close();
+        first.close();  // a second close must not hand out an extra permit
+
+        try (Connection second = dataSource.getConnection()) {
+            assertTrue(second.isValid(1));
+        }
+        try (Connection third = dataSource.getConnection()) {
+            assertThrows(ServiceBusyException.class, dataSource::getConnection);
+        }
+    }
+
+    @Test
+    void test_waiterGetsConnectionWhenOneIsReturned() throws Exception {
+        DatabaseConcurrencyLimiter limiter = new DatabaseConcurrencyLimiter(1, Duration.ofSeconds(5), 10);
+        DataSource dataSource = limiter.wrap(h2());
+
+        Connection held = dataSource.getConnection();
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                return connection.isValid(1);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        held.close();
+
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void test_unwrapReachesTargetDataSource() throws Exception {
+        DataSource target = h2();
+        DatabaseConcurrencyLimiter limiter = new DatabaseConcurrencyLimiter(1, Duration.ofMillis(50), 10);
+        Object wrapped = limiter.postProcessAfterInitialization(target, "dataSource");
+
+        assertSame(target, ((DataSource) wrapped).unwrap(DriverManagerDataSource.class));
+        // already wrapped beans are left alone
+        assertSame(wrapped, limiter.postProcessAfterInitialization(wrapped, "dataSource"));
+        assertEquals("x", limiter.postProcessAfterInitialization("x", "other"));
+    }
+}
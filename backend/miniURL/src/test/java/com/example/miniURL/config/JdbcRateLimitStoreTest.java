@@ -0,0 +1,111 @@
+package com.example.miniURL.config;
+
+import com.example.miniURL.repository.RateLimitBucketRepository;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "miniurl.rate-limit.store=jdbc")
+public class JdbcRateLimitStoreTest {
+    @Autowired
+    private RateLimitStore store;
+    @Autowired
+    private RateLimitBucketRepository repository;
+
+    private final RateLimitProperties properties = new RateLimitProperties(1000, null);
+
+    @Test
+    void test_replicasShareOneQuota() {
+        assertInstanceOf(JdbcRateLimitStore.class, store);
+        // two nodes with their own store, one database
+        RateLimitConfig first = new RateLimitConfig(properties, new JdbcRateLimitStore(repository, properties, Duration.ZERO));
+        RateLimitConfig second = new RateLimitConfig(properties, new JdbcRateLimitStore(repository, properties, Duration.ZERO));
+
+        int allowed = 0;
+        for (int i = 0; i < 30; i++) {
+            RateLimitConfig node = i % 2 == 0 ? first : second;
+            if (node.resolveBucket("/shorten", "10.1.0.1").tryConsume(1)) {
+                allowed++;
+            }
+        }
+
+        assertEquals(20, allowed);
+        assertTrue(repository.existsById(RateLimitKey.of(0, "10.1.0.1").storageId("shorten")));
+    }
+
+    @Test
+    void test_hybridConsumesLocallyBetweenSyncs() {
+        HybridRateLimitStore firstStore = new HybridRateLimitStore(repository, properties, Duration.ZERO, 5, Duration.ofMinutes(1));
+        RateLimitConfig first = new RateLimitConfig(properties, firstStore);
+        RateLimitConfig second = new RateLimitConfig(properties,
+                new HybridRateLimitStore(repository, properties, Duration.ZERO, 5, Duration.ofMinutes(1)));
+
+        int allowed = 0;
+        for (int i = 0; i < 40; i++) {
+            RateLimitConfig node = i % 2 == 0 ? first : second;
+            if (node.resolveBucket("/shorten", "10.2.0.1").tryConsume(1)) {
+                allowed++;
+            }
+        }
+
+        // each node may overshoot by up to one unsynchronized batch
+        assertTrue(allowed >= 20 && allowed <= 20 + 2 * 5, "allowed: " + allowed);
+        assertTrue(repository.existsById(RateLimitKey.of(0, "10.2.0.1").storageId("shorten")));
+    }
+
+    @Test
+    void test_evictedHybridBucketSyncsFirst() {
+        HybridRateLimitStore hybridStore = new HybridRateLimitStore(repository, properties, Duration.ZERO, 5, Duration.ofMinutes(1));
+        Bucket local = new RateLimitConfig(properties, hybridStore).resolveBucket("/shorten", "10.4.0.1");
+        for (int i = 0; i < 4; i++) {
+            assertTrue(local.tryConsume(1));
+        }
+
+        hybridStore.evicted(local);
+
+        RateLimitConfig otherNode = new RateLimitConfig(properties, new JdbcRateLimitStore(repository, properties, Duration.ZERO));
+        assertEquals(16, otherNode.resolveBucket("/shorten", "10.4.0.1").getAvailableTokens());
+    }
+
+    @Test
+    void test_asyncBucketsUseTheSameRows() throws Exception {
+        JdbcRateLimitStore jdbcStore = new JdbcRateLimitStore(repository, properties, Duration.ZERO);
+        String id = RateLimitKey.of(0, "10.5.0.1").storageId("shorten");
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.builder().capacity(20).refillIntervally(20, Duration.ofMinutes(1)).build())
+                .build();
+        AsyncBucketProxy bucket = jdbcStore.proxyManager().asAsync().builder()
+                .build(id, () -> CompletableFuture.completedFuture(configuration));
+
+        assertTrue(bucket.tryConsume(1).get(10, TimeUnit.SECONDS));
+        assertTrue(repository.existsById(id));
+
+        jdbcStore.proxyManager().asAsync().removeProxy(id).get(10, TimeUnit.SECONDS);
+        assertFalse(repository.existsById(id));
+    }
+
+    @Test
+    void test_expiredBucketsAreDeleted() {
+        JdbcRateLimitStore jdbcStore = new JdbcRateLimitStore(repository, properties, Duration.ZERO);
+        new RateLimitConfig(properties, jdbcStore).resolveBucket("/shorten", "10.3.0.1").tryConsume(1);
+        String id = RateLimitKey.of(0, "10.3.0.1").storageId("shorten");
+        assertTrue(repository.existsById(id));
+
+        assertEquals(0, repository.deleteExpired(System.currentTimeMillis()));
+        assertTrue(repository.deleteExpired(System.currentTimeMillis() + Duration.ofMinutes(2).toMillis()) >= 1);
+        assertTrue(repository.findById(id).isEmpty());
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.miniURL.config;
+
+import io.github.bucket4j.Bucket;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.miniURL.config.RateLimitProperties.Algorithm.SLIDING_WINDOW;
+import static com.example.miniURL.config.RateLimitProperties.Algorithm.TOKEN_BUCKET;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimitConfigTest {
+
+    @Test
+    void test_policiesDoNotShareBuckets() {
+        RateLimitConfig config = config(new RateLimitProperties(1000, null));
+
+        Bucket redirect = config.resolveBucket("/abc12345", "10.0.0.1");
+        Bucket shortening = config.resolveBucket("/shorten", "10.0.0.1");
+
+        assertNotSame(shortening, redirect);
+        assertSame(redirect, config.resolveBucket("/zzzzzzzz", "10.0.0.1"));
+        assertSame(shortening, config.resolveBucket("/shorten/batch", "10.0.0.1"));
+        assertEquals(20, shortening.getAvailableTokens());
+        assertEquals(100, redirect.getAvailableTokens());
+        for (int i = 0; i < 20; i++) {
+            assertTrue(config.resolveBucket("/shorten", "10.0.0.1").tryConsume(1));
+        }
+        assertFalse(config.resolveBucket("/shorten", "10.0.0.1").tryConsume(1));
+        assertTrue(config.resolveBucket("/shorten", "10.0.0.2").tryConsume(1));
+    }
+
+    @Test
+    void test_literalRoutesMatchAsPathPatternsDo() {
+        //plain paths are matched on the string, the others parsed: same policy either way
+        RateLimitConfig config = config(new RateLimitProperties(1000, Map.of(
+                "shorten", new RateLimitProperties.Policy(20, 0, Duration.ofMinutes(1), List.of("/shorten/**"), TOKEN_BUCKET, 0),
+                "stats", new RateLimitProperties.Policy(7, 0, Duration.ofMinutes(1), List.of("/stats"), TOKEN_BUCKET, 0))));
+        PathPattern shorten = PathPatternParser.defaultInstance.parse("/shorten/**");
+        PathPattern stats = PathPatternParser.defaultInstance.parse("/stats");
+
+        for (String path : List.of("/shorten", "/shorten/", "/shorten/batch", "/shortener", "/shorten//x",
+                "/shor%74en", "/shorten;v=1", "/stats", "/stats/", "/stats/x", "/stat", "//stats", "/abc12345", "/")) {
+            PathContainer parsed = PathContainer.parsePath(path);
+            Long expected = shorten.matches(parsed) ? Long.valueOf(20) : stats.matches(parsed) ? Long.valueOf(7) : null;
+            Bucket bucket = config.resolveBucket(path, "10.0.0.1");
+            assertEquals(expected, bucket == null ? null : bucket.getAvailableTokens(), path);
+        }
+    }
+
+    @Test
+    void test_namedPoliciesFromConfiguration() {
+        RateLimitConfig config = config(new RateLimitProperties(1000, Map.of(
+                "api", new RateLimitProperties.Policy(5, 1, Duration.ofSeconds(10), List.of("/api/**"), TOKEN_BUCKET, 0),
+                "batch", new RateLimitProperties.Policy(2, 0, Duration.ofMinutes(1), List.of("/api/batch"), TOKEN_BUCKET, 0))));
+
+        assertEquals(5, config.resolveBucket("/api/urls", "10.0.0.1").getAvailableTokens());
+        // the most specific pattern wins
+        assertEquals(2, config.resolveBucket("/api/batch", "10.0.0.1").getAvailableTokens());
+        assertNull(config.resolveBucket("/abc12345", "10.0.0.1"));
+    }
+
+    @Test
+    void test_slidingWindowPolicy() {
+        RateLimitConfig config = config(new RateLimitProperties(1000, Map.of(
+                "redirect", new RateLimitProperties.Policy(3, 0, Duration.ofMinutes(1), List.of("/**"), SLIDING_WINDOW, 1024))));
+
+        assertNull(config.resolveBucket("/abc12345", "10.0.0.1"));
+        for (int i = 2; i >= 0; i--) {
+            assertEquals(i, config.tryConsume("/abc12345", "10.0.0.1"));
+        }
+        long throttled = config.tryConsume("/abc12345", "10.0.0.1");
+        assertTrue(throttled < 0 && throttled != RateLimitConfig.NOT_LIMITED);
+        assertTrue(RateLimitConfig.nanosToRetry(throttled) > 0);
+        assertTrue(config.tryConsume("/abc12345", "10.0.0.2") >= 0);
+    }
+
+    @Test
+    void test_idleBucketsLiveUntilFullAgain() {
+        assertEquals(Duration.ofMinutes(1),
+                new RateLimitProperties.Policy(20, 0, Duration.ofMinutes(1), List.of("/**"), TOKEN_BUCKET, 0).fullRefillTime());
+        assertEquals(Duration.ofSeconds(50),
+                new RateLimitProperties.Policy(5, 1, Duration.ofSeconds(10), List.of("/**"), TOKEN_BUCKET, 0).fullRefillTime());
+        // a partial last refill still takes a whole period
+        assertEquals(Duration.ofSeconds(30),
+                new RateLimitProperties.Policy(5, 2, Duration.ofSeconds(10), List.of("/**"), TOKEN_BUCKET, 0).fullRefillTime());
+    }
+
+    @Test
+    void test_invalidPolicyFailsBinding() {
+        Binder binder = new Binder(new MapConfigurationPropertySource(Map.of(
+                "miniurl.rate-limit.policies.redirect.capacity", "0",
+                "miniurl.rate-limit.policies.redirect.paths", "/**")));
+
+        assertThrows(BindException.class, () -> binder.bind("miniurl.rate-limit", RateLimitProperties.class));
+    }
+
+    @Test
+    void test_bucketCountStaysBounded() {
+        RateLimitConfig config = config(new RateLimitProperties(100, null));
+
+        for (int i = 0; i < 10_000; i++) {
+            config.resolveBucket("/abc12345", "10.0." + (i >> 8) + "." + (i & 0xFF)).tryConsume(1);
+        }
+
+        assertTrue(config.bucketCount() <= 100, "live buckets: " + config.bucketCount());
+    }
+
+    @Test
+    void test_keysPackIpAddresses() {
+        assertEquals(new RateLimitKey(2, 0, 0xFFFF_0A00_0001L), RateLimitKey.of(1, "10.0.0.1"));
+        assertEquals(RateLimitKey.of(1, "10.0.0.1"), RateLimitKey.of(1, "::ffff:10.0.0.1"));
+        assertEquals(RateLimitKey.of(1, "2001:db8::1"), RateLimitKey.of(1, " 2001:0db8:0:0:0:0:0:1"));
+        assertEquals(new RateLimitKey(2, 0x2001_0DB8_0000_0000L, 1), RateLimitKey.of(1, "2001:db8::1"));
+        assertNotEquals(RateLimitKey.of(0, "10.0.0.1"), RateLimitKey.of(1, "10.0.0.1"));
+
+        // anything else is hashed, flagged in the scope
+        RateLimitKey forged = RateLimitKey.of(1, "unknown");
+        assertEquals(3, forged.scope());
+        assertEquals(1, forged.policyId());
+        assertEquals(forged, RateLimitKey.of(1, "unknown"));
+        assertNotEquals(forged, RateLimitKey.of(1, "unknown2"));
+        assertEquals(3, RateLimitKey.of(1, "10.0.0.256").scope());
+        assertEquals(3, RateLimitKey.of(1, "1.2.3").scope());
+        assertEquals(3, RateLimitKey.of(1, "abc:not-an-address").scope());
+    }
+
+    private static RateLimitConfig config(RateLimitProperties properties) {
+        return new RateLimitConfig(properties, new InMemoryRateLimitStore(properties));
+    }
+}
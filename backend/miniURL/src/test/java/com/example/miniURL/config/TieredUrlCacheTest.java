@@ -0,0 +1,82 @@
+package com.example.miniURL.config;
+
+import com.example.miniURL.generator.ShortCode;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TieredUrlCacheTest {
+
+    private static final ShortCode CODE = ShortCode.of("abc12345");
+    private static final URI TARGET = URI.create("https://example.com/coalesced");
+
+    @Test
+    void test_concurrentMissesShareOneLoad() throws Exception {
+        TieredUrlCache cache = new TieredUrlCache("urlCache", Caffeine.newBuilder().buildAsync(), null);
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<URI> database = new CompletableFuture<>();
+
+        CompletableFuture<URI> first = cache.retrieve(CODE, () -> {
+            loads.incrementAndGet();
+            return database;
+        });
+        CompletableFuture<URI> second = cache.retrieve(CODE, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(URI.create("https://example.com/other"));
+        });
+        database.complete(TARGET);
+
+        assertSame(TARGET, first.get());
+        assertSame(TARGET, second.get());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.coalescedCount());
+        // the loaded value is visible to the synchronous (servlet) API as well
+        assertSame(TARGET, cache.get(CODE, URI.class));
+    }
+
+    @Test
+    void test_notFoundIsNotCached() throws Exception {
+        TieredUrlCache cache = new TieredUrlCache("urlCache", Caffeine.newBuilder().buildAsync(), null);
+
+        assertNull(cache.retrieve(CODE, () -> CompletableFuture.<URI>completedFuture(null)).get());
+        assertNull(cache.retrieve(CODE));
+        assertSame(TARGET, cache.retrieve(CODE, () -> CompletableFuture.completedFuture(TARGET)).get());
+    }
+
+    @Test
+    void test_pinnedEntriesDoNotExpire() {
+        AtomicLong nanos = new AtomicLong();
+        Duration ttl = Duration.ofMinutes(1);
+        TieredUrlCache cache = new TieredUrlCache("urlCache", Caffeine.newBuilder()
+                .ticker(nanos::get)
+                .executor(Runnable::run)
+                .expireAfter(Expiry.writing((key, value) -> ttl))
+                .build(), null);
+        ShortCode other = ShortCode.of("zzz12345");
+        cache.put(CODE, TARGET);
+        cache.put(other, TARGET);
+
+        assertEquals(1, cache.pin(List.of(CODE, ShortCode.of("missing1")), ttl));
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertSame(TARGET, cache.get(CODE, URI.class));
+        assertNull(cache.get(other, URI.class));
+
+        // unpinned: the regular TTL applies again, from now
+        assertEquals(0, cache.pin(List.of(), ttl));
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertSame(TARGET, cache.get(CODE, URI.class));
+        nanos.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertNull(cache.get(CODE, URI.class));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.miniURL.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class BulkShortenControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void test_jsonArrayKeepsOrderAndReportsItemErrors() throws Exception {
+        MvcResult result = mockMvc.perform(post("/shorten/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"url\":\"https://example.com/a\"},{\"url\":\"nope\"},{\"url\":\"https://example.com/c\"}]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].shortCode").exists())
+                .andExpect(jsonPath("$[1].error").value("Invalid URL format: nope"))
+                .andExpect(jsonPath("$[2].url").value("https://example.com/c"));
+    }
+
+    @Test
+    void test_ndjsonToleratesMalformedLines() throws Exception {
+        MvcResult result = mockMvc.perform(post("/shorten/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"url\":\"https://example.com/a\"}\n{broken\n\n{\"url\":\"https://example.com/b\"}\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"index\":1,\"error\":\"Missing or malformed url\"")))
+                .andExpect(content().string(containsString("\"index\":2,\"url\":\"https://example.com/b\"")));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.miniURL.controller;
+
+import com.example.miniURL.dto.ShortenUrlRequestDto;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.service.ClickCounter;
+import com.example.miniURL.service.UrlService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ClickStatsControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UrlService urlService;
+    @Autowired
+    private ClickCounter clickCounter;
+
+    @Test
+    void test_statsMergeFlushedAndPendingClicks() throws Exception {
+        ShortenUrlRequestDto request = new ShortenUrlRequestDto();
+        request.setUrl("https://example.com/stats");
+        String shortCode = urlService.shortenUrl(request).getShortCode();
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/" + shortCode)).andExpect(status().isMovedPermanently());
+        }
+        mockMvc.perform(get("/stats/" + shortCode))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalClicks").value(3));
+
+        // written to url_click_stats, no longer pending: counted once
+        clickCounter.flush();
+        mockMvc.perform(get("/" + shortCode)).andExpect(status().isMovedPermanently());
+        mockMvc.perform(get("/stats/" + shortCode))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.shortCode").value(shortCode))
+                .andExpect(jsonPath("$.totalClicks").value(4))
+                .andExpect(jsonPath("$.lastDay[-1].clicks").value(4));
+
+        clickCounter.flush();
+        clickCounter.flush();
+        mockMvc.perform(get("/stats/" + shortCode))
+                .andExpect(jsonPath("$.totalClicks").value(4));
+    }
+
+    @Test
+    void test_concurrentClicksOnOneCodeAddUp() throws Exception {
+        //threads land on different stripes of the same minute; flushing mid-way loses nothing
+        ShortCode code = ShortCode.of("hot12345");
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 5000; i++) {
+                        clickCounter.increment(code);
+                        if (i == 2500) {
+                            clickCounter.flush();
+                        }
+                    }
+                });
+            }
+        }
+        assertEquals(40_000, clickCounter.stats(code).getTotalClicks());
+        clickCounter.flush();
+        assertEquals(40_000, clickCounter.stats(code).getTotalClicks());
+    }
+
+    @Test
+    void test_unknownCodeIsNotFound() throws Exception {
+        mockMvc.perform(get("/stats/zzzzzzzz")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/stats/not-a-code")).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.miniURL.controller;
+
+import com.example.miniURL.dto.ShortenUrlRequestDto;
+import com.example.miniURL.service.UrlService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=hotcodes")
+@AutoConfigureMockMvc
+public class HotCodesEndpointTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UrlService urlService;
+
+    @Test
+    void test_mostRedirectedCodeComesFirst() throws Exception {
+        String hot = shorten("https://example.com/hot");
+        String warm = shorten("https://example.com/warm");
+        for (int i = 0; i < 50; i++) {
+            mockMvc.perform(get("/" + hot)).andExpect(status().isMovedPermanently());
+        }
+        for (int i = 0; i < 20; i++) {
+            mockMvc.perform(get("/" + warm)).andExpect(status().isMovedPermanently());
+        }
+
+        mockMvc.perform(get("/actuator/hotcodes").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.codes.length()").value(2))
+                .andExpect(jsonPath("$.codes[0].shortCode").value(hot))
+                .andExpect(jsonPath("$.codes[0].minClicks").value(50))
+                .andExpect(jsonPath("$.codes[1].shortCode").value(warm));
+    }
+
+    private String shorten(String url) {
+        ShortenUrlRequestDto request = new ShortenUrlRequestDto();
+        request.setUrl(url);
+        return urlService.shortenUrl(request).getShortCode();
+    }
+}
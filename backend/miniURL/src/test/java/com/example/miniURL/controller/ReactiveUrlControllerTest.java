@@ -0,0 +1,60 @@
+package com.example.miniURL.controller;
+
+import com.example.miniURL.config.TieredUrlCache;
+import com.example.miniURL.dto.ShortenUrlResponseDto;
+import com.example.miniURL.generator.ShortCode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.net.URI;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+public class ReactiveUrlControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private TieredUrlCache urlCache;
+
+    @Test
+    void test_shortenThenRedirectThroughR2dbc() {
+        ShortenUrlResponseDto response = webTestClient.post().uri("/shorten")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("url", "https://example.com/reactive"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ShortenUrlResponseDto.class)
+                .returnResult().getResponseBody();
+        assertNotNull(response);
+
+        webTestClient.get().uri("/" + response.getShortCode())
+                .exchange()
+                .expectStatus().isEqualTo(301)
+                .expectHeader().valueEquals("Location", "https://example.com/reactive")
+                .expectHeader().exists("X-Rate-Limit-Remaining");
+        assertEquals(URI.create("https://example.com/reactive"),
+                urlCache.get(ShortCode.of(response.getShortCode()), URI.class));
+    }
+
+    @Test
+    void test_unknownCodesAndInvalidUrls() {
+        webTestClient.get().uri("/zzzzzzzz").exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.path").isEqualTo("/zzzzzzzz");
+        webTestClient.get().uri("/not-a-code").exchange()
+                .expectStatus().isNotFound();
+        webTestClient.post().uri("/shorten")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("url", "not a url"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
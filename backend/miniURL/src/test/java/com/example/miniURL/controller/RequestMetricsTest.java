@@ -0,0 +1,61 @@
+package com.example.miniURL.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+public class RequestMetricsTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void test_requestsAreTimedAndErrorsCounted() throws Exception {
+        long shortens = registry.get("miniurl.shorten.latency").timer().count();
+        long misses = registry.get("miniurl.redirect.latency").tag("cache", "miss").timer().count();
+        long hits = registry.get("miniurl.redirect.latency").tag("cache", "hit").timer().count();
+        double notFound = registry.get("miniurl.errors").tag("exception", "UrlNotFoundException").functionCounter().count();
+
+        MvcResult shorten = mockMvc.perform(post("/shorten")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"url\":\"https://example.com/metrics\"}"))
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(shorten)).andReturn().getResponse().getContentAsString();
+        String shortCode = body.replaceAll(".*\"shortCode\":\"([^\"]+)\".*", "$1");
+        mockMvc.perform(get("/" + shortCode)).andExpect(status().isMovedPermanently());
+        mockMvc.perform(get("/" + shortCode)).andExpect(status().isMovedPermanently());
+        mockMvc.perform(get("/zzzzzzzz")).andExpect(status().isNotFound());
+
+        assertEquals(shortens + 1, registry.get("miniurl.shorten.latency").timer().count());
+        assertEquals(misses + 1, registry.get("miniurl.redirect.latency").tag("cache", "miss").timer().count());
+        assertEquals(hits + 1, registry.get("miniurl.redirect.latency").tag("cache", "hit").timer().count());
+        assertEquals(notFound + 1, registry.get("miniurl.errors").tag("exception", "UrlNotFoundException").functionCounter().count());
+    }
+
+    @Test
+    void test_prometheusEndpointExportsHistograms() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("miniurl_redirect_latency_seconds_bucket")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds_bucket")))
+                .andExpect(content().string(containsString("miniurl_ratelimit_rejected_total")));
+    }
+}
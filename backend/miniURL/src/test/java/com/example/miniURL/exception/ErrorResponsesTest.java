@@ -0,0 +1,45 @@
+package com.example.miniURL.exception;
+
+import com.example.miniURL.util.LogSampler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class ErrorResponsesTest {
+    private final ErrorResponses errorResponses = new ErrorResponses(new LogSampler(1));
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void test_notFoundBodyMatchesTemplate() throws Exception {
+        ResponseEntity<byte[]> response = errorResponses.notFound("Short code not found: a\"b\\c\n", "/a%22b");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        JsonNode body = objectMapper.readTree(response.getBody());
+        assertNotNull(LocalDateTime.parse(body.get("timestamp").asText()));
+        assertEquals(404, body.get("status").asInt());
+        assertEquals("Not Found", body.get("error").asText());
+        assertEquals("Short code not found: a\"b\\c\n", body.get("message").asText());
+        assertEquals("/a%22b", body.get("path").asText());
+    }
+
+    @Test
+    void test_busyHasFixedMessageAndRetryAfter() throws Exception {
+        ResponseEntity<byte[]> response = errorResponses.busy("/shorten");
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        JsonNode body = objectMapper.readTree(response.getBody());
+        assertEquals("Service Unavailable", body.get("error").asText());
+        assertEquals("Server is busy. Please try again shortly.", body.get("message").asText());
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.miniURL.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "miniurl.rate-limit.store=jdbc",
+        "miniurl.rate-limit.policies.redirect.capacity=2"})
+@ActiveProfiles("reactive")
+public class RateLimitWebFilterTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void test_jdbcStoreLimitsReactiveRequests() {
+        //the database-backed buckets are consumed off the event loop, same answers as inline
+        webTestClient.get().uri("/zzzzzzzz").header("X-Forwarded-For", "10.0.0.7").exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().valueEquals("X-Rate-Limit-Remaining", "1");
+        webTestClient.get().uri("/zzzzzzzz").header("X-Forwarded-For", "10.0.0.7").exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().valueEquals("X-Rate-Limit-Remaining", "0");
+        webTestClient.get().uri("/zzzzzzzz").header("X-Forwarded-For", "10.0.0.7").exchange()
+                .expectStatus().isEqualTo(429)
+                .expectHeader().exists("X-Rate-Limit-Retry-After-Seconds");
+    }
+}
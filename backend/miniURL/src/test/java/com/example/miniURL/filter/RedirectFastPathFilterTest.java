@@ -0,0 +1,84 @@
+package com.example.miniURL.filter;
+
+import com.example.miniURL.dto.ShortenUrlRequestDto;
+import com.example.miniURL.service.UrlService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "miniurl.redirect.fast-path.enabled=true")
+@AutoConfigureMockMvc
+public class RedirectFastPathFilterTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UrlService urlService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void test_cachedCodeIsServedByFilter() throws Exception {
+        ShortenUrlRequestDto request = new ShortenUrlRequestDto();
+        request.setUrl("https://example.com/fast");
+        String shortCode = urlService.shortenUrl(request).getShortCode();
+
+        //first request misses the cache and goes through UrlController, which caches it
+        mockMvc.perform(get("/" + shortCode))
+                .andExpect(status().isMovedPermanently())
+                .andExpect(header().string("Location", "https://example.com/fast"));
+        double servedBefore = served();
+
+        mockMvc.perform(get("/" + shortCode))
+                .andExpect(status().isMovedPermanently())
+                .andExpect(header().string("Location", "https://example.com/fast"))
+                .andExpect(header().exists("X-Rate-Limit-Remaining"));
+        assertEquals(servedBefore + 1, served());
+    }
+
+    @Test
+    void test_rateLimitedRequestsAreNotCountedAsRedirects() throws Exception {
+        ShortenUrlRequestDto request = new ShortenUrlRequestDto();
+        request.setUrl("https://example.com/limited");
+        String shortCode = urlService.shortenUrl(request).getShortCode();
+        mockMvc.perform(get("/" + shortCode)).andExpect(status().isMovedPermanently());
+
+        //the redirect policy allows 100 per client
+        for (int i = 0; i < 100; i++) {
+            mockMvc.perform(get("/" + shortCode).with(limited -> {
+                limited.setRemoteAddr("10.0.9.9");
+                return limited;
+            })).andExpect(status().isMovedPermanently());
+        }
+        double servedBefore = served();
+        long hitsBefore = cacheHitLatencies();
+
+        mockMvc.perform(get("/" + shortCode).with(limited -> {
+            limited.setRemoteAddr("10.0.9.9");
+            return limited;
+        })).andExpect(status().isTooManyRequests());
+        assertEquals(servedBefore, served());
+        assertEquals(hitsBefore, cacheHitLatencies());
+    }
+
+    @Test
+    void test_unknownAndOtherRoutesFallThrough() throws Exception {
+        mockMvc.perform(get("/zzzzzzzz")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/not-a-code")).andExpect(status().isNotFound());
+    }
+
+    private long cacheHitLatencies() {
+        return meterRegistry.get("miniurl.redirect.latency").tag("cache", "hit").timer().count();
+    }
+
+    private double served() {
+        return meterRegistry.get("miniurl.redirect.fastpath").tag("result", "served").functionCounter().count();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.miniURL.generator;
+
+import com.example.miniURL.entity.UrlEntity;
+import com.example.miniURL.repository.ShortCodeBlockRepository;
+import com.example.miniURL.repository.UrlRepository;
+import com.example.miniURL.service.UrlService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "miniurl.shortcode.block-size=10",
+        "miniurl.shortcode.prefetch-threshold=2"
+})
+public class BlockAllocatedShortCodeGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 50;
+
+    @Autowired
+    private ShortCodeBlockRepository blockRepository;
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UrlService urlService;
+
+    @Value("${miniurl.shortcode.block-size}")
+    private int blockSize;
+
+    @Value("${miniurl.shortcode.prefetch-threshold}")
+    private int prefetchThreshold;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final List<BlockAllocatedShortCodeGenerator> generators = new ArrayList<>();
+
+    @AfterEach
+    void shutdownGenerators() {
+        generators.forEach(BlockAllocatedShortCodeGenerator::shutdown);
+    }
+
+    @Test
+    void test_concurrentCallersGetUniqueIdsAcrossLeases() throws Exception {
+        //fresh generator so the lease count doesn't depend on what other tests used up
+        BlockAllocatedShortCodeGenerator generator = newGenerator(prefetchThreshold);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<Long>>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit(() -> {
+                List<Long> ids = new ArrayList<>();
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    ids.add(generator.nextId());
+                }
+                return ids;
+            }));
+        }
+        Set<Long> ids = new HashSet<>();
+        for (Future<List<Long>> result : results) {
+            ids.addAll(result.get());
+        }
+        pool.shutdown();
+
+        //one more id moves onto the block prefetched while the 40th was running out
+        ids.add(generator.nextId());
+
+        assertEquals(THREADS * IDS_PER_THREAD + 1, ids.size());
+        //40 full blocks plus the one we just started; nothing leased beyond it yet
+        assertEquals(41, leases());
+        assertEquals(blockSize - 1, remaining());
+        //the very first call has no prefetch to wait on
+        assertTrue(stalls() >= 1);
+    }
+
+    @Test
+    void test_withoutPrefetchEveryRefillStalls() {
+        //a negative threshold never prefetches, so each block switch leases inline
+        BlockAllocatedShortCodeGenerator generator = newGenerator(-1);
+
+        long previous = generator.nextId();
+        for (int i = 1; i < 25; i++) {
+            long id = generator.nextId();
+            if (i % blockSize == 0) {
+                assertTrue(id > previous);
+            } else {
+                assertEquals(previous + 1, id);
+            }
+            previous = id;
+        }
+
+        assertEquals(3, leases());
+        assertEquals(3, stalls());
+        assertEquals(5, remaining());
+    }
+
+    @Test
+    void test_leaseSkipsPastIdsAlreadyInTheTable() {
+        //a row inserted by IDENTITY or snowflake mode far ahead of the sequence
+        long taken = Math.max(blockRepository.findNextValue("url").orElse(0L), urlRepository.findMaxId()) + 1_000;
+        UrlEntity urlEntity = urlService.newUrlEntity("https://example.com/floor");
+        urlEntity.setId(taken);
+        urlRepository.saveAndFlush(urlEntity);
+
+        BlockAllocatedShortCodeGenerator generator = newGenerator(-1);
+
+        assertEquals(taken + 1, generator.nextId());
+        //the sequence row was moved past the floor too, so the next lease continues from there
+        assertEquals(taken + 1 + blockSize, blockRepository.findNextValue("url").orElseThrow());
+    }
+
+    private BlockAllocatedShortCodeGenerator newGenerator(int prefetchThreshold) {
+        BlockAllocatedShortCodeGenerator generator = new BlockAllocatedShortCodeGenerator(
+                blockRepository, urlRepository, transactionManager, blockSize, prefetchThreshold);
+        generator.bindTo(registry);
+        generators.add(generator);
+        return generator;
+    }
+
+    private long leases() {
+        return (long) registry.get("miniurl.shortcode.lease").functionTimer().count();
+    }
+
+    private long stalls() {
+        return (long) registry.get("miniurl.shortcode.lease.stalls").functionCounter().count();
+    }
+
+    private long remaining() {
+        return (long) registry.get("miniurl.shortcode.block.remaining").gauge().value();
+    }
+}
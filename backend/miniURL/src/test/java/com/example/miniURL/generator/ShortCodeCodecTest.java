@@ -0,0 +1,46 @@
+package com.example.miniURL.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShortCodeCodecTest {
+
+    private final ShortCodeCodec codec = new ShortCodeCodec("test-secret");
+
+    @Test
+    void test_encodeDecodeRoundTrip() {
+        for (long id : new long[]{0, 1, 2, 9_999, 10_000, 123_456_789L, ShortCodeCodec.CODE_SPACE - 1}) {
+            String code = codec.encode(id);
+            assertEquals(ShortCodeCodec.CODE_LENGTH, code.length());
+            assertTrue(code.chars().allMatch(Character::isLetterOrDigit));
+            assertEquals(id, codec.decode(code));
+        }
+    }
+
+    @Test
+    void test_sequentialIdsGiveDistinctCodes() {
+        Set<String> codes = new HashSet<>();
+        for (long id = 0; id < 100_000; id++) {
+            assertTrue(codes.add(codec.encode(id)));
+        }
+    }
+
+    @Test
+    void test_secretChangesCodes() {
+        ShortCodeCodec other = new ShortCodeCodec("another-secret");
+        assertNotEquals(codec.encode(42), other.encode(42));
+    }
+
+    @Test
+    void test_decodeRejectsMalformedCodes() {
+        assertEquals(-1, codec.decode("abc"));
+        assertEquals(-1, codec.decode("abc-1234"));
+        assertEquals(-1, codec.decode(null));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.miniURL.generator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ShortCodeTest {
+
+    @Test
+    void test_parseFormatRoundTrip() {
+        for (String code : new String[]{"00000000", "abc12345", "Zz9Aa0Qq", "zzzzzzzz"}) {
+            long value = ShortCode.parse(code);
+            assertEquals(code, ShortCode.format(value));
+            assertEquals(code, ShortCode.of(code).toString());
+        }
+        assertEquals(0, ShortCode.parse("00000000"));
+        assertEquals(ShortCode.SPACE - 1, ShortCode.parse("zzzzzzzz"));
+    }
+
+    @Test
+    void test_rejectsNonCodes() {
+        for (String text : new String[]{"", "abc1234", "abc123456", "abc-1234", "favicon.ico", "abc 1234"}) {
+            assertEquals(-1, ShortCode.parse(text));
+            assertThrows(IllegalArgumentException.class, () -> ShortCode.of(text));
+        }
+        assertEquals(-1, ShortCode.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> new ShortCode(ShortCode.SPACE));
+    }
+
+    @Test
+    void test_valueEquality() {
+        assertEquals(ShortCode.of("abc12345"), new ShortCode(ShortCode.parse("abc12345")));
+        assertEquals(ShortCode.of("abc12345").hashCode(), new ShortCode(ShortCode.parse("abc12345")).hashCode());
+    }
+}
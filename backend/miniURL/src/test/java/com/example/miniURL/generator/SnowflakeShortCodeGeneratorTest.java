@@ -0,0 +1,105 @@
+package com.example.miniURL.generator;
+
+import com.example.miniURL.exception.UrlGenerationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SnowflakeShortCodeGeneratorTest {
+
+    private static final Instant EPOCH = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final MutableClock clock = new MutableClock(EPOCH.plusSeconds(1_000));
+
+    @Test
+    void test_idsIncreaseAndFitCodeSpace() {
+        SnowflakeShortCodeGenerator generator = new SnowflakeShortCodeGenerator(clock, 31, 5, EPOCH, 10);
+
+        long previous = -1;
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertTrue(id < ShortCodeCodec.CODE_SPACE);
+            previous = id;
+        }
+    }
+
+    @Test
+    void test_nodesNeverOverlap() {
+        SnowflakeShortCodeGenerator node0 = new SnowflakeShortCodeGenerator(clock, 0, 5, EPOCH, 10);
+        SnowflakeShortCodeGenerator node1 = new SnowflakeShortCodeGenerator(clock, 1, 5, EPOCH, 10);
+
+        assertTrue(node0.nextId() != node1.nextId());
+        assertEquals(1L << 11, node1.nextId() - node0.nextId());
+    }
+
+    @Test
+    void test_sequenceOverflowBorrowsNextSecond() {
+        SnowflakeShortCodeGenerator generator = new SnowflakeShortCodeGenerator(clock, 0, 5, EPOCH, 10);
+
+        long first = generator.nextId();
+        for (int i = 1; i < 2048; i++) {
+            generator.nextId();
+        }
+        // 2049th id in the same wall-clock second moves to the next second
+        assertEquals(first + (1L << 16), generator.nextId());
+    }
+
+    @Test
+    void test_clockRegressionWithinDriftKeepsIdsUnique() {
+        SnowflakeShortCodeGenerator generator = new SnowflakeShortCodeGenerator(clock, 0, 5, EPOCH, 10);
+
+        long before = generator.nextId();
+        clock.advance(-5);
+        assertTrue(generator.nextId() > before);
+    }
+
+    @Test
+    void test_clockRegressionBeyondDriftIsRefused() {
+        SnowflakeShortCodeGenerator generator = new SnowflakeShortCodeGenerator(clock, 0, 5, EPOCH, 10);
+
+        generator.nextId();
+        clock.advance(-60);
+        assertThrows(UrlGenerationException.class, generator::nextId);
+    }
+
+    @Test
+    void test_nodeIdMustFitNodeBits() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeShortCodeGenerator(clock, 32, 5, EPOCH, 10));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.miniURL.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "miniurl.access-log.enabled=true",
+        "miniurl.access-log.path=target/access-log-test/access.ndjson",
+        "miniurl.redirect.fast-path.enabled=true"
+})
+@AutoConfigureMockMvc
+public class AccessLogTest {
+    private static final Path LOG = Path.of("target/access-log-test/access.ndjson");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void test_requestsAreWrittenAsNdjson() throws Exception {
+        double written = written();
+        MvcResult shorten = mockMvc.perform(post("/shorten")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"url\":\"https://example.com/access-log\"}"))
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(shorten)).andReturn().getResponse().getContentAsString();
+        String shortCode = body.replaceAll(".*\"shortCode\":\"([^\"]+)\".*", "$1");
+        //miss through UrlController, then a hit answered by the fast path
+        mockMvc.perform(get("/" + shortCode)).andExpect(status().isMovedPermanently());
+        mockMvc.perform(get("/" + shortCode)).andExpect(status().isMovedPermanently());
+        mockMvc.perform(get("/zzzzzzzz")).andExpect(status().isNotFound());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (written() < written + 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        List<String> lines = Files.readAllLines(LOG);
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"method\":\"POST\",\"path\":\"/shorten\",\"status\":200")));
+        assertTrue(lines.stream().filter(line -> line.contains("\"path\":\"/" + shortCode + "\",\"status\":301")).count() >= 2);
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"path\":\"/zzzzzzzz\",\"status\":404")));
+        assertTrue(lines.stream().allMatch(line -> line.startsWith("{\"ts\":") && line.endsWith("}")));
+    }
+
+    @Test
+    void test_recordsAfterShutdownAreDroppedWithoutUnderflow() throws Exception {
+        AccessLog accessLog = new AccessLog(Path.of("target/access-log-test/stopped.ndjson"), 10, 10, false);
+        MeterRegistry stopped = new SimpleMeterRegistry();
+        accessLog.bindTo(stopped);
+        accessLog.shutdown();
+
+        assertFalse(accessLog.record(0, "GET", "/abc12345", 301, 10, "10.0.0.1"));
+        assertEquals(0, stopped.get("miniurl.accesslog.queue.depth").gauge().value());
+        assertEquals(1, stopped.get("miniurl.accesslog.entries").tag("result", "dropped").functionCounter().count());
+    }
+
+    private double written() {
+        return registry.get("miniurl.accesslog.entries").tag("result", "written").functionCounter().count();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.entity.ClickAggregate;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.repository.ClickAggregateRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "miniurl.analytics.enabled=true",
+        "miniurl.analytics.flush-interval=100ms",
+        "miniurl.analytics.handoff-size=8"
+})
+public class ClickAnalyticsTest {
+
+    private static final String CHROME_WINDOWS = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
+            + "(KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+    private static final String SAFARI_IPHONE = "Mozilla/5.0 (iPhone; CPU iPhone OS 17_0 like Mac OS X) "
+            + "AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.0 Mobile/15E148 Safari/604.1";
+
+    @Autowired
+    private ClickAnalytics clickAnalytics;
+    @Autowired
+    private ClickAggregateRepository repository;
+
+    @Test
+    void test_clicksAreAggregatedPerDimension() throws InterruptedException {
+        //30 clicks: 3 full batches handed off, 6 left in the stripe for the flush to collect
+        ShortCode code = ShortCode.of("clk12345");
+        for (int i = 0; i < 30; i++) {
+            assertTrue(clickAnalytics.record(code, "10.0.0." + i, i % 3 == 0 ? SAFARI_IPHONE : CHROME_WINDOWS));
+        }
+        awaitClicks(code, 30);
+
+        assertEquals(30, repository.sumClicks(code.value()));
+        List<ClickAggregate> rows = rows(code);
+        assertEquals(20, rows.stream().filter(row -> row.getBrowser().equals("Chrome"))
+                .mapToLong(ClickAggregate::getClicks).sum());
+        assertEquals(10, rows.stream().filter(row -> row.getOs().equals("iOS"))
+                .mapToLong(ClickAggregate::getClicks).sum());
+        // no GeoIP database configured
+        assertTrue(rows.stream().allMatch(row -> row.getCountry().isEmpty() && row.getCity().isEmpty()));
+    }
+
+    @Test
+    void test_laterFlushesAddToTheSameRow() throws InterruptedException {
+        ShortCode code = ShortCode.of("clk23456");
+        for (int i = 0; i < 3; i++) {
+            assertTrue(clickAnalytics.record(code, "10.0.1." + i, CHROME_WINDOWS));
+        }
+        awaitClicks(code, 3);
+        for (int i = 0; i < 2; i++) {
+            assertTrue(clickAnalytics.record(code, "10.0.1." + i, CHROME_WINDOWS));
+        }
+        awaitClicks(code, 5);
+
+        List<ClickAggregate> rows = rows(code);
+        assertEquals(1, rows.size());
+        assertEquals(5, rows.get(0).getClicks());
+    }
+
+    private void awaitClicks(ShortCode code, long clicks) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (repository.sumClicks(code.value()) < clicks && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private List<ClickAggregate> rows(ShortCode code) {
+        return repository.findAll().stream()
+                .filter(row -> row.getCodeValue() == code.value())
+                .toList();
+    }
+
+    @Test
+    void test_onlyIpLiteralsAreLookedUp() {
+        assertNotNull(ClickEnricher.parseLiteral("203.0.113.7"));
+        assertNotNull(ClickEnricher.parseLiteral("2001:db8::1"));
+        assertNull(ClickEnricher.parseLiteral("203.0.113"));
+        assertNull(ClickEnricher.parseLiteral("203.0.113.256"));
+        assertNull(ClickEnricher.parseLiteral("1..2.3"));
+        assertNull(ClickEnricher.parseLiteral("example.com"));
+        assertNull(ClickEnricher.parseLiteral("unknown"));
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.entity.UrlEntity;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.repository.UrlRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "miniurl.bloom.enabled=true",
+        "miniurl.bloom.snapshot-path=target/bloom-test/bloom.snapshot",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.miniURL.service.ShortCodeBloomFilterTest$UrlEntitySelects"
+})
+public class ShortCodeBloomFilterTest {
+    //low enough that "absent" assertions never trip over a false positive
+    private static final double FPP = 1e-6;
+    private static final Duration OVERLAP = Duration.ofSeconds(30);
+
+    @Autowired
+    private ShortCodeBloomFilter shortCodeBloomFilter;
+    @Autowired
+    private UrlService urlService;
+    @Autowired
+    private UrlRepository urlRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry registry;
+
+    @TempDir
+    private Path tempDir;
+
+    private final List<ShortCodeBloomFilter> filters = new ArrayList<>();
+
+    /**
+     * Counts SELECTs on url_entity, i.e. redirect lookups that reached the database
+     */
+    public static class UrlEntitySelects implements StatementInspector {
+        static final AtomicInteger COUNT = new AtomicInteger();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.startsWith("select") && sql.contains("url_entity")) {
+                COUNT.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+
+    @AfterEach
+    void shutdownFilters() {
+        filters.forEach(ShortCodeBloomFilter::shutdown);
+    }
+
+    @Test
+    void test_unknownCodeIsAnsweredWithoutTheDatabase() throws Exception {
+        ShortCode known = saveUrl("https://example.com/bloom/known");
+        awaitTrue(shortCodeBloomFilter::isReady);
+        double rejected = registry.get("miniurl.bloom.lookups").tag("result", "rejected").functionCounter().count();
+
+        UrlEntitySelects.COUNT.set(0);
+        assertTrue(urlService.findRedirectionUri(new ShortCode(ShortCode.SPACE - 1)).isEmpty());
+        assertEquals(0, UrlEntitySelects.COUNT.get());
+        assertEquals(rejected + 1,
+                registry.get("miniurl.bloom.lookups").tag("result", "rejected").functionCounter().count());
+
+        //a code the filter knows still goes to the database
+        assertTrue(urlService.findRedirectionUri(known).isPresent());
+        assertTrue(UrlEntitySelects.COUNT.get() > 0);
+    }
+
+    @Test
+    void test_startupScanLoadsExistingCodes() throws Exception {
+        //saved before the filter exists, so only the startup scan can have added it
+        ShortCode existing = saveUrl("https://example.com/bloom/existing");
+
+        ShortCodeBloomFilter filter = newFilter(100_000, null);
+        assertTrue(filter.mightContain(new ShortCode(ShortCode.SPACE - 1)), "every code passes until ready");
+        filter.startBuild();
+        awaitTrue(filter::isReady);
+
+        assertTrue(filter.mightContain(existing));
+        assertFalse(filter.mightContain(new ShortCode(ShortCode.SPACE - 1)));
+    }
+
+    @Test
+    void test_snapshotIsRestoredAndOnlyTheOverlapRescanned() throws Exception {
+        Path snapshot = tempDir.resolve("bloom.snapshot");
+        LocalDateTime beforeSnapshot = LocalDateTime.now();
+
+        ShortCodeBloomFilter first = newFilter(100_000, snapshot);
+        first.startBuild();
+        awaitTrue(first::isReady);
+        //added in memory only: it can come back from the snapshot and nowhere else
+        ShortCode inMemory = new ShortCode(ShortCode.SPACE - 2);
+        first.add(inMemory);
+        first.shutdown();
+        assertTrue(Files.exists(snapshot));
+
+        //rows the snapshot missed: one stamped within refresh-overlap of it, one long before
+        ShortCode withinOverlap = saveUrl("https://example.com/bloom/overlap", beforeSnapshot.minusSeconds(10));
+        ShortCode beforeOverlap = saveUrl("https://example.com/bloom/stale", beforeSnapshot.minusHours(1));
+        ShortCode afterSnapshot = saveUrl("https://example.com/bloom/after");
+
+        ShortCodeBloomFilter restored = newFilter(100_000, snapshot);
+        restored.startBuild();
+        awaitTrue(restored::isReady);
+
+        assertTrue(restored.mightContain(inMemory));
+        assertTrue(restored.mightContain(withinOverlap));
+        assertTrue(restored.mightContain(afterSnapshot));
+        //not rescanned: the restore scans from the snapshot time minus the overlap, not the whole table
+        assertFalse(restored.mightContain(beforeOverlap));
+    }
+
+    @Test
+    void test_overfullFilterIsRebuiltAtDoubleCapacity() throws Exception {
+        List<ShortCode> codes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            codes.add(saveUrl("https://example.com/bloom/rebuild/" + i));
+        }
+
+        ShortCodeBloomFilter filter = newFilter(4, null);
+        filter.startBuild();
+        awaitTrue(filter::isReady);
+        assertEquals(4, filter.capacity());
+
+        //the startup scan already went past 4 insertions; the next add triggers the rebuild
+        ShortCode added = saveUrl("https://example.com/bloom/rebuild/trigger");
+        filter.add(added);
+        awaitTrue(() -> filter.capacity() == 8);
+
+        for (ShortCode code : codes) {
+            assertTrue(filter.mightContain(code));
+        }
+        assertTrue(filter.mightContain(added));
+    }
+
+    private ShortCodeBloomFilter newFilter(long expectedInsertions, Path snapshot) {
+        //no scheduled refresh or snapshot: the test drives every step itself
+        ShortCodeBloomFilter filter = new ShortCodeBloomFilter(urlRepository, transactionManager,
+                expectedInsertions, FPP, snapshot == null ? "" : snapshot.toString(),
+                Duration.ZERO, OVERLAP, Duration.ZERO);
+        filters.add(filter);
+        return filter;
+    }
+
+    private ShortCode saveUrl(String url) {
+        UrlEntity urlEntity = urlService.newUrlEntity(url);
+        urlRepository.saveAndFlush(urlEntity);
+        return new ShortCode(urlEntity.getCodeValue());
+    }
+
+    private ShortCode saveUrl(String url, LocalDateTime createdAt) {
+        ShortCode shortCode = saveUrl(url);
+        //createdAt is stamped by @PrePersist, so backdate the row directly
+        jdbcTemplate.update("update url_entity set created_at = ? where code_value = ?",
+                Timestamp.valueOf(createdAt), shortCode.value());
+        return shortCode;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.config.TieredUrlCache;
+import com.example.miniURL.dto.ShortenUrlRequestDto;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.repository.UrlRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "miniurl.cache.warmup.gate-readiness=true",
+        "miniurl.cache.warmup.snapshot-path=target/test-hot-keys.txt"
+})
+public class UrlCacheWarmerTest {
+    @Autowired
+    private UrlService urlService;
+    @Autowired
+    private UrlCacheWarmer urlCacheWarmer;
+    @Autowired
+    private TieredUrlCache urlCache;
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Test
+    void test_warmUpFromDatabaseThenSnapshot() throws IOException {
+        String shortCode = shorten("https://example.com/warm");
+
+        //empty cache + no snapshot -> loaded from the database
+        Files.deleteIfExists(Path.of("target/test-hot-keys.txt"));
+        urlCache.clear();
+        urlCacheWarmer.warmUp();
+        assertEquals(URI.create("https://example.com/warm"), urlCache.get(ShortCode.of(shortCode), URI.class));
+
+        //snapshot of the hot keys -> loaded without the database
+        urlCacheWarmer.writeSnapshot();
+        urlCache.clear();
+        urlRepository.delete(urlRepository.findByShortCode(shortCode).orElseThrow());
+        urlCacheWarmer.warmUp();
+        assertEquals(URI.create("https://example.com/warm"), urlCache.get(ShortCode.of(shortCode), URI.class));
+    }
+
+    private String shorten(String url) {
+        ShortenUrlRequestDto request = new ShortenUrlRequestDto();
+        request.setUrl(url);
+        return urlService.shortenUrl(request).getShortCode();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.dto.ShortenUrlRequestDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@SpringBootTest(properties = "miniurl.dedup.enabled=true")
+public class UrlDeduplicatorTest {
+    @Autowired
+    private UrlService urlService;
+
+    @Test
+    void test_sameUrlGetsSameCode() {
+        String first = shorten("https://Example.com:443/dedup?q=1");
+        String second = shorten("https://example.com/dedup?q=1");
+
+        assertEquals(first, second);
+        assertNotEquals(first, shorten("https://example.com/dedup?q=2"));
+    }
+
+    private String shorten(String url) {
+        ShortenUrlRequestDto request = new ShortenUrlRequestDto();
+        request.setUrl(url);
+        return urlService.shortenUrl(request).getShortCode();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.dto.ShortenUrlRequestDto;
+import com.example.miniURL.dto.ShortenUrlResponseDto;
+import com.example.miniURL.entity.UrlEntity;
+import com.example.miniURL.exception.UrlNotFoundException;
+import com.example.miniURL.generator.ShortCode;
+import com.example.miniURL.repository.UrlRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class UrlServiceTest {
+    @Autowired
+    private UrlService urlService;
+    @Autowired
+    private UrlRepository urlRepository;
+    @Autowired
+    private ShortCodeValueBackfill shortCodeValueBackfill;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void test_shortenThenRedirect() {
+        ShortenUrlResponseDto response = urlService.shortenUrl(request("https://example.com/some/long/path"));
+
+        assertEquals(8, response.getShortCode().length());
+        assertEquals(URI.create("https://example.com/some/long/path"),
+                urlService.getRedirectionUri(ShortCode.of(response.getShortCode())));
+    }
+
+    @Test
+    void test_shortenGivesUniqueCodes() {
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            assertTrue(codes.add(urlService.shortenUrl(request("https://example.com/" + i)).getShortCode()));
+        }
+    }
+
+    @Test
+    void test_unknownCodeNotFound() {
+        assertThrows(UrlNotFoundException.class, () -> urlService.getRedirectionUri(ShortCode.of("zzzzzzzz")));
+        assertTrue(urlService.findRedirectionUri(ShortCode.of("zzzzzzzz")).isEmpty());
+    }
+
+    @Test
+    void test_legacyRowGetsCodeValueBackfilled() {
+        UrlEntity legacy = urlService.newUrlEntity("https://example.com/legacy");
+        legacy.setCodeValue(null);
+        urlRepository.save(legacy);
+
+        shortCodeValueBackfill.backfill();
+
+        assertEquals(ShortCode.parse(legacy.getShortCode()),
+                urlRepository.findByShortCode(legacy.getShortCode()).orElseThrow().getCodeValue());
+        assertEquals(URI.create("https://example.com/legacy"),
+                urlService.getRedirectionUri(ShortCode.of(legacy.getShortCode())));
+    }
+
+    @Test
+    void test_backfillBatchesSkipRowsClaimedByAnotherReplica() throws Exception {
+        UrlEntity first = legacyRow("https://example.com/legacy/1");
+        UrlEntity second = legacyRow("https://example.com/legacy/2");
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // Another replica holds a batch of one legacy row
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<Long>> other = CompletableFuture.supplyAsync(() -> transaction.execute(status -> {
+            List<Long> ids = urlRepository.claimByCodeValueIsNull(1).stream().map(UrlEntity::getId).toList();
+            claimed.countDown();
+            await(release);
+            return ids;
+        }));
+        assertTrue(claimed.await(10, TimeUnit.SECONDS));
+
+        List<Long> mine = transaction.execute(status ->
+                urlRepository.claimByCodeValueIsNull(100).stream().map(UrlEntity::getId).toList());
+        release.countDown();
+        List<Long> theirs = other.get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, theirs.size());
+        assertFalse(mine.contains(theirs.get(0)));
+        assertTrue(mine.contains(theirs.contains(first.getId()) ? second.getId() : first.getId()));
+
+        shortCodeValueBackfill.backfill();
+        assertFalse(urlRepository.existsByCodeValueIsNull());
+    }
+
+    private UrlEntity legacyRow(String url) {
+        UrlEntity legacy = urlService.newUrlEntity(url);
+        legacy.setCodeValue(null);
+        return urlRepository.save(legacy);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ShortenUrlRequestDto request(String url) {
+        ShortenUrlRequestDto dto = new ShortenUrlRequestDto();
+        dto.setUrl(url);
+        return dto;
+    }
+}
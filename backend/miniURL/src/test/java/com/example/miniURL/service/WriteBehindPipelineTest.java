@@ -0,0 +1,115 @@
+package com.example.miniURL.service;
+
+import com.example.miniURL.dto.ShortenUrlRequestDto;
+import com.example.miniURL.dto.ShortenUrlResponseDto;
+import com.example.miniURL.entity.UrlEntity;
+import com.example.miniURL.exception.ServiceBusyException;
+import com.example.miniURL.exception.UrlGenerationException;
+import com.example.miniURL.repository.UrlRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "miniurl.write-behind.enabled=true",
+        "miniurl.write-behind.batch-size=16",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.miniURL.service.WriteBehindPipelineTest$UrlEntitySelects"
+})
+public class WriteBehindPipelineTest {
+    @Autowired
+    private UrlService urlService;
+    @Autowired
+    private UrlRepository urlRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Counts SELECTs on url_entity, i.e. what merging a row costs that persisting it does not
+     */
+    public static class UrlEntitySelects implements StatementInspector {
+        static final AtomicInteger COUNT = new AtomicInteger();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.startsWith("select") && sql.contains("url_entity")) {
+                COUNT.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+
+    @Test
+    void test_submittedUrlsAreDurableWhenFutureCompletes() {
+        List<CompletableFuture<ShortenUrlResponseDto>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ShortenUrlRequestDto request = new ShortenUrlRequestDto();
+            request.setUrl("https://example.com/write-behind/" + i);
+            futures.add(urlService.submitShortenUrl(request));
+        }
+
+        for (CompletableFuture<ShortenUrlResponseDto> future : futures) {
+            String shortCode = future.join().getShortCode();
+            assertTrue(urlRepository.findByShortCode(shortCode).isPresent());
+        }
+    }
+
+    @Test
+    void test_fullQueueIsRejectedAsBusy() {
+        //writers not started: nothing drains the 2 slots
+        WriteBehindPipeline stalled = new WriteBehindPipeline(urlRepository, transactionManager, 2, 16, 5, 1, false);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        stalled.bindTo(registry);
+
+        stalled.submit(urlService.newUrlEntity("https://example.com/full/1"));
+        stalled.submit(urlService.newUrlEntity("https://example.com/full/2"));
+        assertThrows(ServiceBusyException.class, () -> stalled.submit(urlService.newUrlEntity("https://example.com/full/3")));
+        assertEquals(1, registry.get("miniurl.writebehind.rejected").functionCounter().count());
+    }
+
+    @Test
+    void test_failedGroupCommitRetriesEachRowOnItsOwn() throws InterruptedException {
+        UrlEntity taken = urlRepository.saveAndFlush(urlService.newUrlEntity("https://example.com/taken"));
+        WriteBehindPipeline pipeline = new WriteBehindPipeline(urlRepository, transactionManager, 100, 16, 200, 1, false);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        pipeline.bindTo(registry);
+
+        //queued before the writer starts, so all three go into one batch; the duplicate code fails it
+        UrlEntity first = urlService.newUrlEntity("https://example.com/neighbour/1");
+        UrlEntity duplicate = urlService.newUrlEntity("https://example.com/duplicate");
+        duplicate.setShortCode(taken.getShortCode());
+        UrlEntity last = urlService.newUrlEntity("https://example.com/neighbour/2");
+        CompletableFuture<Void> firstDurable = pipeline.submit(first);
+        CompletableFuture<Void> duplicateDurable = pipeline.submit(duplicate);
+        CompletableFuture<Void> lastDurable = pipeline.submit(last);
+        UrlEntitySelects.COUNT.set(0);
+        pipeline.start();
+
+        firstDurable.join();
+        lastDurable.join();
+        CompletionException failed = assertThrows(CompletionException.class, duplicateDurable::join);
+        assertInstanceOf(UrlGenerationException.class, failed.getCause());
+        //each retry was a plain INSERT, not a merge that looks the row up first
+        assertEquals(0, UrlEntitySelects.COUNT.get());
+        assertEquals(3, registry.get("miniurl.writebehind.rows").tag("result", "retried").functionCounter().count());
+        assertEquals(2, registry.get("miniurl.writebehind.rows").tag("result", "committed").functionCounter().count());
+        assertTrue(urlRepository.findByShortCode(first.getShortCode()).isPresent());
+        assertTrue(urlRepository.findByShortCode(last.getShortCode()).isPresent());
+        pipeline.shutdown();
+    }
+}
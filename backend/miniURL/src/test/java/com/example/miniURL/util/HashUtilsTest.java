@@ -0,0 +1,35 @@
+package com.example.miniURL.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class HashUtilsTest {
+
+    @Test
+    void test_seedZeroIsTheUnseededHash() {
+        assertEquals(HashUtils.hash64("10.0.0.1"), HashUtils.hash64("10.0.0.1", 0L));
+        assertEquals(HashUtils.hash64("x-10.0.0.1", 2, 10), HashUtils.hash64("10.0.0.1", 0L));
+    }
+
+    @Test
+    void test_seedsGiveIndependentHashes() {
+        Set<Long> high = new HashSet<>();
+        Set<Long> low = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            String client = "client-" + i;
+            long h = HashUtils.hash64(client, 0x9E3779B97F4A7C15L);
+            long l = HashUtils.hash64(client, 0xC2B2AE3D27D4EB4FL);
+            assertNotEquals(h, l);
+            high.add(h);
+            low.add(l);
+        }
+        //no collisions within either seed
+        assertEquals(10_000, high.size());
+        assertEquals(10_000, low.size());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.miniURL.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HeavyHittersTest {
+
+    @Test
+    void test_exactWhileEveryKeyFits() {
+        HeavyHitters hitters = new HeavyHitters(0.01, 1);
+        for (int key = 0; key < 50; key++) {
+            for (int i = 0; i <= key; i++) {
+                hitters.add(key);
+            }
+        }
+
+        List<HeavyHitters.Entry> top = hitters.top(3);
+        assertEquals(List.of(new HeavyHitters.Entry(49, 50, 0), new HeavyHitters.Entry(48, 49, 0),
+                new HeavyHitters.Entry(47, 48, 0)), top);
+        assertEquals(0, hitters.maxError());
+    }
+
+    @Test
+    void test_boundsHoldOnSkewedStream() throws InterruptedException {
+        double error = 0.002;
+        int keys = 100_000;
+        int adds = 200_000;
+        long[] truth = new long[keys];
+        long[][] streams = new long[4][adds / 4];
+        Random random = new Random(42);
+        for (long[] stream : streams) {
+            for (int i = 0; i < stream.length; i++) {
+                // Zipf-like: key ~ keys^u, most traffic on the smallest keys
+                int key = (int) Math.pow(keys, random.nextDouble()) - 1;
+                stream[i] = key;
+                truth[key]++;
+            }
+        }
+
+        HeavyHitters hitters = new HeavyHitters(error, 4);
+        List<Thread> threads = new ArrayList<>();
+        for (long[] stream : streams) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (long key : stream) {
+                    hitters.add(key);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(adds, hitters.total());
+        assertTrue(hitters.maxError() <= error * adds, "max error: " + hitters.maxError());
+        List<HeavyHitters.Entry> top = hitters.top(hitters.capacity());
+        for (HeavyHitters.Entry entry : top) {
+            long actual = truth[(int) entry.key()];
+            assertTrue(entry.count() >= actual && entry.guaranteed() <= actual, entry + " actual " + actual);
+            assertTrue(entry.error() <= hitters.maxError(), entry.toString());
+        }
+        // every key above the error threshold is reported, and the top 10 in the right order
+        for (int key = 0; key < keys; key++) {
+            if (truth[key] > error * adds) {
+                int k = key;
+                assertTrue(top.stream().anyMatch(entry -> entry.key() == k), "missing heavy key " + key);
+            }
+        }
+        List<HeavyHitters.Entry> top10 = hitters.top(10);
+        for (int i = 1; i < top10.size(); i++) {
+            assertTrue(truth[(int) top10.get(i - 1).key()] + hitters.maxError() >= truth[(int) top10.get(i).key()]);
+        }
+    }
+
+    @Test
+    void test_decayHalvesCounts() {
+        HeavyHitters hitters = new HeavyHitters(0.1, 1);
+        for (int i = 0; i < 100; i++) {
+            hitters.add(7);
+        }
+        hitters.decay();
+
+        assertEquals(50, hitters.total());
+        assertEquals(new HeavyHitters.Entry(7, 50, 0), hitters.top(1).get(0));
+    }
+}
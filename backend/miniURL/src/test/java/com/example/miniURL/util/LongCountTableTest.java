@@ -0,0 +1,47 @@
+package com.example.miniURL.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LongCountTableTest {
+
+    @Test
+    void test_countsMatchAHashMapAcrossGrowth() {
+        LongCountTable table = new LongCountTable(4);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(5000) * 1_000_003L;
+            table.add(key, 1);
+            expected.merge(key, 1L, Long::sum);
+        }
+
+        expected.forEach((key, count) -> assertEquals(count, table.get(key)));
+        assertEquals(0, table.get(7));
+        assertEquals(100_000, table.total());
+    }
+
+    @Test
+    void test_drainHandsOverAndResetsCounts() {
+        LongCountTable table = new LongCountTable(16);
+        table.add(0, 2);
+        table.add(218_340_105_584_895L, 3);
+
+        Map<Long, Long> drained = new HashMap<>();
+        table.drain((key, count) -> drained.put(key, count));
+        assertEquals(Map.of(0L, 2L, 218_340_105_584_895L, 3L), drained);
+        assertEquals(0, table.total());
+
+        table.add(0, 1);
+        drained.clear();
+        table.drain((key, count) -> drained.put(key, count));
+        assertEquals(Map.of(0L, 1L), drained);
+        assertTrue(table.total() == 0 && table.get(218_340_105_584_895L) == 0);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.miniURL.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OffHeapUrlStoreTest {
+
+    private static byte[] url(long i) {
+        return ("https://example.com/page/" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void test_putGetReplaceRemove() {
+        OffHeapUrlStore store = new OffHeapUrlStore(1 << 20, 4);
+        for (long key = 0; key < 1_000; key++) {
+            assertTrue(store.put(key, url(key)));
+        }
+        for (long key = 0; key < 1_000; key++) {
+            assertArrayEquals(url(key), store.get(key));
+        }
+
+        store.put(7, url(700));
+        assertArrayEquals(url(700), store.get(7));
+
+        store.remove(7);
+        assertNull(store.get(7));
+        assertArrayEquals(url(8), store.get(8));
+    }
+
+    @Test
+    void test_evictsOldestWhenFull() {
+        OffHeapUrlStore store = new OffHeapUrlStore(64 * 1024, 1);
+        long total = 20_000;
+        for (long key = 0; key < total; key++) {
+            store.put(key, url(key));
+        }
+
+        // Oldest entries are gone, the newest are intact, memory stays within the capacity
+        assertNull(store.get(0));
+        for (long key = total - 100; key < total; key++) {
+            assertNotNull(store.get(key));
+            assertArrayEquals(url(key), store.get(key));
+        }
+        assertTrue(store.evictionCount() > 0);
+        assertTrue(store.usedBytes() <= store.capacityBytes());
+    }
+
+    @Test
+    void test_expiresAfterTimeToLive() {
+        AtomicLong now = new AtomicLong();
+        OffHeapUrlStore store = new OffHeapUrlStore(1 << 20, 4, Duration.ofHours(1), now::get);
+        store.put(1, url(1));
+
+        now.addAndGet(Duration.ofMinutes(45).toNanos());
+        OffHeapUrlStore.Entry entry = store.getEntry(1);
+        assertArrayEquals(url(1), entry.value());
+        assertEquals(Duration.ofMinutes(15), store.remaining(entry));
+
+        // Rewriting restarts the clock, an untouched entry is gone at one hour
+        store.put(2, url(2));
+        now.addAndGet(Duration.ofMinutes(15).toNanos());
+        assertNull(store.get(1));
+        assertFalse(store.contains(1));
+        assertArrayEquals(url(2), store.get(2));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.miniURL.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SingleFlightTest {
+
+    private static final int WAITERS = 8;
+
+    @Test
+    void test_concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> flight.load("abc", () -> {
+                loads.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "https://example.com";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            List<Future<String>> waiters = new ArrayList<>();
+            for (int i = 0; i < WAITERS; i++) {
+                waiters.add(executor.submit(() -> flight.load("abc", () -> {
+                    loads.incrementAndGet();
+                    return "https://example.com/other";
+                })));
+            }
+            awaitCoalesced(flight, WAITERS);
+            release.countDown();
+
+            assertEquals("https://example.com", leader.get());
+            for (Future<String> waiter : waiters) {
+                assertEquals("https://example.com", waiter.get());
+            }
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, flight.loadCount());
+        assertEquals(WAITERS, flight.coalescedCount());
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    void test_failureIsSharedAndNotRemembered() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        IllegalStateException notFound = new IllegalStateException("not found");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> flight.load("abc", () -> {
+                started.countDown();
+                await(release);
+                throw notFound;
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> waiter = executor.submit(() -> flight.load("abc", () -> "unexpected"));
+            awaitCoalesced(flight, 1);
+            release.countDown();
+
+            assertSame(notFound, assertThrows(Exception.class, leader::get).getCause());
+            Throwable shared = assertThrows(Exception.class, waiter::get).getCause();
+            assertInstanceOf(IllegalStateException.class, shared);
+            assertSame(notFound, shared);
+        }
+
+        // the next caller loads again
+        assertEquals("found", flight.load("abc", () -> "found"));
+        assertEquals(2, flight.loadCount());
+    }
+
+    private static void awaitCoalesced(SingleFlight<?, ?> flight, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.coalescedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, flight.coalescedCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.miniURL.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SlidingWindowCountMinTest {
+
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(60);
+
+    @Test
+    void test_limitSlidesAcrossWindows() {
+        SlidingWindowCountMin sketch = new SlidingWindowCountMin(1024, 10, WINDOW);
+        long hash = HashUtils.hash64("10.0.0.1");
+        long start = System.nanoTime();
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(9 - i, sketch.tryAcquire(hash, start));
+        }
+        assertEquals(-1, sketch.tryAcquire(hash, start));
+
+        // a quarter into the next window 3/4 of the previous window still counts: 7 of 10 used
+        long quarterIntoNext = start + WINDOW + WINDOW / 4;
+        assertTrue(sketch.tryAcquire(hash, quarterIntoNext) >= 0);
+        assertTrue(sketch.tryAcquire(hash, quarterIntoNext) >= 0);
+        assertTrue(sketch.tryAcquire(hash, quarterIntoNext) >= 0);
+        assertEquals(-1, sketch.tryAcquire(hash, quarterIntoNext));
+
+        // two windows later nothing is left of the burst
+        assertEquals(9, sketch.tryAcquire(hash, start + 3 * WINDOW + WINDOW / 2));
+        assertEquals(14, sketch.allowedCount());
+        assertEquals(2, sketch.throttledCount());
+    }
+
+    @Test
+    void test_falseThrottlesStayRareUnderLoad() {
+        int clients = 10_000;
+        long limit = 100;
+        SlidingWindowCountMin sketch = new SlidingWindowCountMin(65536, limit, WINDOW);
+        long now = System.nanoTime();
+
+        // every client sends half its limit: none of them should be throttled
+        for (int round = 0; round < limit / 2; round++) {
+            for (int client = 0; client < clients; client++) {
+                sketch.tryAcquire(HashUtils.hash64("10." + (client >> 16) + "." + ((client >> 8) & 0xFF) + "." + (client & 0xFF)), now);
+            }
+        }
+
+        assertEquals(0, sketch.throttledCount());
+        assertTrue(sketch.falseThrottleBound() < 0.01, "bound: " + sketch.falseThrottleBound());
+    }
+}
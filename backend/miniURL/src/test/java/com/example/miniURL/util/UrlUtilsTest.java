@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
 @SpringBootTest
@@ -14,4 +15,9 @@ public class UrlUtilsTest {
     void test_isValid(){
         assertFalse(urlUtils.isValid(""));
     }
+    @Test
+    void test_normalize(){
+        assertEquals("https://example.com/", urlUtils.normalize("HTTPS://Example.COM:443"));
+        assertEquals("http://example.com:8080/A?b=C#d", urlUtils.normalize("http://example.com:8080/A?b=C#d"));
+    }
 }